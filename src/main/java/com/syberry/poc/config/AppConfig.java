@@ -42,8 +42,8 @@ public class AppConfig {
    * @return map with DocumentTypes and DocumentTypeConverters
    */
   @Bean
-  public Map<DocumentType, DocumentTypeConverter> documentMapConverter() {
-    Map<DocumentType, DocumentTypeConverter> map = new HashMap<>();
+  public Map<DocumentType, DocumentTypeConverter<?>> documentMapConverter() {
+    Map<DocumentType, DocumentTypeConverter<?>> map = new HashMap<>();
     map.put(DocumentType.CRASH, crashDataConverter);
     map.put(DocumentType.PEDESTRIAN, pedestrianBicyclistConverter);
     map.put(DocumentType.TRAFFIC, trafficConverter);
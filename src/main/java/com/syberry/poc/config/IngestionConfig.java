@@ -0,0 +1,186 @@
+package com.syberry.poc.config;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.syberry.poc.data.model.UploadJob;
+import com.syberry.poc.data.model.UploadSession;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration bean for setting up documents ingestion.
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+public class IngestionConfig {
+
+  @Value("${app.ingestion.pool-size}")
+  private int poolSize;
+
+  @Value("${app.ingestion.queue-capacity}")
+  private int queueCapacity;
+
+  @Value("${app.ingestion.job-expiration-minutes}")
+  private long jobExpiration;
+
+  @Value("${app.ingestion.upload-session-expiration-minutes}")
+  private long uploadSessionExpiration;
+
+  @Value("${app.ingestion.archive.parallelism}")
+  private int archiveParallelism;
+
+  @Value("${app.ingestion.cleaning.parallelism}")
+  private int cleaningParallelism;
+
+  @Value("${app.ingestion.parsing.parallelism}")
+  private int parsingParallelism;
+
+  @Value("${app.ingestion.cleaning.pushdown}")
+  private boolean cleaningPushdown;
+
+  @Value("${spring.datasource.hikari.maximum-pool-size}")
+  private int connectionPoolSize;
+
+  /**
+   * Checks that the connection pool is larger than the connections the ingestion can hold.
+   * An upload job processes up to the archive parallelism documents at once,
+   * and a document cleaned in the database holds the staging table's connection
+   * while its chunks are written with another one. If the ingestion could take
+   * all the pool's connections, the documents would wait for each other's connections.
+   */
+  @PostConstruct
+  public void checkConnectionPoolSize() {
+    int connectionsPerDocument = cleaningPushdown ? 2 : 1;
+    int ingestionConnections = poolSize * Math.max(archiveParallelism, 1) * connectionsPerDocument;
+    if (ingestionConnections >= connectionPoolSize) {
+      throw new IllegalStateException(String.format("Connection pool size %d must exceed "
+          + "%d connections held by the concurrent ingestion",
+          connectionPoolSize, ingestionConnections));
+    }
+  }
+
+  /**
+   * Defines bounded executor for upload jobs.
+   * Jobs submitted over the queue capacity are rejected.
+   *
+   * @return ThreadPoolTaskExecutor bean
+   */
+  @Bean
+  public ThreadPoolTaskExecutor ingestionTaskExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(poolSize);
+    executor.setMaxPoolSize(poolSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("ingestion-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    return executor;
+  }
+
+  /**
+   * Defines executor for the concurrent processing of the archived documents.
+   * The archive's documents of different types are processed by separate tasks.
+   *
+   * @return ThreadPoolTaskExecutor bean
+   */
+  @Bean
+  public ThreadPoolTaskExecutor archiveTaskExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(archiveParallelism);
+    executor.setMaxPoolSize(archiveParallelism);
+    executor.setThreadNamePrefix("archive-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    return executor;
+  }
+
+  /**
+   * Defines Cache bean for upload jobs states.
+   *
+   * @return Cache bean
+   */
+  @Bean
+  public Cache<String, UploadJob> uploadJobCache() {
+    return CacheBuilder.newBuilder()
+        .expireAfterWrite(jobExpiration, TimeUnit.MINUTES)
+        .build();
+  }
+
+  /**
+   * Defines Cache bean for the upload jobs ids by the users' idempotency keys.
+   * The keys expire with their jobs.
+   *
+   * @return Cache bean
+   */
+  @Bean
+  public Cache<String, String> idempotencyKeyCache() {
+    return CacheBuilder.newBuilder()
+        .expireAfterWrite(jobExpiration, TimeUnit.MINUTES)
+        .build();
+  }
+
+  /**
+   * Defines Cache bean for chunked upload sessions.
+   * The spooled file of the session is deleted when the session expires.
+   *
+   * @return Cache bean
+   */
+  @Bean
+  public Cache<String, UploadSession> uploadSessionCache() {
+    return CacheBuilder.newBuilder()
+        .expireAfterAccess(uploadSessionExpiration, TimeUnit.MINUTES)
+        .removalListener((RemovalNotification<String, UploadSession> notification) -> {
+          if (notification.wasEvicted()) {
+            deleteSpooledFile(notification.getValue().getSpooledFile());
+          }
+        })
+        .build();
+  }
+
+  /**
+   * Defines ForkJoinPool for the parallel cleaning of documents.
+   * Uses all available processors if the parallelism is not set.
+   *
+   * @return ForkJoinPool bean
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ForkJoinPool cleaningForkJoinPool() {
+    return new ForkJoinPool(cleaningParallelism > 0
+        ? cleaningParallelism : Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Defines ForkJoinPool for the parallel parsing of documents.
+   * Uses all available processors if the parallelism is not set.
+   *
+   * @return ForkJoinPool bean
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ForkJoinPool parsingForkJoinPool() {
+    return new ForkJoinPool(parsingParallelism > 0
+        ? parsingParallelism : Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Deletes spooled file of the expired upload session.
+   *
+   * @param spooledFile path of the spooled file.
+   */
+  private static void deleteSpooledFile(Path spooledFile) {
+    try {
+      Files.deleteIfExists(spooledFile);
+    } catch (IOException e) {
+      log.warn("Spooled file {} cannot be deleted", spooledFile, e);
+    }
+  }
+}
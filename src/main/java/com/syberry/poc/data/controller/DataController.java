@@ -7,9 +7,12 @@ import com.syberry.poc.data.dto.PedestrianBicyclistDto;
 import com.syberry.poc.data.dto.PedestrianBicyclistFilter;
 import com.syberry.poc.data.dto.TrafficDto;
 import com.syberry.poc.data.dto.TrafficFilter;
-import com.syberry.poc.data.dto.UploadReportDto;
-import com.syberry.poc.data.service.CsvProcessingService;
+import com.syberry.poc.data.dto.UploadJobDto;
+import com.syberry.poc.data.dto.UploadSessionDto;
 import com.syberry.poc.data.service.DataService;
+import com.syberry.poc.data.service.UploadJobService;
+import com.syberry.poc.data.service.UploadSessionService;
+import java.io.InputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -20,6 +23,8 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -35,7 +40,8 @@ import org.springframework.web.multipart.MultipartFile;
 @RequestMapping("/data")
 public class DataController {
   private final DataService dataService;
-  private final CsvProcessingService csvProcessingService;
+  private final UploadJobService uploadJobService;
+  private final UploadSessionService uploadSessionService;
 
   /**
    * Returns a paginated list of all traffic data records in the system.
@@ -167,12 +173,113 @@ public class DataController {
     dataService.deleteCrashDataByDocumentId(id);
   }
 
-  @ResponseStatus(HttpStatus.CREATED)
+  /**
+   * Accepts a document for processing in the background.
+   * A document that the user has already uploaded is not processed again,
+   * the completed job with the report of the first upload is returned.
+   *
+   * @param file the uploaded document
+   * @param idempotencyKey the optional client's key the retries of the upload are sent with
+   * @param replacedDocumentId the optional ID of the document the corrected one replaces
+   * @return the queued upload job
+   */
+  @ResponseStatus(HttpStatus.ACCEPTED)
   @PostMapping("/csv")
   @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
-  public UploadReportDto processCsv(@RequestParam("file") MultipartFile file) {
+  public UploadJobDto processCsv(@RequestParam("file") MultipartFile file,
+                                 @RequestHeader(value = "Idempotency-Key", required = false)
+                                 String idempotencyKey,
+                                 @RequestParam(value = "replacedDocumentId", required = false)
+                                 Long replacedDocumentId) {
     log.info("POST-request: uploading document");
-    return csvProcessingService.processCsvDocument(file);
+    return uploadJobService.submitCsvDocument(file, idempotencyKey, replacedDocumentId);
+  }
+
+  /**
+   * Starts chunked upload of a document that is larger than the multipart limit.
+   *
+   * @param fileName the uploaded document's file name
+   * @return the created upload session
+   */
+  @ResponseStatus(HttpStatus.CREATED)
+  @PostMapping("/uploads")
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+  public UploadSessionDto createUploadSession(@RequestParam("fileName") String fileName) {
+    log.info("POST-request: creating upload session for document: {}", fileName);
+    return uploadSessionService.createUploadSession(fileName);
+  }
+
+  /**
+   * Appends the numbered chunk of the document to the upload session.
+   * The chunk is sent as the raw request body.
+   *
+   * @param id the ID of the upload session
+   * @param number the number of the chunk starting from zero
+   * @param chunk the chunk's content
+   * @return the upload session with the received chunks
+   */
+  @PutMapping("/uploads/{id}/chunks/{number}")
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+  public UploadSessionDto uploadChunk(@PathVariable("id") String id,
+                                      @PathVariable("number") int number,
+                                      InputStream chunk) {
+    log.info("PUT-request: uploading chunk {} of upload session: {}", number, id);
+    return uploadSessionService.appendChunk(id, number, chunk);
+  }
+
+  /**
+   * Returns the upload session with the specified ID to resume the upload.
+   *
+   * @param id the ID of the upload session
+   * @return the upload session with the received chunks
+   */
+  @GetMapping("/uploads/{id}")
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+  public UploadSessionDto findUploadSessionById(@PathVariable("id") String id) {
+    log.info("GET-request: getting upload session by id: {}", id);
+    return uploadSessionService.findUploadSessionById(id);
+  }
+
+  /**
+   * Completes the upload session and accepts the document for processing in the background.
+   *
+   * @param id the ID of the upload session
+   * @param chunks the number of the chunks the document is sent by
+   * @return the queued upload job
+   */
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  @PostMapping("/uploads/{id}/commit")
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+  public UploadJobDto commitUploadSession(@PathVariable("id") String id,
+                                          @RequestParam("chunks") int chunks) {
+    log.info("POST-request: committing upload session: {}", id);
+    return uploadSessionService.commitUploadSession(id, chunks);
+  }
+
+  /**
+   * Cancels the upload session with the specified ID.
+   *
+   * @param id the ID of the upload session
+   */
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  @DeleteMapping("/uploads/{id}")
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+  public void deleteUploadSession(@PathVariable("id") String id) {
+    log.info("DELETE-request: deleting upload session by id: {}", id);
+    uploadSessionService.deleteUploadSession(id);
+  }
+
+  /**
+   * Returns the upload job with the specified ID.
+   *
+   * @param id the ID of the upload job to return
+   * @return the upload job's stage, processed rows and report
+   */
+  @GetMapping("/jobs/{id}")
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+  public UploadJobDto findUploadJobById(@PathVariable("id") String id) {
+    log.info("GET-request: getting upload job by id: {}", id);
+    return uploadJobService.findUploadJobById(id);
   }
 }
 
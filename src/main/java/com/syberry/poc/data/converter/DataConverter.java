@@ -1,43 +1,37 @@
 package com.syberry.poc.data.converter;
 
-import static com.syberry.poc.data.util.HashCalculator.calculateHash;
-
 import com.syberry.poc.data.database.entity.CrashData;
 import com.syberry.poc.data.database.entity.Document;
 import com.syberry.poc.data.database.entity.PedestrianBicyclist;
 import com.syberry.poc.data.database.entity.PedestrianBicyclistValues;
 import com.syberry.poc.data.database.entity.Traffic;
-import com.syberry.poc.data.database.repository.PedestrianBicyclistRepository;
 import com.syberry.poc.data.dto.CrashDataDto;
 import com.syberry.poc.data.dto.DocumentDto;
 import com.syberry.poc.data.dto.PedestrianBicyclistDto;
 import com.syberry.poc.data.dto.PedestrianBicyclistValuesDto;
 import com.syberry.poc.data.dto.TrafficDto;
+import com.syberry.poc.data.dto.UploadJobDto;
+import com.syberry.poc.data.dto.UploadSessionDto;
 import com.syberry.poc.data.dto.enums.Direction;
+import com.syberry.poc.data.dto.enums.DocumentStatus;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
 import com.syberry.poc.data.dto.enums.InjuryType;
-import com.syberry.poc.data.dto.enums.WeekDay;
 import com.syberry.poc.data.dto.enums.Weekend;
+import com.syberry.poc.data.model.DateValues;
+import com.syberry.poc.data.model.IngestionContext;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.model.UploadJob;
+import com.syberry.poc.data.model.UploadSession;
+import com.syberry.poc.data.model.ValueDictionary;
 import com.syberry.poc.data.util.ColumnNameConstants;
-import com.syberry.poc.data.util.PatternConstants;
+import com.syberry.poc.data.util.EnumLookup;
+import com.syberry.poc.data.util.NumberParser;
 import com.syberry.poc.user.database.entity.User;
-import java.lang.String;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.TimeZone;
-import java.util.stream.Collectors;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
 
 
@@ -46,9 +40,12 @@ import org.springframework.stereotype.Component;
  */
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class DataConverter {
-  private final PedestrianBicyclistRepository pedestrianBicyclistRepository;
+  private static final EnumLookup<InjuryType> INJURY_TYPES = EnumLookup.of(InjuryType.class);
+  private static final EnumLookup<Weekend> WEEKENDS = EnumLookup.of(Weekend.class);
+  private static final EnumLookup<Direction> DIRECTIONS = EnumLookup.of(Direction.class)
+      .withAlias("1-way", Direction.ONE_WAY)
+      .withAlias("2-way", Direction.TWO_WAY);
 
   /**
    * Converts a CrashData object to a CrashDataDto object.
@@ -149,85 +146,103 @@ public class DataConverter {
         .dateTime(document.getDateTime())
         .userId(document.getUser().getId())
         .processedRows(document.getProcessedRows())
+        .status(document.getStatus())
+        .hashAlgorithm(document.getHashAlgorithm())
         .build();
   }
 
   /**
-   *  Converts document data to a list of CrashData entities.
+   *  Converts UploadJob to UploadJobDto.
    *
-   * @param documentData the list of document rows.
-   * @param document the Document entity.
-   * @return the list of CrashData entities.
+   * @param uploadJob an upload job state.
+   * @return UploadJobDto.
    */
-  public List<CrashData> convertToCrashDataList(
-      List<Map<String, String>> documentData,
-      Document document) {
-    return documentData.stream().map(documentRow -> {
-      InjuryType injuryType = null;
-      if (documentRow.get(ColumnNameConstants.INJURY_TYPE) != null) {
-        injuryType = InjuryType.valueOf(documentRow.get(ColumnNameConstants.INJURY_TYPE)
-            .toUpperCase()
-            .replaceAll(PatternConstants.REPLACEMENT_PATTERN,
-                PatternConstants.REPLACE_WITH_PATTERN));
-      }
-      return convertToCrashData(documentRow, injuryType, document);
-    }).collect(Collectors.toList());
+  public UploadJobDto convertToUploadJobDto(UploadJob uploadJob) {
+    return UploadJobDto.builder()
+        .id(uploadJob.getId())
+        .fileName(uploadJob.getFileName())
+        .dateTime(uploadJob.getDateTime())
+        .stage(uploadJob.getStage())
+        .processedRows(uploadJob.getProcessedRows().get())
+        .documentId(uploadJob.getDocumentId())
+        .documentIds(List.copyOf(uploadJob.getDocumentIds()))
+        .report(uploadJob.getReport())
+        .error(uploadJob.getError())
+        .build();
+  }
+
+  /**
+   *  Converts UploadSession to UploadSessionDto.
+   *
+   * @param uploadSession a chunked upload state.
+   * @return UploadSessionDto.
+   */
+  public UploadSessionDto convertToUploadSessionDto(UploadSession uploadSession) {
+    return UploadSessionDto.builder()
+        .id(uploadSession.getId())
+        .fileName(uploadSession.getFileName())
+        .dateTime(uploadSession.getDateTime())
+        .receivedChunks(uploadSession.getReceivedChunks())
+        .receivedBytes(uploadSession.getReceivedBytes())
+        .build();
+  }
+
+  /**
+   *  Converts document row to CrashData entity.
+   *
+   * @param documentRow the document's row
+   * @param context the upload's ingestion context
+   * @return the CrashData entity
+   */
+  public CrashData convertToCrashData(Row documentRow,
+                                      IngestionContext context) {
+    InjuryType injuryType = context.getValueDictionary().toEnum(InjuryType.class,
+        documentRow.get(ColumnNameConstants.INJURY_TYPE), INJURY_TYPES::find);
+    return convertToCrashData(documentRow, injuryType, context);
   }
 
   /**
    *  Converts document row to CrashData entity.
    *
-   * @param documentRow the map with column names and values
+   * @param documentRow the document's row
    * @param injuryType the InjuryType entity
-   * @param document the Document entity
+   * @param context the upload's ingestion context
    * @return the CrashData entity
    */
   private CrashData convertToCrashData(
-      Map<String, String> documentRow, InjuryType injuryType, Document document) {
+      Row documentRow, InjuryType injuryType, IngestionContext context) {
     String collisionType = documentRow.get(ColumnNameConstants.COLLISION_TYPE);
     String primaryFactor = documentRow.get(ColumnNameConstants.PRIMARY_FACTOR);
     String reportedLocation = documentRow.get(ColumnNameConstants.REPORTED_LOCATION);
+    ValueDictionary valueDictionary = context.getValueDictionary();
     return CrashData.builder()
         .year(Integer.parseInt(documentRow.get(ColumnNameConstants.YEAR)))
         .month(Integer.parseInt(documentRow.get(ColumnNameConstants.MONTH)))
         .day(Integer.parseInt(documentRow.get(ColumnNameConstants.DAY)))
         .hour(Integer.parseInt(documentRow.get(ColumnNameConstants.HOUR)))
-        .weekend(Weekend.valueOf(documentRow.get(ColumnNameConstants.WEEKEND).toUpperCase()))
+        .weekend(valueDictionary.toEnum(Weekend.class,
+            documentRow.get(ColumnNameConstants.WEEKEND), WEEKENDS::find))
         .collisionType(collisionType)
-        .collisionTypeHash(calculateHash(collisionType))
+        .collisionTypeHash(valueDictionary.hash(collisionType))
         .primaryFactor(primaryFactor)
-        .primaryFactorHash(calculateHash(primaryFactor))
+        .primaryFactorHash(valueDictionary.hash(primaryFactor))
         .injuryType(injuryType)
         .reportedLocation(reportedLocation)
-        .reportedLocationHash(calculateHash(reportedLocation))
-        .latitude(parseFloat(documentRow.get(ColumnNameConstants.LATITUDE)))
-        .longitude(parseFloat(documentRow.get(ColumnNameConstants.LONGITUDE)))
-        .document(document)
+        .reportedLocationHash(valueDictionary.hash(reportedLocation))
+        .latitude(NumberParser.parseFloat(documentRow.get(ColumnNameConstants.LATITUDE)))
+        .longitude(NumberParser.parseFloat(documentRow.get(ColumnNameConstants.LONGITUDE)))
+        .document(context.getDocument())
         .build();
   }
 
-  /**
-   *  Converts document data to a list of Traffic entities.
-   *
-   * @param documentData the list of document rows.
-   * @param document the Document entity.
-   * @return the list of Traffic entities.
-   */
-  public List<Traffic> convertToTrafficList(
-      List<Map<String, String>> documentData, Document document) {
-    return documentData.stream()
-      .map(documentRow -> convertToTraffic(documentRow, document))
-      .collect(Collectors.toList());
-  }
-
   /**
    *  Converts document row to Traffic entity.
    *
-   * @param documentRow the map with column names and values
-   * @param document the Document entity
+   * @param documentRow the document's row
+   * @param context the upload's ingestion context
    * @return the Traffic entity
    */
-  private Traffic convertToTraffic(Map<String, String> documentRow, Document document) {
+  public Traffic convertToTraffic(Row documentRow, IngestionContext context) {
     String county = documentRow.get(ColumnNameConstants.COUNTY);
     String community = documentRow.get(ColumnNameConstants.COMMUNITY);
     String onRoad = documentRow.get(ColumnNameConstants.ON);
@@ -236,141 +251,98 @@ public class DataConverter {
     String approach = documentRow.get(ColumnNameConstants.APPROACH);
     String at = documentRow.get(ColumnNameConstants.AT);
     String directions = documentRow.get(ColumnNameConstants.DIRECTIONS);
+    ValueDictionary valueDictionary = context.getValueDictionary();
     return Traffic.builder()
         .county(county)
-        .countyHash(calculateHash(county))
+        .countyHash(valueDictionary.hash(county))
         .community(community)
-        .communityHash(calculateHash(community))
+        .communityHash(valueDictionary.hash(community))
         .onRoad(onRoad)
-        .onRoadHash(calculateHash(onRoad))
+        .onRoadHash(valueDictionary.hash(onRoad))
         .fromRoad(fromRoad)
-        .fromRoadHash(calculateHash(fromRoad))
+        .fromRoadHash(valueDictionary.hash(fromRoad))
         .toRoad(toRoad)
-        .toRoadHash(calculateHash(toRoad))
+        .toRoadHash(valueDictionary.hash(toRoad))
         .approach(approach)
-        .approachHash(calculateHash(approach))
+        .approachHash(valueDictionary.hash(approach))
         .at(at)
-        .atHash(calculateHash(at))
-        .direction(Direction.valueOf(documentRow.get(ColumnNameConstants.DIR)
-            .replace("1", "one")
-            .replace("2", "two")
-            .toUpperCase()
-            .replaceAll(PatternConstants.REPLACEMENT_PATTERN,
-                PatternConstants.REPLACE_WITH_PATTERN)))
+        .atHash(valueDictionary.hash(at))
+        .direction(valueDictionary.toEnum(Direction.class,
+            documentRow.get(ColumnNameConstants.DIR), DIRECTIONS::find))
         .directions(directions)
-        .directionsHash(calculateHash(directions))
-        .latitude(parseFloat(documentRow.get(ColumnNameConstants.LATITUDE)))
-        .longitude(parseFloat(documentRow.get(ColumnNameConstants.LONGITUDE)))
-        .document(document)
+        .directionsHash(valueDictionary.hash(directions))
+        .latitude(NumberParser.parseFloat(documentRow.get(ColumnNameConstants.LATITUDE)))
+        .longitude(NumberParser.parseFloat(documentRow.get(ColumnNameConstants.LONGITUDE)))
+        .document(context.getDocument())
         .build();
   }
 
   /**
-   *  Converts document data to a list of PedestrianBicyclist entities.
+   *  Converts document row to PedestrianBicyclistValues entity.
+   *  The value is linked to the document's PedestrianBicyclist entity of the row's date,
+   *  which is converted and put to the given map when the date is met first.
    *
-   * @param documentData the list of document rows.
-   * @param document the Document entity.
-   * @return the list of PedestrianBicyclist entities.
+   * @param documentRow the document's row.
+   * @param context the upload's ingestion context.
+   * @param entitiesByDate the document's PedestrianBicyclist entities by date, updated in place.
+   * @return the PedestrianBicyclistValues entity or null if the row's date is invalid.
    */
-  public List<PedestrianBicyclist> convertToPedestrianBicyclistList(
-      List<Map<String, String>> documentData,
-      Document document) {
-    List<PedestrianBicyclist> entities = new ArrayList<>();
-    Set<String> uniqueDates = new HashSet<>();
-
-    for (Map<String, String> documentRow : documentData) {
-      String dateValue = documentRow.get(ColumnNameConstants.DATE);
+  public PedestrianBicyclistValues convertToPedestrianBicyclistValue(
+      Row documentRow,
+      IngestionContext context, Map<String, PedestrianBicyclist> entitiesByDate) {
+    String dateValue = documentRow.get(ColumnNameConstants.DATE);
+    PedestrianBicyclist pedestrianBicyclist = entitiesByDate.get(dateValue);
 
-      if (uniqueDates.contains(dateValue)) {
-        continue;
+    if (pedestrianBicyclist == null) {
+      Optional<DateValues> dateValues = context.getValueDictionary().toDateValues(dateValue);
+      if (dateValues.isEmpty()) {
+        context.countInvalidDateRow();
+        return null;
       }
-      Map<String, Integer> dateValues;
-      try {
-        dateValues = convertToDateValues(dateValue);
-      } catch (ParseException e) {
-        log.info(String.format("Invalid data: %s", dateValue));
-        continue;
-      }
-      entities.add(convertToPedestrianBicyclist(dateValues, document));
-      uniqueDates.add(dateValue);
+      pedestrianBicyclist = convertToPedestrianBicyclist(
+          dateValues.get(), context.getDocument());
+      entitiesByDate.put(dateValue, pedestrianBicyclist);
     }
-
-    return entities;
+    return convertToPedestrianBicyclistValue(
+        documentRow, pedestrianBicyclist, context.getValueDictionary());
   }
 
   /**
    *  Converts document row to PedestrianBicyclist entity.
    *
-   * @param documentRow the map with column names and values
+   * @param dateValues the row's parsed date
    * @param document the Document entity
    * @return the PedestrianBicyclist entity
    */
   private PedestrianBicyclist convertToPedestrianBicyclist(
-      Map<String, Integer> documentRow, Document document) {
-    WeekDay[] weekDays = WeekDay.values();
+      DateValues dateValues, Document document) {
     return PedestrianBicyclist.builder()
-        .year(documentRow.get(ColumnNameConstants.YEAR))
-        .month(documentRow.get(ColumnNameConstants.MONTH))
-        .day(documentRow.get(ColumnNameConstants.DAY))
-        .weekDay(weekDays[documentRow.get(ColumnNameConstants.WEEKDAY) - 1])
+        .year(dateValues.year())
+        .month(dateValues.month())
+        .day(dateValues.day())
+        .weekDay(dateValues.weekDay())
         .document(document)
         .build();
   }
 
-  /**
-   *  Converts document data to a list of PedestrianBicyclistValues entities.
-   *
-   * @param documentData the list of document rows.
-   * @return the list of PedestrianBicyclistValues entities.
-   */
-  public List<PedestrianBicyclistValues> convertToPedestrianBicyclistValuesList(
-      List<Map<String, String>> documentData) {
-    List<PedestrianBicyclistValues> entities = new ArrayList<>();
-
-    for (Map<String, String> documentRow : documentData) {
-      String dateValue = documentRow.get(ColumnNameConstants.DATE);
-
-      Map<String, Integer> dateValues = null;
-      try {
-        dateValues = convertToDateValues(dateValue);
-      } catch (ParseException e) {
-        log.info(String.format("Invalid data: %s", dateValue));
-        continue;
-      }
-
-      int dayOfWeek = dateValues.get(ColumnNameConstants.WEEKDAY);
-      WeekDay[] weekDays = WeekDay.values();
-      WeekDay weekDay = weekDays[dayOfWeek - 1];
-
-      Optional<PedestrianBicyclist> pedestrianBicyclist = pedestrianBicyclistRepository
-          .findTopByYearAndMonthAndDayAndWeekDayOrderByIdDesc(
-              dateValues.get(ColumnNameConstants.YEAR),
-              dateValues.get(ColumnNameConstants.MONTH),
-              dateValues.get(ColumnNameConstants.DAY),
-              weekDay
-          );
-
-      pedestrianBicyclist.ifPresent(bicyclist
-          -> entities.add(convertToPedestrianBicyclistValue(documentRow, bicyclist)));
-    }
-    return entities;
-  }
-
   /**
    *  Converts document row to PedestrianBicyclistValue entity.
    *
-   * @param documentRow the map with column names and values
+   * @param documentRow the document's row
+   * @param pedestrianBicyclist the PedestrianBicyclist entity of the row's date
+   * @param valueDictionary the upload's dictionary of the cell values
    * @return the PedestrianBicyclistValue entity
    */
   private PedestrianBicyclistValues convertToPedestrianBicyclistValue(
-      Map<String, String> documentRow, PedestrianBicyclist pedestrianBicyclist) {
+      Row documentRow, PedestrianBicyclist pedestrianBicyclist,
+      ValueDictionary valueDictionary) {
     String columnName = documentRow.get(ColumnNameConstants.COLUMN_NAME);
     String value = documentRow.get(ColumnNameConstants.COLUMN_VALUE);
     return PedestrianBicyclistValues.builder()
         .columnName(columnName)
-        .columnNameHash(calculateHash(columnName))
+        .columnNameHash(valueDictionary.hash(columnName))
         .value(value)
-        .valueHash(calculateHash(value))
+        .valueHash(valueDictionary.hash(value))
         .pedestrianBicyclist(pedestrianBicyclist)
         .build();
   }
@@ -380,45 +352,16 @@ public class DataConverter {
    *
    * @param user the current system's user.
    * @param processedRows quantity of processed document's rows.
+   * @param hashAlgorithm the algorithm for the document data hash columns.
    * @return the Document entity.
    */
-  public Document convertToDocument(User user, int processedRows) {
+  public Document convertToDocument(User user, int processedRows,
+                                    HashAlgorithm hashAlgorithm) {
     return Document.builder()
       .processedRows(processedRows)
       .user(user)
+      .status(DocumentStatus.IN_PROGRESS)
+      .hashAlgorithm(hashAlgorithm)
       .build();
   }
-
-  /**
-   * Convert date from string to Map representation.
-   *
-   * @param dateValue the date value.
-   * @return the map of date values: year, month, day, weekday.
-   */
-  private static Map<String, Integer> convertToDateValues(String dateValue) throws ParseException {
-    Map<String, Integer> dateValues;
-    SimpleDateFormat format = new SimpleDateFormat("EEE, MMM dd, yyyy", Locale.US);
-    format.setTimeZone(TimeZone.getTimeZone("UTC"));
-    Date date = format.parse(dateValue);
-    Calendar calendar = Calendar.getInstance();
-    calendar.setTime(date);
-
-    dateValues = new HashMap<>();
-    dateValues.put(ColumnNameConstants.YEAR, calendar.get(Calendar.YEAR));
-    dateValues.put(ColumnNameConstants.MONTH, calendar.get(Calendar.MONTH) + 1);
-    dateValues.put(ColumnNameConstants.DAY, calendar.get(Calendar.DAY_OF_MONTH));
-    dateValues.put(ColumnNameConstants.WEEKDAY, calendar.get(Calendar.DAY_OF_WEEK));
-
-    return dateValues;
-  }
-
-  /**
-   * Convert coordinate from string Float.
-   *
-   * @param coordinate the coordinate value
-   * @return Float coordinate or null in string is invalid
-   */
-  private Float parseFloat(String coordinate) {
-    return !StringUtils.isBlank(coordinate) ? Float.parseFloat(coordinate) : null;
-  }
 }
@@ -11,6 +11,8 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -22,6 +24,8 @@ import lombok.Setter;
  * The entity representing crash data in the application.
  */
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+    name = "uk_crash_data_natural_key", columnNames = "natural_key"))
 @Getter
 @Setter
 @Builder
@@ -55,6 +59,8 @@ public class CrashData implements DataEntityInterface {
   private Long reportedLocationHash;
   private Float latitude;
   private Float longitude;
+  @Column(length = 16)
+  private byte[] naturalKey;
   @NotNull
   @OneToOne
   @JoinColumn(name = "document_id", referencedColumnName = "id")
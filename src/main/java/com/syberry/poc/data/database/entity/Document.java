@@ -1,15 +1,21 @@
 package com.syberry.poc.data.database.entity;
 
+import com.syberry.poc.data.dto.enums.DocumentStatus;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
 import com.syberry.poc.user.database.entity.User;
 import java.time.LocalDateTime;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToOne;
 import javax.persistence.PrePersist;
+import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,8 +25,10 @@ import lombok.Setter;
 
 /**
  * The entity representing document in the application.
+ * The content hash is the SHA-256 of the uploaded file, it is set once the upload completes.
  */
 @Entity
+@Table(indexes = @Index(name = "idx_document_content_hash", columnList = "content_hash"))
 @Getter
 @Setter
 @Builder
@@ -40,6 +48,14 @@ public class Document implements DataEntityInterface {
   private User user;
   @NotNull
   private int processedRows;
+  @Enumerated(EnumType.STRING)
+  private DocumentStatus status;
+  @Enumerated(EnumType.STRING)
+  private HashAlgorithm hashAlgorithm;
+  private Integer recordedRows;
+  private Integer invalidDateRows;
+  @Column(length = 64)
+  private String contentHash;
 
   @PrePersist
   public void prePersist() {
@@ -0,0 +1,51 @@
+package com.syberry.poc.data.database.entity;
+
+import com.syberry.poc.data.dto.enums.DocumentType;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The entity representing the fingerprint of a row ingested in the append mode.
+ * The fingerprint is a 64-bit hash of the processed row, unique per document type.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_row_fingerprint_document_type",
+    columnNames = {"document_type", "fingerprint"}),
+    indexes = @Index(name = "idx_row_fingerprint_document", columnList = "document_id"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RowFingerprint {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id")
+  private Long id;
+  @NotNull
+  @Enumerated(EnumType.STRING)
+  private DocumentType documentType;
+  @NotNull
+  private Long fingerprint;
+  @NotNull
+  @ManyToOne
+  @JoinColumn(name = "document_id", referencedColumnName = "id")
+  private Document document;
+}
@@ -10,6 +10,8 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -21,6 +23,8 @@ import lombok.Setter;
  * The entity representing traffic data in the application.
  */
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+    name = "uk_traffic_natural_key", columnNames = "natural_key"))
 @Getter
 @Setter
 @Builder
@@ -56,6 +60,8 @@ public class Traffic {
   private Long directionsHash;
   private Float latitude;
   private Float longitude;
+  @Column(length = 16)
+  private byte[] naturalKey;
   @NotNull
   @OneToOne
   @JoinColumn(name = "document_id", referencedColumnName = "id")
@@ -0,0 +1,363 @@
+package com.syberry.poc.data.database.repository;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.syberry.poc.data.database.entity.CrashData;
+import com.syberry.poc.data.database.entity.Document;
+import com.syberry.poc.data.database.entity.PedestrianBicyclistValues;
+import com.syberry.poc.data.database.entity.Traffic;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for inserting processed document data with JDBC batches.
+ * Entities with database generated identifiers cannot be batched by Hibernate,
+ * so the bulk data tables are written directly. Combined with the
+ * rewriteBatchedStatements connection property every batch is sent to MySQL
+ * as a multi-row INSERT statement.
+ * The merged entities are upserted by their natural key: a 128-bit hash of the
+ * uploading user and the columns identifying the entity, covered by the table's unique index,
+ * so the rows of other users are never matched. The documents have no record identifier,
+ * so the key covers every value of the record read from the document, and a stored row
+ * is matched only by the same record: the merge skips the rows already stored,
+ * only refreshing their derived values, like the weekend or the value hashes.
+ * A corrected record has another key, so a corrected document replaces the document
+ * it corrects: the replaced document's matched rows are moved to the merged document,
+ * and its rows left unmatched are the superseded ones, they are deleted afterwards.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BatchInsertRepository {
+  public static final List<String> CRASH_DATA_COLUMNS = List.of("year", "month", "day",
+      "hour", "weekend", "collision_type", "collision_type_hash", "primary_factor",
+      "primary_factor_hash", "injury_type", "reported_location", "reported_location_hash",
+      "latitude", "longitude");
+  public static final List<String> TRAFFIC_COLUMNS = List.of("county", "county_hash",
+      "community", "community_hash", "on_road", "on_road_hash", "from_road", "from_road_hash",
+      "to_road", "to_road_hash", "approach", "approach_hash", "at", "at_hash", "direction",
+      "directions", "directions_hash", "latitude", "longitude");
+  public static final List<String> CRASH_DATA_KEY_COLUMNS = List.of("year", "month", "day",
+      "hour", "collision_type", "primary_factor", "injury_type", "reported_location",
+      "latitude", "longitude");
+  public static final List<String> TRAFFIC_KEY_COLUMNS = List.of("county", "community",
+      "on_road", "from_road", "to_road", "approach", "at", "direction", "directions",
+      "latitude", "longitude");
+  public static final String CRASH_DATA_TABLE = "crash_data";
+  public static final String TRAFFIC_TABLE = "traffic";
+  public static final String DOCUMENT_ID_COLUMN = "document_id";
+  public static final String NATURAL_KEY_COLUMN = "natural_key";
+  public static final String CRASH_DATA_INSERT =
+      insertStatement(CRASH_DATA_TABLE, CRASH_DATA_COLUMNS);
+  public static final String TRAFFIC_INSERT = insertStatement(TRAFFIC_TABLE, TRAFFIC_COLUMNS);
+  public static final String PEDESTRIAN_BICYCLIST_VALUES_INSERT =
+      "INSERT INTO `pedestrian_bicyclist_values` (`column_name`, `column_name_hash`, `value`, "
+      + "`value_hash`, `pedestrian_bicyclist_id`) VALUES (?, ?, ?, ?, ?)";
+
+  private static final HashFunction NATURAL_KEY_HASH_FUNCTION = Hashing.murmur3_128();
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Inserts list of CrashData entities in one batch.
+   *
+   * @param entities a list of CrashData entities.
+   */
+  public void insertCrashData(List<CrashData> entities) {
+    if (entities.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(CRASH_DATA_INSERT, entities, entities.size(),
+        BatchInsertRepository::setCrashDataValues);
+  }
+
+  /**
+   * Inserts list of Traffic entities in one batch.
+   *
+   * @param entities a list of Traffic entities.
+   */
+  public void insertTraffic(List<Traffic> entities) {
+    if (entities.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(TRAFFIC_INSERT, entities, entities.size(),
+        BatchInsertRepository::setTrafficValues);
+  }
+
+  /**
+   * Upserts list of CrashData entities in one batch by their natural key.
+   *
+   * @param entities a list of CrashData entities.
+   * @param replacedDocumentId the id of the document the entities' document replaces, or null.
+   */
+  public void mergeCrashData(List<CrashData> entities, Long replacedDocumentId) {
+    if (entities.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(mergeStatement(CRASH_DATA_TABLE, CRASH_DATA_COLUMNS,
+            CRASH_DATA_KEY_COLUMNS, replacedDocumentId), entities, entities.size(),
+        (statement, entity) -> setMergedValues(statement, crashDataValues(entity),
+            CRASH_DATA_COLUMNS, CRASH_DATA_KEY_COLUMNS, entity.getDocument()));
+  }
+
+  /**
+   * Upserts list of Traffic entities in one batch by their natural key.
+   *
+   * @param entities a list of Traffic entities.
+   * @param replacedDocumentId the id of the document the entities' document replaces, or null.
+   */
+  public void mergeTraffic(List<Traffic> entities, Long replacedDocumentId) {
+    if (entities.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(mergeStatement(TRAFFIC_TABLE, TRAFFIC_COLUMNS,
+            TRAFFIC_KEY_COLUMNS, replacedDocumentId), entities, entities.size(),
+        (statement, entity) -> setMergedValues(statement, trafficValues(entity),
+            TRAFFIC_COLUMNS, TRAFFIC_KEY_COLUMNS, entity.getDocument()));
+  }
+
+  /**
+   * Counts the table's rows of the document.
+   *
+   * @param table the data table.
+   * @param documentId the id of the document.
+   * @return the document's rows count.
+   */
+  public int countDocumentRows(String table, long documentId) {
+    return jdbcTemplate.queryForObject(String.format(
+        "SELECT COUNT(*) FROM `%s` WHERE `%s` = ?", table, DOCUMENT_ID_COLUMN),
+        Integer.class, documentId);
+  }
+
+  /**
+   * Deletes the table's rows of the document.
+   *
+   * @param table the data table.
+   * @param documentId the id of the document.
+   * @return deleted rows count.
+   */
+  public int deleteDocumentRows(String table, long documentId) {
+    return jdbcTemplate.update(String.format(
+        "DELETE FROM `%s` WHERE `%s` = ?", table, DOCUMENT_ID_COLUMN), documentId);
+  }
+
+  /**
+   * Inserts list of PedestrianBicyclistValues entities in one batch.
+   * The referenced PedestrianBicyclist entities must be saved beforehand.
+   *
+   * @param entities a list of PedestrianBicyclistValues entities.
+   */
+  public void insertPedestrianBicyclistValues(List<PedestrianBicyclistValues> entities) {
+    if (entities.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(PEDESTRIAN_BICYCLIST_VALUES_INSERT, entities, entities.size(),
+        BatchInsertRepository::setPedestrianBicyclistValues);
+  }
+
+  /**
+   * Sets CrashData entity fields as the statement parameters.
+   *
+   * @param statement the insert statement.
+   * @param entity the CrashData entity.
+   * @throws SQLException if a parameter cannot be set.
+   */
+  public static void setCrashDataValues(PreparedStatement statement, CrashData entity)
+      throws SQLException {
+    setValues(statement, crashDataValues(entity), entity.getDocument().getId());
+  }
+
+  /**
+   * Sets Traffic entity fields as the statement parameters.
+   *
+   * @param statement the insert statement.
+   * @param entity the Traffic entity.
+   * @throws SQLException if a parameter cannot be set.
+   */
+  public static void setTrafficValues(PreparedStatement statement, Traffic entity)
+      throws SQLException {
+    setValues(statement, trafficValues(entity), entity.getDocument().getId());
+  }
+
+  /**
+   * Sets PedestrianBicyclistValues entity fields as the statement parameters.
+   *
+   * @param statement the insert statement.
+   * @param entity the PedestrianBicyclistValues entity.
+   * @throws SQLException if a parameter cannot be set.
+   */
+  public static void setPedestrianBicyclistValues(
+      PreparedStatement statement, PedestrianBicyclistValues entity) throws SQLException {
+    statement.setObject(1, entity.getColumnName());
+    statement.setObject(2, entity.getColumnNameHash());
+    statement.setObject(3, entity.getValue());
+    statement.setObject(4, entity.getValueHash());
+    statement.setLong(5, entity.getPedestrianBicyclist().getId());
+  }
+
+  /**
+   * Returns CrashData entity fields in the order of the CrashData columns.
+   *
+   * @param entity the CrashData entity.
+   * @return the entity's column values without the document id.
+   */
+  public static Object[] crashDataValues(CrashData entity) {
+    return new Object[] {
+        entity.getYear(),
+        entity.getMonth(),
+        entity.getDay(),
+        entity.getHour(),
+        entity.getWeekend() != null ? entity.getWeekend().name() : null,
+        entity.getCollisionType(),
+        entity.getCollisionTypeHash(),
+        entity.getPrimaryFactor(),
+        entity.getPrimaryFactorHash(),
+        entity.getInjuryType() != null ? entity.getInjuryType().name() : null,
+        entity.getReportedLocation(),
+        entity.getReportedLocationHash(),
+        entity.getLatitude(),
+        entity.getLongitude()
+    };
+  }
+
+  /**
+   * Returns Traffic entity fields in the order of the Traffic columns.
+   *
+   * @param entity the Traffic entity.
+   * @return the entity's column values without the document id.
+   */
+  public static Object[] trafficValues(Traffic entity) {
+    return new Object[] {
+        entity.getCounty(),
+        entity.getCountyHash(),
+        entity.getCommunity(),
+        entity.getCommunityHash(),
+        entity.getOnRoad(),
+        entity.getOnRoadHash(),
+        entity.getFromRoad(),
+        entity.getFromRoadHash(),
+        entity.getToRoad(),
+        entity.getToRoadHash(),
+        entity.getApproach(),
+        entity.getApproachHash(),
+        entity.getAt(),
+        entity.getAtHash(),
+        entity.getDirection() != null ? entity.getDirection().name() : null,
+        entity.getDirections(),
+        entity.getDirectionsHash(),
+        entity.getLatitude(),
+        entity.getLongitude()
+    };
+  }
+
+  /**
+   * Sets the column values and the document id as the statement parameters.
+   *
+   * @param statement the insert statement.
+   * @param values the entity's column values.
+   * @param documentId the id of the entity's document.
+   * @throws SQLException if a parameter cannot be set.
+   */
+  private static void setValues(PreparedStatement statement, Object[] values, long documentId)
+      throws SQLException {
+    for (int i = 0; i < values.length; i++) {
+      statement.setObject(i + 1, values[i]);
+    }
+    statement.setLong(values.length + 1, documentId);
+  }
+
+  /**
+   * Sets the column values, the natural key and the document id as the statement parameters.
+   * The natural key starts with the id of the user the document is uploaded by.
+   *
+   * @param statement the merge statement.
+   * @param values the entity's column values.
+   * @param columns the table's columns without the document id.
+   * @param keyColumns the columns identifying the entity.
+   * @param document the entity's document.
+   * @throws SQLException if a parameter cannot be set.
+   */
+  private static void setMergedValues(PreparedStatement statement, Object[] values,
+                                      List<String> columns, List<String> keyColumns,
+                                      Document document) throws SQLException {
+    Hasher naturalKey = NATURAL_KEY_HASH_FUNCTION.newHasher()
+        .putLong(document.getUser().getId());
+    for (String keyColumn : keyColumns) {
+      putKeyValue(naturalKey, values[columns.indexOf(keyColumn)]);
+    }
+    for (int i = 0; i < values.length; i++) {
+      statement.setObject(i + 1, values[i]);
+    }
+    statement.setBytes(values.length + 1, naturalKey.hash().asBytes());
+    statement.setLong(values.length + 2, document.getId());
+  }
+
+  /**
+   * Puts the key column's value to the natural key.
+   * Every value is prefixed with its presence and length, so the adjacent values
+   * and the missing values cannot produce the same key.
+   *
+   * @param naturalKey the natural key's hasher.
+   * @param value the key column's value.
+   */
+  private static void putKeyValue(Hasher naturalKey, Object value) {
+    if (value == null) {
+      naturalKey.putBoolean(false);
+      return;
+    }
+    String string = value.toString();
+    naturalKey.putBoolean(true)
+        .putInt(string.length())
+        .putString(string, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Builds the INSERT ... ON DUPLICATE KEY UPDATE statement of the table's columns,
+   * the natural key and the document id. A matched row keeps its document,
+   * unless it belongs to the replaced document. The replaced document's id is a number,
+   * it is written to the statement, as the driver does not rewrite the batch of a statement
+   * with parameters in its update clause to a multi-row INSERT.
+   *
+   * @param table the table name.
+   * @param columns the table's columns without the document id.
+   * @param keyColumns the columns identifying the entity, they are not updated.
+   * @param replacedDocumentId the id of the replaced document, or null.
+   * @return the merge statement with a parameter per column.
+   */
+  private static String mergeStatement(String table, List<String> columns,
+                                       List<String> keyColumns, Long replacedDocumentId) {
+    Stream<String> updatedColumns = columns.stream()
+        .filter(column -> !keyColumns.contains(column))
+        .map(column -> String.format("`%1$s` = VALUES(`%1$s`)", column));
+    if (replacedDocumentId != null) {
+      updatedColumns = Stream.concat(Stream.of(String.format(
+          "`%1$s` = CASE WHEN `%1$s` = %2$d THEN VALUES(`%1$s`) ELSE `%1$s` END",
+          DOCUMENT_ID_COLUMN, replacedDocumentId)), updatedColumns);
+    }
+    return String.format("INSERT INTO `%s` (%s, `%s`, `%s`) VALUES (%s) ON DUPLICATE KEY "
+        + "UPDATE %s", table,
+        columns.stream().map(column -> "`" + column + "`").collect(Collectors.joining(", ")),
+        NATURAL_KEY_COLUMN, DOCUMENT_ID_COLUMN, "?, ".repeat(columns.size() + 1) + "?",
+        updatedColumns.collect(Collectors.joining(", ")));
+  }
+
+  /**
+   * Builds the INSERT statement of the table's columns and the document id.
+   *
+   * @param table the table name.
+   * @param columns the table's columns without the document id.
+   * @return the INSERT statement with a parameter per column.
+   */
+  private static String insertStatement(String table, List<String> columns) {
+    return String.format("INSERT INTO `%s` (%s, `%s`) VALUES (%s)", table,
+        columns.stream().map(column -> "`" + column + "`").collect(Collectors.joining(", ")),
+        DOCUMENT_ID_COLUMN, "?, ".repeat(columns.size()) + "?");
+  }
+}
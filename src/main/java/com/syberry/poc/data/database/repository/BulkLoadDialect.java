@@ -0,0 +1,134 @@
+package com.syberry.poc.data.database.repository;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * An enumeration of the databases statements for loading CSV files into staging tables.
+ * The loaded file has a header line, strings enclosed in double quotes with doubled
+ * inner quotes, and unquoted NULL for the missing values.
+ */
+public enum BulkLoadDialect {
+  MYSQL {
+    @Override
+    public String createStagingTable(String stagingTable, String table, List<String> columns) {
+      return String.format("CREATE TEMPORARY TABLE `%s` AS SELECT %s FROM `%s` WHERE 1 = 0",
+          stagingTable, columnList(columns), table);
+    }
+
+    @Override
+    public String loadFile(String stagingTable, List<String> columns, Path file) {
+      return String.format("LOAD DATA LOCAL INFILE '%s' INTO TABLE `%s` CHARACTER SET utf8mb4 "
+          + "FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '' "
+          + "LINES TERMINATED BY '\\n' IGNORE 1 LINES (%s)",
+          fileLiteral(file), stagingTable, columnList(columns));
+    }
+
+    @Override
+    public String dropStagingTable(String stagingTable) {
+      return String.format("DROP TEMPORARY TABLE IF EXISTS `%s`", stagingTable);
+    }
+
+    @Override
+    public String createRawStagingTable(String stagingTable, String keyColumn,
+                                        List<String> columns) {
+      return rawStagingTable("CREATE TEMPORARY TABLE", stagingTable, keyColumn, columns,
+          "TEXT CHARACTER SET utf8mb4 COLLATE utf8mb4_0900_bin");
+    }
+  },
+  H2 {
+    @Override
+    public String createStagingTable(String stagingTable, String table, List<String> columns) {
+      return String.format("CREATE LOCAL TEMPORARY TABLE `%s` AS SELECT %s FROM `%s` "
+          + "WHERE 1 = 0", stagingTable, columnList(columns), table);
+    }
+
+    @Override
+    public String loadFile(String stagingTable, List<String> columns, Path file) {
+      return String.format("INSERT INTO `%s` (%s) SELECT * FROM CSVREAD('%s', NULL, "
+          + "'charset=UTF-8 null=NULL')", stagingTable, columnList(columns), fileLiteral(file));
+    }
+
+    @Override
+    public String dropStagingTable(String stagingTable) {
+      return String.format("DROP TABLE IF EXISTS `%s`", stagingTable);
+    }
+
+    @Override
+    public String createRawStagingTable(String stagingTable, String keyColumn,
+                                        List<String> columns) {
+      return rawStagingTable("CREATE LOCAL TEMPORARY TABLE", stagingTable, keyColumn, columns,
+          "VARCHAR");
+    }
+  };
+
+  public abstract String createStagingTable(String stagingTable, String table,
+                                            List<String> columns);
+
+  public abstract String loadFile(String stagingTable, List<String> columns, Path file);
+
+  public abstract String dropStagingTable(String stagingTable);
+
+  public abstract String createRawStagingTable(String stagingTable, String keyColumn,
+                                               List<String> columns);
+
+  /**
+   * Returns the dialect of the database.
+   *
+   * @param databaseProductName the database product name of the connection's metadata.
+   * @return the BulkLoadDialect.
+   * @throws IllegalStateException if the database does not support the bulk load.
+   */
+  public static BulkLoadDialect findByDatabaseProductName(String databaseProductName) {
+    for (BulkLoadDialect dialect : values()) {
+      if (dialect.name().equalsIgnoreCase(databaseProductName)) {
+        return dialect;
+      }
+    }
+    throw new IllegalStateException(
+        String.format("Bulk load is not supported by %s", databaseProductName));
+  }
+
+  /**
+   * Creates the temporary table of the raw string values keyed by the row's number.
+   * The values are compared case and trailing spaces sensitively, like the Java strings.
+   *
+   * @param createTable the dialect's statement creating a temporary table.
+   * @param stagingTable the raw staging table.
+   * @param keyColumn the row number column.
+   * @param columns the value columns.
+   * @param valueType the string type with the binary collation.
+   * @return the statement.
+   */
+  private static String rawStagingTable(String createTable, String stagingTable,
+                                        String keyColumn, List<String> columns,
+                                        String valueType) {
+    return String.format("%s `%s` (`%s` BIGINT PRIMARY KEY%s)", createTable, stagingTable,
+        keyColumn, columns.stream()
+            .map(column -> ", `" + column + "` " + valueType)
+            .collect(Collectors.joining()));
+  }
+
+  /**
+   * Joins the quoted column names.
+   *
+   * @param columns the column names.
+   * @return the comma separated column names.
+   */
+  private static String columnList(List<String> columns) {
+    return columns.stream()
+        .map(column -> "`" + column + "`")
+        .collect(Collectors.joining(", "));
+  }
+
+  /**
+   * Returns the file path as the string literal's content.
+   *
+   * @param file the loaded file.
+   * @return the path with the forward slashes and the escaped quotes.
+   */
+  private static String fileLiteral(Path file) {
+    return file.toAbsolutePath().toString().replace('\\', '/').replace("'", "''");
+  }
+}
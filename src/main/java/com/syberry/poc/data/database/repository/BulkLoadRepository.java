@@ -0,0 +1,392 @@
+package com.syberry.poc.data.database.repository;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Streams;
+import com.syberry.poc.data.database.entity.CrashData;
+import com.syberry.poc.data.database.entity.Traffic;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Repository for loading processed document data with the database's bulk load.
+ * The entities are written to a CSV file, the file is loaded into a temporary staging
+ * table, then the staging rows are moved to the data table with one INSERT ... SELECT
+ * that sets their document. With MySQL the file is sent by LOAD DATA LOCAL INFILE,
+ * so the connection must allow local files from the spool directory.
+ * The raw document rows are staged the same way to be cleaned by the set-based statements,
+ * into a temporary table of a dedicated connection, so the table never outlives its upload.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class BulkLoadRepository {
+  private static final String STAGING_TABLE_SUFFIX = "_staging";
+  private static final String RECORD_NUMBER_COLUMN = "record_number";
+  private static final String NULL_VALUE = "NULL";
+  private static final char QUOTE = '"';
+  private static final char SEPARATOR = ',';
+  private static final char LINE_SEPARATOR = '\n';
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${app.ingestion.spool-directory}")
+  private String spoolDirectory;
+
+  private volatile BulkLoadDialect dialect;
+
+  /**
+   * Loads the stream of CrashData entities of the document.
+   *
+   * @param entities a stream of CrashData entities.
+   * @param documentId the id of the entities' document.
+   * @return loaded entities count.
+   */
+  public int loadCrashData(Stream<CrashData> entities, long documentId) {
+    return load(BatchInsertRepository.CRASH_DATA_TABLE, BatchInsertRepository.CRASH_DATA_COLUMNS,
+        entities, BatchInsertRepository::crashDataValues, documentId);
+  }
+
+  /**
+   * Loads the stream of Traffic entities of the document.
+   *
+   * @param entities a stream of Traffic entities.
+   * @param documentId the id of the entities' document.
+   * @return loaded entities count.
+   */
+  public int loadTraffic(Stream<Traffic> entities, long documentId) {
+    return load(BatchInsertRepository.TRAFFIC_TABLE, BatchInsertRepository.TRAFFIC_COLUMNS,
+        entities, BatchInsertRepository::trafficValues, documentId);
+  }
+
+  /**
+   * Creates the raw staging table and loads the rows' string values into it.
+   * The rows are numbered in the stream's order to be read back in it.
+   * The rows are written to the file before the connection is taken, the table is
+   * temporary and it is read back by pages on the same connection, so the table is dropped
+   * with the connection's session if the upload is never closed.
+   *
+   * @param stagingTable the raw staging table.
+   * @param columns the staged columns.
+   * @param rows a stream of the rows' values.
+   * @return the staged table, it is closed once its rows are read.
+   */
+  public RawStagingTable stageRawRows(String stagingTable, List<String> columns,
+                                      Stream<String[]> rows) {
+    Path file = null;
+    RawStagingTable rawStagingTable = null;
+    try {
+      file = Files.createTempFile(Paths.get(spoolDirectory), stagingTable + "-", ".csv");
+      List<String> stagedColumns = ImmutableList.<String>builder()
+          .add(RECORD_NUMBER_COLUMN).addAll(columns).build();
+      int stagedRows = writeFile(file, stagedColumns,
+          Streams.mapWithIndex(rows, this::numberRow).iterator(), Function.identity());
+      BulkLoadDialect bulkLoadDialect = getDialect();
+      rawStagingTable = new RawStagingTable(jdbcTemplate.getDataSource(), bulkLoadDialect,
+          stagingTable, columns, stagedRows);
+      rawStagingTable.jdbcTemplate.execute(bulkLoadDialect.createRawStagingTable(
+          stagingTable, RECORD_NUMBER_COLUMN, columns));
+      rawStagingTable.jdbcTemplate.execute(
+          bulkLoadDialect.loadFile(stagingTable, stagedColumns, file));
+      return rawStagingTable;
+    } catch (IOException e) {
+      closeRawStagingTable(rawStagingTable);
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      closeRawStagingTable(rawStagingTable);
+      throw e;
+    } finally {
+      deleteFile(file);
+    }
+  }
+
+  /**
+   * Closes the raw staging table if it is created.
+   *
+   * @param rawStagingTable the raw staging table or null.
+   */
+  private void closeRawStagingTable(RawStagingTable rawStagingTable) {
+    if (rawStagingTable != null) {
+      rawStagingTable.close();
+    }
+  }
+
+  /**
+   * Prepends the row's number to its values.
+   *
+   * @param values the row's values.
+   * @param index the row's index in the stream.
+   * @return the row number and the values.
+   */
+  private Object[] numberRow(String[] values, long index) {
+    Object[] row = new Object[values.length + 1];
+    row[0] = index + 1;
+    System.arraycopy(values, 0, row, 1, values.length);
+    return row;
+  }
+
+  /**
+   * Writes the entities to the spooled CSV file, then loads the file into the table.
+   * The entities are written before the transaction is started, so the connection
+   * is not held while the document is processed. The staging table and the moved
+   * rows are committed or rolled back together.
+   *
+   * @param table the data table.
+   * @param columns the table's columns without the document id.
+   * @param entities a stream of the entities.
+   * @param values the function returning the entity's column values.
+   * @param documentId the id of the entities' document.
+   * @param <T> the type of the entities.
+   * @return loaded entities count.
+   */
+  private <T> int load(String table, List<String> columns, Stream<T> entities,
+                       Function<T, Object[]> values, long documentId) {
+    Path file = null;
+    try {
+      file = Files.createTempFile(Paths.get(spoolDirectory), table + "-", ".csv");
+      if (writeFile(file, columns, entities.iterator(), values) == 0) {
+        return 0;
+      }
+      Path loadedFile = file;
+      return transactionTemplate.execute(
+          status -> loadFile(table, columns, loadedFile, documentId));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      deleteFile(file);
+    }
+  }
+
+  /**
+   * Loads the file into the staging table and moves the rows to the data table.
+   *
+   * @param table the data table.
+   * @param columns the table's columns without the document id.
+   * @param file the written CSV file.
+   * @param documentId the id of the rows' document.
+   * @return moved rows count.
+   */
+  private int loadFile(String table, List<String> columns, Path file, long documentId) {
+    BulkLoadDialect bulkLoadDialect = getDialect();
+    String stagingTable = table + STAGING_TABLE_SUFFIX;
+    String columnList = columns.stream()
+        .map(column -> "`" + column + "`")
+        .collect(Collectors.joining(", "));
+    jdbcTemplate.execute(bulkLoadDialect.dropStagingTable(stagingTable));
+    jdbcTemplate.execute(bulkLoadDialect.createStagingTable(stagingTable, table, columns));
+    try {
+      jdbcTemplate.execute(bulkLoadDialect.loadFile(stagingTable, columns, file));
+      return jdbcTemplate.update(String.format(
+          "INSERT INTO `%s` (%s, `%s`) SELECT %s, ? FROM `%s`", table, columnList,
+          BatchInsertRepository.DOCUMENT_ID_COLUMN, columnList, stagingTable), documentId);
+    } finally {
+      jdbcTemplate.execute(bulkLoadDialect.dropStagingTable(stagingTable));
+    }
+  }
+
+  /**
+   * Writes the header and a line per entity to the CSV file.
+   *
+   * @param file the CSV file.
+   * @param columns the header's columns.
+   * @param entities the entities.
+   * @param values the function returning the entity's column values.
+   * @param <T> the type of the entities.
+   * @return written entities count.
+   * @throws IOException if the file cannot be written.
+   */
+  private <T> int writeFile(Path file, List<String> columns, Iterator<T> entities,
+                            Function<T, Object[]> values) throws IOException {
+    int rows = 0;
+    try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write(String.join(String.valueOf(SEPARATOR), columns));
+      writer.write(LINE_SEPARATOR);
+      while (entities.hasNext()) {
+        Object[] row = values.apply(entities.next());
+        for (int i = 0; i < row.length; i++) {
+          if (i > 0) {
+            writer.write(SEPARATOR);
+          }
+          writeValue(writer, row[i]);
+        }
+        writer.write(LINE_SEPARATOR);
+        rows++;
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Writes the value as a CSV field: numbers as is, strings quoted and nulls as NULL.
+   *
+   * @param writer the file's writer.
+   * @param value the column value.
+   * @throws IOException if the file cannot be written.
+   */
+  private void writeValue(Writer writer, Object value) throws IOException {
+    if (value == null) {
+      writer.write(NULL_VALUE);
+    } else if (value instanceof Number) {
+      writer.write(value.toString());
+    } else {
+      String string = value.toString();
+      writer.write(QUOTE);
+      for (int i = 0; i < string.length(); i++) {
+        char character = string.charAt(i);
+        if (character == QUOTE) {
+          writer.write(QUOTE);
+        }
+        writer.write(character);
+      }
+      writer.write(QUOTE);
+    }
+  }
+
+  /**
+   * Returns the bulk load dialect of the connected database.
+   *
+   * @return the BulkLoadDialect.
+   */
+  private BulkLoadDialect getDialect() {
+    if (dialect == null) {
+      dialect = BulkLoadDialect.findByDatabaseProductName(jdbcTemplate.execute(
+          (ConnectionCallback<String>) connection ->
+              connection.getMetaData().getDatabaseProductName()));
+    }
+    return dialect;
+  }
+
+  /**
+   * Deletes the loaded file.
+   *
+   * @param file the loaded file.
+   */
+  private void deleteFile(Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("Bulk load file {} cannot be deleted", file, e);
+    }
+  }
+
+  /**
+   * A staged row's values with its number.
+   *
+   * @param recordNumber the row's number in the staged stream.
+   * @param values the values of the staged columns.
+   */
+  public record StagedRow(long recordNumber, String[] values) {
+  }
+
+  /**
+   * A temporary table of the staged raw rows, held on its dedicated connection.
+   * Closing the table drops it and releases the connection.
+   */
+  public static class RawStagingTable implements AutoCloseable {
+    private final DataSource dataSource;
+    private final BulkLoadDialect dialect;
+    private final String name;
+    private final List<String> columns;
+    @Getter
+    private final int stagedRows;
+    private final Connection connection;
+    private final JdbcTemplate jdbcTemplate;
+    private boolean closed;
+
+    /**
+     * Takes the dedicated connection of the raw staging table.
+     *
+     * @param dataSource the data source the connection is taken from.
+     * @param dialect the bulk load dialect of the database.
+     * @param name the raw staging table.
+     * @param columns the staged columns.
+     * @param stagedRows the staged rows count.
+     */
+    private RawStagingTable(DataSource dataSource, BulkLoadDialect dialect, String name,
+                            List<String> columns, int stagedRows) {
+      this.dataSource = dataSource;
+      this.dialect = dialect;
+      this.name = name;
+      this.columns = columns;
+      this.stagedRows = stagedRows;
+      this.connection = DataSourceUtils.getConnection(dataSource);
+      this.jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+    }
+
+    /**
+     * Executes the statement over the staged rows.
+     *
+     * @param sql the statement.
+     * @param parameters the statement's parameters.
+     * @return affected rows count.
+     */
+    public int executeStatement(String sql, Object... parameters) {
+      return jdbcTemplate.update(sql, parameters);
+    }
+
+    /**
+     * Finds the page of the staged rows following the row number.
+     *
+     * @param afterRecordNumber the last read row number, or 0 to read the first page.
+     * @param limit the page size.
+     * @return the staged rows in their order.
+     */
+    public List<StagedRow> findStagedRows(long afterRecordNumber, int limit) {
+      return jdbcTemplate.query(String.format(
+          "SELECT `%1$s`, %2$s FROM `%3$s` WHERE `%1$s` > ? ORDER BY `%1$s` LIMIT ?",
+          RECORD_NUMBER_COLUMN, columns.stream()
+              .map(column -> "`" + column + "`")
+              .collect(Collectors.joining(", ")), name),
+          (resultSet, rowNum) -> {
+            String[] values = new String[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+              values[i] = resultSet.getString(i + 2);
+            }
+            return new StagedRow(resultSet.getLong(1), values);
+          }, afterRecordNumber, limit);
+    }
+
+    /**
+     * Drops the raw staging table and releases its connection, once.
+     * The table is dropped before the connection is returned to the pool,
+     * so the pooled session is left without it.
+     */
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        jdbcTemplate.execute(dialect.dropStagingTable(name));
+      } finally {
+        DataSourceUtils.releaseConnection(connection, dataSource);
+      }
+    }
+  }
+}
@@ -2,8 +2,14 @@ package com.syberry.poc.data.database.repository;
 
 import com.syberry.poc.data.database.entity.Document;
 import com.syberry.poc.exception.EntityNotFoundException;
+import com.syberry.poc.user.database.entity.User;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository interface for managing documents in the database.
@@ -23,4 +29,33 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
         -> new EntityNotFoundException(
         String.format("Document with id: %s is not found", id)));
   }
+
+  List<Document> findAllByContentHashAndUserEmail(String contentHash, String email);
+
+  boolean existsByContentHashAndUserEmail(String contentHash, String email);
+
+  /**
+   * Sets the content hash of the completed upload's documents.
+   *
+   * @param contentHash the SHA-256 of the uploaded file
+   * @param ids the ids of the upload's documents
+   * @return updated documents count
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE Document d SET d.contentHash = :contentHash WHERE d.id IN :ids")
+  int updateContentHash(@Param("contentHash") String contentHash, @Param("ids") List<Long> ids);
+
+  /**
+   * Clears the content hash of the user's upload, so the same file is processed again.
+   *
+   * @param contentHash the SHA-256 of the uploaded file
+   * @param user the user the upload's documents belong to
+   * @return updated documents count
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE Document d SET d.contentHash = NULL "
+      + "WHERE d.contentHash = :contentHash AND d.user = :user")
+  int clearContentHash(@Param("contentHash") String contentHash, @Param("user") User user);
 }
@@ -1,9 +1,7 @@
 package com.syberry.poc.data.database.repository;
 
 import com.syberry.poc.data.database.entity.PedestrianBicyclist;
-import com.syberry.poc.data.dto.enums.WeekDay;
 import com.syberry.poc.exception.EntityNotFoundException;
-import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
@@ -70,16 +68,4 @@ public interface PedestrianBicyclistRepository extends JpaRepository<PedestrianB
    *     false otherwise
    */
   boolean existsByDocumentId(Long id);
-
-  /**
-   * Returns a top record found filtered by params.
-   *
-   * @param year a year field value.
-   * @param month a month field value.
-   * @param dayOfMonth a dayOfMonth field value.
-   * @param weekDay a weekDay field value.
-   * @return PedestrianBicyclist entity found.
-   */
-  Optional<PedestrianBicyclist> findTopByYearAndMonthAndDayAndWeekDayOrderByIdDesc(
-      int year, int month, int dayOfMonth, WeekDay weekDay);
 }
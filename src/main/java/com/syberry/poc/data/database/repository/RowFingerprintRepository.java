@@ -0,0 +1,125 @@
+package com.syberry.poc.data.database.repository;
+
+import com.syberry.poc.data.dto.enums.DocumentType;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongConsumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the fingerprints of the rows ingested in the append mode.
+ * The fingerprints are read and written with plain JDBC, as they are checked
+ * and inserted by chunks of the document's rows.
+ * A fingerprint is unique per document type, so the row inserted by a concurrent upload
+ * fails the insert of the chunk's fingerprints instead of being ingested twice.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RowFingerprintRepository {
+  public static final String ROW_FINGERPRINT_INSERT = "INSERT INTO `row_fingerprint` "
+      + "(`document_type`, `fingerprint`, `document_id`) VALUES (?, ?, ?)";
+  private static final String MYSQL_PRODUCT_NAME = "MySQL";
+  private static final int FETCH_SIZE = 10000;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Passes every fingerprint of the document type to the consumer.
+   * The fingerprints are streamed, so they are never buffered in memory as a whole.
+   *
+   * @param documentType the rows' document type.
+   * @param consumer the consumer of the fingerprints.
+   */
+  public void forEachFingerprint(DocumentType documentType, LongConsumer consumer) {
+    jdbcTemplate.query(connection -> {
+      PreparedStatement statement = connection.prepareStatement(
+          "SELECT `fingerprint` FROM `row_fingerprint` WHERE `document_type` = ?",
+          ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(getStreamingFetchSize(connection));
+      statement.setString(1, documentType.name());
+      return statement;
+    }, resultSet -> {
+      consumer.accept(resultSet.getLong(1));
+    });
+  }
+
+  /**
+   * Finds which of the fingerprints are stored for the document type.
+   *
+   * @param documentType the rows' document type.
+   * @param fingerprints the checked fingerprints.
+   * @return the stored fingerprints.
+   */
+  public Set<Long> findExistingFingerprints(DocumentType documentType,
+                                            List<Long> fingerprints) {
+    Set<Long> existingFingerprints = new HashSet<>();
+    if (fingerprints.isEmpty()) {
+      return existingFingerprints;
+    }
+    Object[] parameters = new Object[fingerprints.size() + 1];
+    parameters[0] = documentType.name();
+    for (int i = 0; i < fingerprints.size(); i++) {
+      parameters[i + 1] = fingerprints.get(i);
+    }
+    jdbcTemplate.query(String.format("SELECT `fingerprint` FROM `row_fingerprint` "
+            + "WHERE `document_type` = ? AND `fingerprint` IN (%s)",
+            String.join(", ", Collections.nCopies(fingerprints.size(), "?"))),
+        resultSet -> {
+          existingFingerprints.add(resultSet.getLong(1));
+        }, parameters);
+    return existingFingerprints;
+  }
+
+  /**
+   * Inserts the fingerprints of the document's rows in one batch.
+   *
+   * @param documentType the rows' document type.
+   * @param fingerprints the fingerprints of the document's new rows.
+   * @param documentId the id of the document.
+   */
+  public void insertFingerprints(DocumentType documentType, List<Long> fingerprints,
+                                 Long documentId) {
+    if (fingerprints.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate(ROW_FINGERPRINT_INSERT, fingerprints, fingerprints.size(),
+        (statement, fingerprint) -> {
+          statement.setString(1, documentType.name());
+          statement.setLong(2, fingerprint);
+          statement.setLong(3, documentId);
+        });
+  }
+
+  /**
+   * Deletes the fingerprints of the document's rows,
+   * so the rows are ingested again by the next upload.
+   *
+   * @param documentId the id of the document.
+   * @return deleted fingerprints count.
+   */
+  public int deleteByDocumentId(Long documentId) {
+    return jdbcTemplate.update("DELETE FROM `row_fingerprint` WHERE `document_id` = ?",
+        documentId);
+  }
+
+  /**
+   * Returns the fetch size that streams the result set. MySQL Connector/J streams
+   * the rows one by one only with the minimal fetch size, otherwise it reads them all.
+   *
+   * @param connection the statement's connection.
+   * @return the fetch size.
+   * @throws SQLException if the connection's metadata cannot be read.
+   */
+  private static int getStreamingFetchSize(Connection connection) throws SQLException {
+    return MYSQL_PRODUCT_NAME.equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())
+        ? Integer.MIN_VALUE : FETCH_SIZE;
+  }
+}
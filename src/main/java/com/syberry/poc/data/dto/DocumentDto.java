@@ -1,6 +1,8 @@
 package com.syberry.poc.data.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.syberry.poc.data.dto.enums.DocumentStatus;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
 import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,4 +25,6 @@ public class DocumentDto {
   private LocalDateTime dateTime;
   private Long userId;
   private int processedRows;
+  private DocumentStatus status;
+  private HashAlgorithm hashAlgorithm;
 }
@@ -0,0 +1,33 @@
+package com.syberry.poc.data.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.syberry.poc.data.dto.enums.UploadJobStage;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A data transfer object that represents document upload job.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadJobDto {
+
+  private String id;
+  private String fileName;
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm")
+  private LocalDateTime dateTime;
+  private UploadJobStage stage;
+  private long processedRows;
+  private Long documentId;
+  private List<Long> documentIds;
+  private UploadReportDto report;
+  private String error;
+}
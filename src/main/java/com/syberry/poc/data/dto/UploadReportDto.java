@@ -17,4 +17,5 @@ import lombok.Setter;
 public class UploadReportDto {
   private int processedLines;
   private int recordedLines;
+  private int invalidDateLines;
 }
@@ -0,0 +1,9 @@
+package com.syberry.poc.data.dto.enums;
+
+/**
+ * An enumeration of the tokenizers the spooled CSV documents are parsed with.
+ */
+public enum CsvTokenizer {
+  COMMONS_CSV,
+  MAPPED_BUFFER
+}
@@ -0,0 +1,35 @@
+package com.syberry.poc.data.dto.enums;
+
+/**
+ * An enumeration of the uploaded documents compression formats.
+ */
+public enum DocumentCompression {
+  NONE(""),
+  GZIP(".gz"),
+  ZIP(".zip");
+
+  private final String extension;
+
+  DocumentCompression(String extension) {
+    this.extension = extension;
+  }
+
+  public String getExtension() {
+    return extension;
+  }
+
+  /**
+   * Returns the compression format based on the uploaded file name's extension.
+   *
+   * @param fileName an uploaded file name in lower case.
+   * @return the DocumentCompression, NONE if the document is not compressed.
+   */
+  public static DocumentCompression findByFileName(String fileName) {
+    if (fileName.endsWith(GZIP.extension)) {
+      return GZIP;
+    } else if (fileName.endsWith(ZIP.extension)) {
+      return ZIP;
+    }
+    return NONE;
+  }
+}
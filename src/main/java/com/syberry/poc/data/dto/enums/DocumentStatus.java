@@ -0,0 +1,12 @@
+package com.syberry.poc.data.dto.enums;
+
+/**
+ * An enumeration of uploaded document's ingestion statuses.
+ * A REPLACED document is superseded by a corrected one, its rows are moved or deleted.
+ */
+public enum DocumentStatus {
+  IN_PROGRESS,
+  COMPLETE,
+  FAILED,
+  REPLACED
+}
@@ -19,4 +19,35 @@ public enum DocumentType {
   public String getType() {
     return type;
   }
+
+  /**
+   * Returns the document type based on the uploaded file name.
+   *
+   * @param fileName an uploaded file name.
+   * @return the DocumentType or null if the document type is not supported.
+   */
+  public static DocumentType findByFileName(String fileName) {
+    for (DocumentType type : values()) {
+      if (fileName.contains(type.getType())) {
+        return type;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks that the uploaded file is a document of the supported type
+   * or a zip archive, whose documents types are checked when it is processed.
+   *
+   * @param fileName an uploaded file name.
+   * @return true if the uploaded file can be processed.
+   */
+  public static boolean isSupported(String fileName) {
+    if (fileName == null) {
+      return false;
+    }
+    String name = fileName.toLowerCase();
+    return DocumentCompression.findByFileName(name) == DocumentCompression.ZIP
+        || findByFileName(name) != null;
+  }
 }
@@ -0,0 +1,9 @@
+package com.syberry.poc.data.dto.enums;
+
+/**
+ * An enumeration of available algorithms for the data hash columns.
+ */
+public enum HashAlgorithm {
+  SHA_256,
+  XX_HASH_64
+}
@@ -0,0 +1,17 @@
+package com.syberry.poc.data.dto.enums;
+
+/**
+ * An enumeration of the methods processed document data is written to the database with.
+ * JDBC_BATCH inserts the entities chunk by chunk with multi-row INSERT statements,
+ * LOAD_DATA loads the whole document from a CSV file through a staging table,
+ * MERGE upserts the entities chunk by chunk by their natural key of all the record's values,
+ * so re-uploaded rows are skipped instead of being duplicated. A corrected record has
+ * another key, so a corrected document names the document it replaces: the replaced rows
+ * it repeats are moved to it and the rest are deleted. The pedestrian and bicyclist
+ * documents have no natural key, so MERGE rejects them.
+ */
+public enum InsertMethod {
+  JDBC_BATCH,
+  LOAD_DATA,
+  MERGE
+}
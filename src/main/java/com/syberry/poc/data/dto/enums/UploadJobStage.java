@@ -0,0 +1,8 @@
+package com.syberry.poc.data.dto.enums;
+
+/**
+ * An enumeration of upload job stages.
+ */
+public enum UploadJobStage {
+  QUEUED, PROCESSING, COMPLETED, FAILED
+}
@@ -0,0 +1,96 @@
+package com.syberry.poc.data.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The document's columns table, built once per document from the normalized header names.
+ * Maps the column index to its name and the name to its index.
+ * If several columns have the same name, the last one is used, as the CSV parser does.
+ */
+public final class ColumnSchema {
+  private final String[] columnNames;
+  private final Map<String, Integer> columnIndexes;
+  private final int[] keyIndexes;
+
+  /**
+   * Creates the schema of the document's columns.
+   *
+   * @param columnNames the normalized column names in the document's order.
+   */
+  public ColumnSchema(List<String> columnNames) {
+    this.columnNames = columnNames.toArray(String[]::new);
+    this.columnIndexes = new HashMap<>();
+    for (int i = 0; i < this.columnNames.length; i++) {
+      columnIndexes.put(this.columnNames[i], i);
+    }
+    int[] indexes = new int[this.columnNames.length];
+    int keysCount = 0;
+    for (int i = 0; i < this.columnNames.length; i++) {
+      if (columnIndexes.get(this.columnNames[i]) == i) {
+        indexes[keysCount++] = i;
+      }
+    }
+    this.keyIndexes = Arrays.copyOf(indexes, keysCount);
+  }
+
+  /**
+   * Returns the columns count.
+   *
+   * @return the columns count.
+   */
+  public int size() {
+    return columnNames.length;
+  }
+
+  /**
+   * Returns the column names in the document's order.
+   *
+   * @return the column names.
+   */
+  public List<String> getColumnNames() {
+    return List.of(columnNames);
+  }
+
+  /**
+   * Returns the column's name.
+   *
+   * @param index the column's index.
+   * @return the column's name.
+   */
+  public String getColumnName(int index) {
+    return columnNames[index];
+  }
+
+  /**
+   * Returns the column's index.
+   *
+   * @param columnName the column's name.
+   * @return the column's index or -1 if the document has no such column.
+   */
+  public int indexOf(String columnName) {
+    Integer index = columnIndexes.get(columnName);
+    return index != null ? index : -1;
+  }
+
+  /**
+   * Checks if the column's value is the one its name resolves to.
+   *
+   * @param index the column's index.
+   * @return false if a later column has the same name, true otherwise.
+   */
+  public boolean isKeyIndex(int index) {
+    return columnIndexes.get(columnNames[index]) == index;
+  }
+
+  /**
+   * Returns the indexes of the columns with distinct names.
+   *
+   * @return the indexes in the document's order.
+   */
+  int[] getKeyIndexes() {
+    return keyIndexes;
+  }
+}
@@ -0,0 +1,34 @@
+package com.syberry.poc.data.model;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.Getter;
+
+/**
+ * A parsed CSV document: its header names and the lazy stream of its records
+ * in the document's order. Closing the document releases the document's file
+ * and stops the parsing that is still in progress.
+ */
+@Getter
+public class CsvDocument implements Closeable {
+  private final List<String> headerNames;
+  private final Stream<CsvFields> records;
+  private long recordNumber;
+
+  /**
+   * Creates the document that counts its records while they are consumed.
+   *
+   * @param headerNames the document's header names.
+   * @param records a stream of the document's records, closing it releases the document.
+   */
+  public CsvDocument(List<String> headerNames, Stream<CsvFields> records) {
+    this.headerNames = headerNames;
+    this.records = records.peek(record -> recordNumber++);
+  }
+
+  @Override
+  public void close() {
+    records.close();
+  }
+}
@@ -0,0 +1,55 @@
+package com.syberry.poc.data.model;
+
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * A parsed CSV record's fields accessed by the column index.
+ * Implementations may keep the fields as slices of the parsed document
+ * and create the String values only when they are requested.
+ */
+public interface CsvFields {
+  /**
+   * Returns the record's fields count.
+   *
+   * @return the fields count.
+   */
+  int size();
+
+  /**
+   * Returns the field's value.
+   *
+   * @param index the field's index.
+   * @return the field's value.
+   */
+  String get(int index);
+
+  /**
+   * Checks whether the field is empty or contains whitespaces only.
+   *
+   * @param index the field's index.
+   * @return true if the field is blank.
+   */
+  default boolean isBlank(int index) {
+    return get(index).isBlank();
+  }
+
+  /**
+   * Returns the fields of the record parsed with commons-csv.
+   *
+   * @param record the parsed record.
+   * @return the record's fields.
+   */
+  static CsvFields of(CSVRecord record) {
+    return new CsvFields() {
+      @Override
+      public int size() {
+        return record.size();
+      }
+
+      @Override
+      public String get(int index) {
+        return record.get(index);
+      }
+    };
+  }
+}
@@ -0,0 +1,14 @@
+package com.syberry.poc.data.model;
+
+import com.syberry.poc.data.dto.enums.WeekDay;
+
+/**
+ * The parsed date of the pedestrian and bicyclist document's row.
+ *
+ * @param year the year.
+ * @param month the month, starting from 1.
+ * @param day the day of month.
+ * @param weekDay the week day.
+ */
+public record DateValues(int year, int month, int day, WeekDay weekDay) {
+}
@@ -0,0 +1,25 @@
+package com.syberry.poc.data.model;
+
+import java.util.stream.Stream;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A document's table: the columns schema shared by all rows and the lazy stream of rows.
+ */
+@Getter
+@RequiredArgsConstructor
+public class DocumentTable {
+  private final ColumnSchema schema;
+  private final Stream<Row> rows;
+
+  /**
+   * Creates the table with the same schema and other rows.
+   *
+   * @param rows the lazy stream of rows.
+   * @return the table.
+   */
+  public DocumentTable withRows(Stream<Row> rows) {
+    return new DocumentTable(schema, rows);
+  }
+}
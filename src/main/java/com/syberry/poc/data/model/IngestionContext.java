@@ -0,0 +1,33 @@
+package com.syberry.poc.data.model;
+
+import com.syberry.poc.data.database.entity.Document;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A state shared by the conversion of one uploaded document's rows.
+ * In the append mode it holds the fingerprints of the rows passed to the conversion,
+ * until they are stored with the chunk of the rows' entities.
+ * In the merge mode it holds the id of the document the uploaded one replaces, if any.
+ */
+@Getter
+@RequiredArgsConstructor
+public class IngestionContext {
+  private final Document document;
+  private final ValueDictionary valueDictionary;
+  private final AtomicInteger invalidDateRows = new AtomicInteger();
+  private final Set<Long> pendingFingerprints = new LinkedHashSet<>();
+  @Setter
+  private Long replacedDocumentId;
+
+  /**
+   * Counts the row skipped because of its invalid date.
+   */
+  public void countInvalidDateRow() {
+    invalidDateRows.incrementAndGet();
+  }
+}
@@ -0,0 +1,92 @@
+package com.syberry.poc.data.model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A document's row stored as an array of values indexed by the shared ColumnSchema.
+ * The row holds the values only, the column names are resolved by the schema.
+ * Null values are treated as missing.
+ */
+public class Row {
+  private final ColumnSchema schema;
+  private final String[] values;
+
+  /**
+   * Creates the row over the values array.
+   *
+   * @param schema the document's columns schema.
+   * @param values the row's values by the column index, used without copying.
+   */
+  public Row(ColumnSchema schema, String[] values) {
+    this.schema = schema;
+    this.values = values;
+  }
+
+  /**
+   * Creates the row with its own schema from the map of column names and values.
+   *
+   * @param row the map with column names and values.
+   * @return the row.
+   */
+  public static Row of(Map<String, String> row) {
+    return new Row(new ColumnSchema(List.copyOf(row.keySet())),
+        row.values().toArray(String[]::new));
+  }
+
+  public ColumnSchema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Returns the column's value.
+   *
+   * @param index the column's index.
+   * @return the value or null if it is missing.
+   */
+  public String get(int index) {
+    return values[index];
+  }
+
+  /**
+   * Returns the column's value.
+   *
+   * @param columnName the column's name.
+   * @return the value or null if it is missing or the document has no such column.
+   */
+  public String get(String columnName) {
+    int index = schema.indexOf(columnName);
+    return index >= 0 ? values[index] : null;
+  }
+
+  /**
+   * Sets the column's value.
+   *
+   * @param index the column's index.
+   * @param value the value, null to mark it as missing.
+   */
+  public void set(int index, String value) {
+    values[index] = value;
+  }
+
+  /**
+   * Copies the row's present values to a map in the document's columns order.
+   *
+   * @return the map with column names and values.
+   */
+  public Map<String, String> toMap() {
+    Map<String, String> row = new LinkedHashMap<>();
+    for (int index : schema.getKeyIndexes()) {
+      if (values[index] != null) {
+        row.put(schema.getColumnName(index), values[index]);
+      }
+    }
+    return row;
+  }
+
+  @Override
+  public String toString() {
+    return toMap().toString();
+  }
+}
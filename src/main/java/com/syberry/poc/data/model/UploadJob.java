@@ -0,0 +1,55 @@
+package com.syberry.poc.data.model;
+
+import com.syberry.poc.data.dto.UploadReportDto;
+import com.syberry.poc.data.dto.enums.UploadJobStage;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * An in-memory state of the document upload job.
+ * The state is written by the ingestion thread and read by the polling requests.
+ */
+@Getter
+@Setter
+public class UploadJob {
+  private final String id;
+  private final String fileName;
+  private final String username;
+  private final LocalDateTime dateTime = LocalDateTime.now();
+  private final AtomicLong processedRows = new AtomicLong();
+  private volatile UploadJobStage stage = UploadJobStage.QUEUED;
+  private volatile Long documentId;
+  private final List<Long> documentIds = new CopyOnWriteArrayList<>();
+  private volatile UploadReportDto report;
+  private volatile String error;
+  private volatile String contentHash;
+  private volatile Long replacedDocumentId;
+
+  public UploadJob(String id, String fileName, String username) {
+    this.id = id;
+    this.fileName = fileName;
+    this.username = username;
+  }
+
+  /**
+   * Records the document created by the job.
+   * An archive's job creates a document per archived file.
+   *
+   * @param id the ID of the created document.
+   */
+  public void addDocumentId(Long id) {
+    documentId = id;
+    documentIds.add(id);
+  }
+
+  /**
+   * Increments the counter of rows read from the document.
+   */
+  public void incrementProcessedRows() {
+    processedRows.incrementAndGet();
+  }
+}
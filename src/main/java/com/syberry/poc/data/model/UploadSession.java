@@ -0,0 +1,30 @@
+package com.syberry.poc.data.model;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * An in-memory state of the chunked document upload.
+ * The chunks are appended to the spooled file in their order,
+ * the received bytes are the offset the next chunk is written at.
+ */
+@Getter
+@Setter
+public class UploadSession {
+  private final String id;
+  private final String fileName;
+  private final String username;
+  private final Path spooledFile;
+  private final LocalDateTime dateTime = LocalDateTime.now();
+  private volatile int receivedChunks;
+  private volatile long receivedBytes;
+
+  public UploadSession(String id, String fileName, String username, Path spooledFile) {
+    this.id = id;
+    this.fileName = fileName;
+    this.username = username;
+    this.spooledFile = spooledFile;
+  }
+}
@@ -0,0 +1,117 @@
+package com.syberry.poc.data.model;
+
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
+import com.syberry.poc.data.util.DateValuesParser;
+import com.syberry.poc.data.util.HashCalculator;
+import com.syberry.poc.data.util.StringPrettifier;
+import java.time.DateTimeException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A per-upload dictionary of the document's cell values.
+ * Every distinct value is prettified, hashed, mapped to the enum constant or parsed as a date once,
+ * and equal prettified values share one String instance.
+ * Each cache holds up to the maximal size of values, further values are computed every time.
+ */
+public class ValueDictionary {
+  private final HashAlgorithm hashAlgorithm;
+  private final int maxSize;
+  private final Map<String, String> prettifiedValues = new ConcurrentHashMap<>();
+  private final Map<String, String> canonicalValues = new ConcurrentHashMap<>();
+  private final Map<String, Long> hashes = new ConcurrentHashMap<>();
+  private final Map<Class<?>, Map<String, Enum<?>>> enumValues = new ConcurrentHashMap<>();
+  private final Map<String, Optional<DateValues>> dateValues = new ConcurrentHashMap<>();
+
+  public ValueDictionary(HashAlgorithm hashAlgorithm, int maxSize) {
+    this.hashAlgorithm = hashAlgorithm;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Returns the prettified version of the value.
+   *
+   * @param value to prettify.
+   * @return canonical instance of the prettified value.
+   */
+  public String prettify(String value) {
+    return memoize(prettifiedValues, value,
+        rawValue -> memoize(canonicalValues, StringPrettifier.prettify(rawValue),
+            Function.identity()));
+  }
+
+  /**
+   * Returns the hash of the value calculated with the document's hash algorithm.
+   *
+   * @param value to hash.
+   * @return the hash value, or null if the value is null.
+   */
+  public Long hash(String value) {
+    return memoize(hashes, value,
+        rawValue -> HashCalculator.calculateHash(rawValue, hashAlgorithm));
+  }
+
+  /**
+   * Returns the enum constant the value is mapped to.
+   *
+   * @param enumType the enum class.
+   * @param value to map.
+   * @param converter the function mapping the value to the enum constant.
+   * @param <E> the enum type.
+   * @return the enum constant.
+   */
+  public <E extends Enum<E>> E toEnum(Class<E> enumType, String value,
+                                      Function<String, E> converter) {
+    Map<String, Enum<?>> values = enumValues.computeIfAbsent(
+        enumType, type -> new ConcurrentHashMap<>());
+    return enumType.cast(memoize(values, value, converter));
+  }
+
+  /**
+   * Returns the date values the value is parsed to.
+   *
+   * @param value the date value.
+   * @return the parsed date values, or empty if the value is not a valid date.
+   */
+  public Optional<DateValues> toDateValues(String value) {
+    if (value == null) {
+      return Optional.empty();
+    }
+    return memoize(dateValues, value, rawValue -> {
+      try {
+        return Optional.of(DateValuesParser.parse(rawValue));
+      } catch (DateTimeException e) {
+        return Optional.empty();
+      }
+    });
+  }
+
+  /**
+   * Returns the cached result for the value, computing and caching it if it is missing.
+   *
+   * @param cache the cache of the results.
+   * @param value the value.
+   * @param function the function computing the result.
+   * @param <V> the result type.
+   * @return the result for the value.
+   */
+  private <V> V memoize(Map<String, V> cache, String value,
+                        Function<String, ? extends V> function) {
+    if (value == null) {
+      return function.apply(null);
+    }
+    V result = cache.get(value);
+    if (result == null) {
+      result = function.apply(value);
+      if (result != null && cache.size() < maxSize) {
+        V cachedResult = cache.putIfAbsent(value, result);
+        if (cachedResult != null) {
+          result = cachedResult;
+        }
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,15 @@
+package com.syberry.poc.data.service;
+
+import com.syberry.poc.data.model.CsvDocument;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Service interface for parsing spooled and streamed CSV documents.
+ */
+public interface CsvParsingService {
+  CsvDocument parseCsvDocument(Path document) throws IOException;
+
+  CsvDocument parseCsvDocument(InputStream document) throws IOException;
+}
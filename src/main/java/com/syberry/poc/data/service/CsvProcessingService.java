@@ -1,11 +1,12 @@
 package com.syberry.poc.data.service;
 
 import com.syberry.poc.data.dto.UploadReportDto;
-import org.springframework.web.multipart.MultipartFile;
+import com.syberry.poc.data.model.UploadJob;
+import java.nio.file.Path;
 
 /**
  * Service interface for document upload.
  */
 public interface CsvProcessingService {
-  UploadReportDto processCsvDocument(MultipartFile file);
+  UploadReportDto processCsvDocument(Path spooledFile, UploadJob uploadJob);
 }
@@ -1,6 +1,7 @@
 package com.syberry.poc.data.service;
 
 import com.syberry.poc.data.dto.enums.Tag;
+import com.syberry.poc.data.model.ColumnSchema;
 import java.util.List;
 import java.util.Map;
 
@@ -8,6 +9,5 @@ import java.util.Map;
  * Service interface for document's data mapping to tags.
  */
 public interface DataMapperService {
-  Map<String, List<Tag>> mapColumns(List<Map<String, String>> documentData);
+  Map<String, List<Tag>> mapColumns(ColumnSchema schema);
 }
-
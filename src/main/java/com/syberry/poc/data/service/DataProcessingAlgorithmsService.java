@@ -1,6 +1,8 @@
 package com.syberry.poc.data.service;
 
 import com.syberry.poc.data.dto.enums.Tag;
+import com.syberry.poc.data.model.DocumentTable;
+import com.syberry.poc.data.model.ValueDictionary;
 import java.util.List;
 import java.util.Map;
 
@@ -8,7 +10,8 @@ import java.util.Map;
  * Service interface for document's data processing with algorithms.
  */
 public interface DataProcessingAlgorithmsService {
-  List<Map<String, String>> applyProcessingAlgorithms(
-          List<Map<String, String>> documentData,
-          Map<String, List<Tag>> tags);
+  DocumentTable applyProcessingAlgorithms(
+          DocumentTable documentData,
+          Map<String, List<Tag>> tags,
+          ValueDictionary valueDictionary);
 }
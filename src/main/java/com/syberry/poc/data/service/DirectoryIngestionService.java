@@ -0,0 +1,8 @@
+package com.syberry.poc.data.service;
+
+/**
+ * Service interface for ingestion of the documents put to the server's watch directory.
+ */
+public interface DirectoryIngestionService {
+  void pollWatchDirectory();
+}
@@ -1,15 +1,17 @@
 package com.syberry.poc.data.service;
 
+import com.syberry.poc.data.model.CsvFields;
+import com.syberry.poc.data.model.DocumentTable;
 import java.util.List;
-import java.util.Map;
-import org.apache.commons.csv.CSVRecord;
+import java.util.stream.Stream;
 
 /**
  * Service interface for document's data converting
  * in order to get processable document representation.
  */
 public interface DocumentConverterService {
-  List<Map<String, String>> prepareDocumentToProcessing(
+  DocumentTable prepareDocumentToProcessing(
       String fileName,
-      List<CSVRecord> documentData);
+      List<String> headerNames,
+      Stream<CsvFields> documentData);
 }
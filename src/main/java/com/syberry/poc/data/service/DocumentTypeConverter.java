@@ -1,12 +1,23 @@
 package com.syberry.poc.data.service;
 
-import com.syberry.poc.data.database.entity.Document;
+import com.syberry.poc.data.model.IngestionContext;
+import com.syberry.poc.data.model.Row;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Service interface for document's types converting.
+ * Rows are converted to entities once, while the entities stream is consumed by the writer
+ * or the merger chunk by chunk, or by the bulk load as a whole.
+ *
+ * @param <T> the type of the document's data entities.
  */
-public interface DocumentTypeConverter {
-  int save(List<Map<String, String>> proceededDocument, Document document);
+public interface DocumentTypeConverter<T> {
+  Stream<T> convert(Stream<Row> proceededDocument, IngestionContext context);
+
+  int write(List<T> entities);
+
+  int merge(Stream<T> entities, IngestionContext context);
+
+  int load(Stream<T> entities, IngestionContext context);
 }
@@ -0,0 +1,16 @@
+package com.syberry.poc.data.service;
+
+import com.syberry.poc.data.dto.enums.DocumentType;
+import com.syberry.poc.data.model.IngestionContext;
+import com.syberry.poc.data.model.Row;
+import java.util.stream.Stream;
+
+/**
+ * Service interface for the append mode ingestion of the cumulative documents.
+ */
+public interface RowFingerprintService {
+  Stream<Row> filterNewRows(Stream<Row> rows, DocumentType documentType,
+                            IngestionContext context);
+
+  int recordFingerprints(DocumentType documentType, IngestionContext context);
+}
@@ -1,15 +1,20 @@
 package com.syberry.poc.data.service;
 
 import com.syberry.poc.data.database.entity.CrashData;
+import com.syberry.poc.data.database.entity.Document;
 import com.syberry.poc.data.database.entity.PedestrianBicyclist;
 import com.syberry.poc.data.database.entity.PedestrianBicyclistValues;
 import com.syberry.poc.data.database.entity.Traffic;
 import java.util.List;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
 /**
  * Service interface for saving processed document data.
  */
 public interface SavingDataService {
+  <T> int saveInChunks(Stream<T> entities, ToIntFunction<List<T>> chunkWriter);
+
   void savePedestrianBicyclist(List<PedestrianBicyclist> entities);
 
   void savePedestrianBicyclistValues(List<PedestrianBicyclistValues> entities);
@@ -17,5 +22,13 @@ public interface SavingDataService {
   void saveCrashData(List<CrashData> entities);
 
   void saveTraffic(List<Traffic> entities);
+
+  int mergeCrashData(Stream<CrashData> entities, Document document, Long replacedDocumentId);
+
+  int mergeTraffic(Stream<Traffic> entities, Document document, Long replacedDocumentId);
+
+  int loadCrashData(Stream<CrashData> entities, Document document);
+
+  int loadTraffic(Stream<Traffic> entities, Document document);
 }
 
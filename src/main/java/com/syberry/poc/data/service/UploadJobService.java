@@ -0,0 +1,21 @@
+package com.syberry.poc.data.service;
+
+import com.syberry.poc.data.dto.UploadJobDto;
+import com.syberry.poc.data.model.UploadJob;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Service interface for asynchronous document upload jobs.
+ */
+public interface UploadJobService {
+  UploadJobDto submitCsvDocument(MultipartFile file, String idempotencyKey,
+                                 Long replacedDocumentId);
+
+  UploadJobDto submitDocument(Path document, String fileName, Authentication authentication,
+                              Consumer<UploadJob> completionHandler);
+
+  UploadJobDto findUploadJobById(String id);
+}
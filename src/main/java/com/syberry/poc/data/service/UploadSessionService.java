@@ -0,0 +1,20 @@
+package com.syberry.poc.data.service;
+
+import com.syberry.poc.data.dto.UploadJobDto;
+import com.syberry.poc.data.dto.UploadSessionDto;
+import java.io.InputStream;
+
+/**
+ * Service interface for resumable chunked document uploads.
+ */
+public interface UploadSessionService {
+  UploadSessionDto createUploadSession(String fileName);
+
+  UploadSessionDto appendChunk(String id, int chunkNumber, InputStream chunk);
+
+  UploadSessionDto findUploadSessionById(String id);
+
+  UploadJobDto commitUploadSession(String id, int chunks);
+
+  void deleteUploadSession(String id);
+}
@@ -0,0 +1,217 @@
+package com.syberry.poc.data.service.impl;
+
+import com.syberry.poc.data.dto.enums.Tag;
+import com.syberry.poc.data.model.ColumnSchema;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.model.ValueDictionary;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Processing plan compiled once per document from the columns tags.
+ * Every column gets a processor with its index and tags flags resolved beforehand,
+ * so processing a row does not look up or scan the tags lists.
+ */
+final class ColumnProcessingPlan {
+  static final String STRING_NULL_VALUE = "No_Data";
+  static final String INTEGER_NULL_VALUE = "0";
+  static final int MAX_TIME_VALUE = 2400;
+
+  private final int[] droppedColumns;
+  private final ColumnProcessor[] processors;
+  private final ValueDictionary valueDictionary;
+
+  private ColumnProcessingPlan(int[] droppedColumns, ColumnProcessor[] processors,
+                               ValueDictionary valueDictionary) {
+    this.droppedColumns = droppedColumns;
+    this.processors = processors;
+    this.valueDictionary = valueDictionary;
+  }
+
+  /**
+   * Compiles processing plan for the document's columns.
+   * The tagged columns are resolved to their indexes in the schema,
+   * the columns without tags are dropped from the rows.
+   *
+   * @param schema the document's columns schema.
+   * @param tags a map of processing tags to document's headers.
+   * @param valueDictionary the upload's dictionary the string values are prettified with.
+   * @return compiled processing plan.
+   */
+  static ColumnProcessingPlan compile(ColumnSchema schema, Map<String, List<Tag>> tags,
+                                      ValueDictionary valueDictionary) {
+    int[] droppedColumns = IntStream.range(0, schema.size())
+        .filter(column -> !isKeptColumn(schema, tags, column))
+        .toArray();
+    return new ColumnProcessingPlan(droppedColumns, resolveProcessors(schema, tags),
+        valueDictionary);
+  }
+
+  /**
+   * Resolves the columns tags to the processors.
+   *
+   * @param schema the document's columns schema.
+   * @param tags a map of processing tags to document's headers.
+   * @return the column processors, the processor's column is -1 if the schema misses it.
+   */
+  static ColumnProcessor[] resolveProcessors(ColumnSchema schema, Map<String, List<Tag>> tags) {
+    ColumnProcessor[] processors = new ColumnProcessor[tags.size()];
+    int index = 0;
+    for (Map.Entry<String, List<Tag>> entry : tags.entrySet()) {
+      EnumSet<Tag> flags = entry.getValue().isEmpty()
+          ? EnumSet.noneOf(Tag.class) : EnumSet.copyOf(entry.getValue());
+      processors[index++] = new ColumnProcessor(schema.indexOf(entry.getKey()), flags);
+    }
+    return processors;
+  }
+
+  /**
+   * Checks if the column's values are kept in the processed rows.
+   *
+   * @param schema the document's columns schema.
+   * @param tags a map of processing tags to document's headers.
+   * @param column the column's index.
+   * @return true if the column is the first one with its name and it is tagged.
+   */
+  static boolean isKeptColumn(ColumnSchema schema, Map<String, List<Tag>> tags, int column) {
+    return schema.isKeyIndex(column) && tags.containsKey(schema.getColumnName(column));
+  }
+
+  /**
+   * Clears the row, sets correct null values and applies the processing algorithms
+   * based on the columns tags.
+   *
+   * @param row a document's row, processed in place.
+   * @return true if the row is valid and should be kept, false otherwise.
+   */
+  boolean process(Row row) {
+    for (int column : droppedColumns) {
+      row.set(column, null);
+    }
+    for (ColumnProcessor processor : processors) {
+      if (processor.column < 0) {
+        if (processor.obligatory) {
+          return false;
+        }
+        continue;
+      }
+      String value = row.get(processor.column);
+      if (value != null && isNullValue(value) && processor.nullValue != null) {
+        value = processor.nullValue;
+        row.set(processor.column, value);
+      }
+      if (processor.obligatory && (StringUtils.isBlank(value)
+          || value.equals(INTEGER_NULL_VALUE) || value.equals(STRING_NULL_VALUE))) {
+        return false;
+      }
+      if (value == null) {
+        continue;
+      }
+      switch (processor.rule) {
+        case PRETTIFY -> row.set(processor.column, valueDictionary.prettify(value));
+        case TIME -> {
+          int time = parseNumeric(value);
+          if (time < 0 || time > MAX_TIME_VALUE) {
+            return false;
+          }
+        }
+        case NUMERIC -> {
+          if (!isNumeric(value)) {
+            return false;
+          }
+        }
+        default -> {
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the value represents a missing value.
+   *
+   * @param value to check.
+   * @return true if the value is empty, null or n/a.
+   */
+  private static boolean isNullValue(String value) {
+    return value.isEmpty() || value.equalsIgnoreCase("null") || value.equalsIgnoreCase("n/a");
+  }
+
+  /**
+   * Checks if the value contains only numbers.
+   *
+   * @param value to check.
+   * @return true if the value contains only digits and false otherwise.
+   */
+  private static boolean isNumeric(String value) {
+    if (value.isEmpty()) {
+      return false;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char character = value.charAt(i);
+      if (character < '0' || character > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parses value that contains only numbers.
+   * Parsing stops as soon as the value exceeds the maximal time value.
+   *
+   * @param value to parse.
+   * @return parsed value, or -1 if the value is not numeric.
+   */
+  private static int parseNumeric(String value) {
+    if (!isNumeric(value)) {
+      return -1;
+    }
+    int result = 0;
+    for (int i = 0; i < value.length() && result <= MAX_TIME_VALUE; i++) {
+      result = result * 10 + (value.charAt(i) - '0');
+    }
+    return result;
+  }
+
+  /**
+   * An enumeration of the checks and conversions applied to a column's values.
+   */
+  enum Rule {
+    PRETTIFY, TIME, NUMERIC, NONE
+  }
+
+  /**
+   * Column's processor with the tags resolved to the processing rule.
+   */
+  static final class ColumnProcessor {
+    final int column;
+    final boolean obligatory;
+    final String nullValue;
+    final Rule rule;
+
+    private ColumnProcessor(int column, EnumSet<Tag> flags) {
+      this.column = column;
+      this.obligatory = flags.contains(Tag.OBLIGATORY);
+      if (flags.contains(Tag.STRING)) {
+        nullValue = STRING_NULL_VALUE;
+      } else if (flags.contains(Tag.INT)) {
+        nullValue = INTEGER_NULL_VALUE;
+      } else {
+        nullValue = null;
+      }
+      if (flags.contains(Tag.STRING)) {
+        rule = Rule.PRETTIFY;
+      } else if (flags.contains(Tag.TIME)) {
+        rule = Rule.TIME;
+      } else if (flags.contains(Tag.INT)) {
+        rule = Rule.NUMERIC;
+      } else {
+        rule = Rule.NONE;
+      }
+    }
+  }
+}
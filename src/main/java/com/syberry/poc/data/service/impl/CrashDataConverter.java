@@ -2,11 +2,12 @@ package com.syberry.poc.data.service.impl;
 
 import com.syberry.poc.data.converter.DataConverter;
 import com.syberry.poc.data.database.entity.CrashData;
-import com.syberry.poc.data.database.entity.Document;
+import com.syberry.poc.data.model.IngestionContext;
+import com.syberry.poc.data.model.Row;
 import com.syberry.poc.data.service.DocumentTypeConverter;
 import com.syberry.poc.data.service.SavingDataService;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -15,15 +16,58 @@ import org.springframework.stereotype.Service;
  */
 @Service
 @RequiredArgsConstructor
-public class CrashDataConverter implements DocumentTypeConverter {
+public class CrashDataConverter implements DocumentTypeConverter<CrashData> {
   private final SavingDataService savingDataService;
   private final DataConverter dataConverter;
 
+  /**
+   * Converts processed document's rows to CrashData entities.
+   *
+   * @param proceededDocument a stream of processed document's rows.
+   * @param context the upload's ingestion context.
+   * @return a lazy stream of CrashData entities.
+   */
   @Override
-  public int save(List<Map<String, String>> proceededDocument, Document document) {
-    List<CrashData> entities = dataConverter.convertToCrashDataList(proceededDocument, document);
+  public Stream<CrashData> convert(Stream<Row> proceededDocument,
+                                   IngestionContext context) {
+    return proceededDocument.map(documentRow ->
+        dataConverter.convertToCrashData(documentRow, context));
+  }
+
+  /**
+   * Saves a chunk of CrashData entities.
+   *
+   * @param entities a list of CrashData entities.
+   * @return saved entities count.
+   */
+  @Override
+  public int write(List<CrashData> entities) {
     savingDataService.saveCrashData(entities);
     return entities.size();
+  }
 
+  /**
+   * Upserts the document's CrashData entities by their natural key chunk by chunk.
+   *
+   * @param entities a stream of CrashData entities.
+   * @param context the upload's ingestion context.
+   * @return inserted and moved rows count.
+   */
+  @Override
+  public int merge(Stream<CrashData> entities, IngestionContext context) {
+    return savingDataService.mergeCrashData(
+        entities, context.getDocument(), context.getReplacedDocumentId());
+  }
+
+  /**
+   * Loads the document's CrashData entities with the bulk load.
+   *
+   * @param entities a stream of CrashData entities.
+   * @param context the upload's ingestion context.
+   * @return loaded entities count.
+   */
+  @Override
+  public int load(Stream<CrashData> entities, IngestionContext context) {
+    return savingDataService.loadCrashData(entities, context.getDocument());
   }
 }
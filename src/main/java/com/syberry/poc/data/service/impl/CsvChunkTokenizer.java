@@ -0,0 +1,153 @@
+package com.syberry.poc.data.service.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Tokenizer of the CSV document's chunks mapped to memory.
+ * The fields are delimited with commas, the records with LF or CRLF line breaks,
+ * the quoted fields may contain the delimiters and doubled quotes, empty lines are skipped,
+ * as in the commons-csv default format. The quotes, commas and line breaks are single bytes
+ * in the ASCII compatible charsets such as UTF-8, so the chunk is tokenized without decoding.
+ * Input the tokenizer does not handle in the same way as commons-csv, such as quotes inside
+ * an unquoted field or CR line breaks, is reported as malformed.
+ */
+final class CsvChunkTokenizer {
+  private static final byte QUOTE = '"';
+  private static final byte COMMA = ',';
+  private static final byte LINE_FEED = '\n';
+  private static final byte CARRIAGE_RETURN = '\r';
+  private static final int MALFORMED = -1;
+  private static final int INCOMPLETE = -2;
+
+  private CsvChunkTokenizer() {
+  }
+
+  /**
+   * Tokenizes the chunk's records.
+   * If the chunk is not the end of the document, its last record may be cut,
+   * so the chunk's length covers its complete records only.
+   *
+   * @param buffer the chunk's bytes.
+   * @param charset the document's charset.
+   * @param endOfInput whether the chunk ends the document.
+   * @return the tokenized chunk, or null if the chunk is malformed.
+   */
+  static TokenizedCsvChunk tokenize(ByteBuffer buffer, Charset charset, boolean endOfInput) {
+    TokenizedCsvChunk chunk = new TokenizedCsvChunk(buffer, charset);
+    int limit = buffer.limit();
+    int position = 0;
+    while (position < limit) {
+      int lineBreak = lineBreakLength(buffer, position, limit, endOfInput);
+      if (lineBreak == MALFORMED) {
+        return null;
+      } else if (lineBreak == INCOMPLETE) {
+        return chunk;
+      } else if (lineBreak > 0) {
+        position += lineBreak;
+        chunk.skipLine(position);
+        continue;
+      }
+      position = tokenizeRecord(chunk, buffer, position, limit, endOfInput);
+      if (position == MALFORMED) {
+        return null;
+      } else if (position == INCOMPLETE) {
+        chunk.dropIncompleteRecord();
+        return chunk;
+      }
+    }
+    return chunk;
+  }
+
+  /**
+   * Tokenizes the record's fields.
+   *
+   * @param chunk the tokenized chunk the fields are added to.
+   * @param buffer the chunk's bytes.
+   * @param position the record's start offset.
+   * @param limit the chunk's end offset.
+   * @param endOfInput whether the chunk ends the document.
+   * @return the record's end offset, MALFORMED or INCOMPLETE.
+   */
+  private static int tokenizeRecord(TokenizedCsvChunk chunk, ByteBuffer buffer,
+                                    int position, int limit, boolean endOfInput) {
+    while (true) {
+      int start = position;
+      boolean escaped = false;
+      if (position < limit && buffer.get(position) == QUOTE) {
+        start = ++position;
+        while (true) {
+          if (position == limit) {
+            return endOfInput ? MALFORMED : INCOMPLETE;
+          }
+          if (buffer.get(position) == QUOTE) {
+            if (position + 1 < limit && buffer.get(position + 1) == QUOTE) {
+              escaped = true;
+              position += 2;
+              continue;
+            }
+            if (position + 1 == limit && !endOfInput) {
+              return INCOMPLETE;
+            }
+            break;
+          }
+          position++;
+        }
+        chunk.addField(start, position++, escaped);
+      } else {
+        while (position < limit) {
+          byte character = buffer.get(position);
+          if (character == COMMA || character == LINE_FEED || character == CARRIAGE_RETURN) {
+            break;
+          } else if (character == QUOTE) {
+            return MALFORMED;
+          }
+          position++;
+        }
+        chunk.addField(start, position, false);
+      }
+
+      if (position == limit) {
+        if (!endOfInput) {
+          return INCOMPLETE;
+        }
+        chunk.addRecord(position);
+        return position;
+      }
+      if (buffer.get(position) == COMMA) {
+        position++;
+        continue;
+      }
+      int lineBreak = lineBreakLength(buffer, position, limit, endOfInput);
+      if (lineBreak <= 0) {
+        return lineBreak == INCOMPLETE ? INCOMPLETE : MALFORMED;
+      }
+      position += lineBreak;
+      chunk.addRecord(position);
+      return position;
+    }
+  }
+
+  /**
+   * Checks whether the line break starts at the offset.
+   *
+   * @param buffer the chunk's bytes.
+   * @param position the offset.
+   * @param limit the chunk's end offset.
+   * @param endOfInput whether the chunk ends the document.
+   * @return the line break's length, 0 if there is no line break,
+   *     MALFORMED for CR line breaks or INCOMPLETE if the line break is cut.
+   */
+  private static int lineBreakLength(ByteBuffer buffer, int position, int limit,
+                                     boolean endOfInput) {
+    byte character = buffer.get(position);
+    if (character == LINE_FEED) {
+      return 1;
+    } else if (character != CARRIAGE_RETURN) {
+      return 0;
+    } else if (position + 1 < limit) {
+      return buffer.get(position + 1) == LINE_FEED ? 2 : MALFORMED;
+    }
+    return endOfInput ? 1 : INCOMPLETE;
+  }
+}
@@ -0,0 +1,392 @@
+package com.syberry.poc.data.service.impl;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.io.ByteStreams;
+import com.syberry.poc.data.dto.enums.CsvTokenizer;
+import com.syberry.poc.data.model.CsvDocument;
+import com.syberry.poc.data.model.CsvFields;
+import com.syberry.poc.data.service.CsvParsingService;
+import com.syberry.poc.exception.ValidationException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.Setter;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for parsing spooled CSV documents, sequentially or chunk by chunk in parallel,
+ * with commons-csv or with the tokenizer of the memory-mapped document.
+ */
+@Service
+@Setter
+public class CsvParsingServiceImpl implements CsvParsingService {
+  private static final int CHUNKS_PER_THREAD = 2;
+  private static final CSVFormat HEADER_FORMAT = CSVFormat.Builder.create().setHeader().build();
+
+  @Value("${app.ingestion.parsing.tokenizer}")
+  private CsvTokenizer tokenizer;
+
+  @Value("${app.ingestion.parsing.parallel}")
+  private boolean parallelParsing;
+
+  @Value("${app.ingestion.parsing.chunk-size}")
+  private int parsingChunkSize;
+
+  @Autowired
+  private ForkJoinPool parsingForkJoinPool;
+
+  /**
+   * Opens the spooled document in order to read it record by record.
+   * If the parallel parsing is enabled, documents larger than a parsing chunk are split
+   * into chunks at the records boundaries and the chunks are parsed on the ForkJoinPool.
+   * Either way the records are returned in the document's order.
+   *
+   * @param document the spooled document.
+   * @return the document positioned after its header.
+   * @throws IOException if the document cannot be read.
+   */
+  @Override
+  public CsvDocument parseCsvDocument(Path document) throws IOException {
+    boolean parallel = parallelParsing && Files.size(document) > parsingChunkSize;
+    if (tokenizer == CsvTokenizer.MAPPED_BUFFER) {
+      return tokenize(document, parallel);
+    } else if (parallel) {
+      return parseInParallel(document);
+    }
+    return parseCsvDocument(Files.newInputStream(document));
+  }
+
+  /**
+   * Opens the streamed document, such as a decompressed one, in order to read it
+   * record by record. The stream can be read only once, so it is parsed sequentially
+   * with commons-csv whatever the tokenizer is. The stream is closed with the document.
+   *
+   * @param document the document's content.
+   * @return the document positioned after its header.
+   * @throws IOException if the document cannot be read.
+   */
+  @Override
+  public CsvDocument parseCsvDocument(InputStream document) throws IOException {
+    CSVParser csvParser = parseHeader(new InputStreamReader(document));
+    return new CsvDocument(csvParser.getHeaderNames(), records(csvParser));
+  }
+
+  /**
+   * Parses the document's header, then splits the document's records into chunks
+   * and parses them with commons-csv in parallel.
+   * The rest of the document starting from a chunk whose first record does not have
+   * a field per header name, or which cannot be parsed, is parsed sequentially.
+   *
+   * @param document the spooled document.
+   * @return the document with the records of the parsed chunks.
+   * @throws IOException if the document cannot be read.
+   */
+  private CsvDocument parseInParallel(Path document) throws IOException {
+    try (FileChannel channel = FileChannel.open(document)) {
+      long headerEnd = CsvRecordBoundaries.findHeaderEnd(channel);
+      List<String> headerNames = parseHeaderNames(document, headerEnd);
+      long[] boundaries = CsvRecordBoundaries.split(
+          channel, headerEnd, parsingChunkSize, parsingForkJoinPool);
+      return new CsvDocument(headerNames, parseChunks(document, boundaries,
+          (start, end) -> parseChunk(document, start, end, headerNames.size())));
+    }
+  }
+
+  /**
+   * Parses the document's header, then tokenizes the memory-mapped document's records
+   * chunk by chunk, sequentially or in parallel.
+   * The fields are decoded to Strings only when they are requested.
+   * The rest of the document starting from a malformed chunk is parsed with commons-csv.
+   *
+   * @param document the spooled document.
+   * @param parallel whether the chunks are tokenized in parallel.
+   * @return the document with the tokenized records.
+   * @throws IOException if the document cannot be read.
+   */
+  private CsvDocument tokenize(Path document, boolean parallel) throws IOException {
+    FileChannel channel = FileChannel.open(document);
+    try {
+      long headerEnd = CsvRecordBoundaries.findHeaderEnd(channel);
+      List<String> headerNames = parseHeaderNames(document, headerEnd);
+      Stream<CsvFields> records;
+      if (parallel) {
+        long[] boundaries = CsvRecordBoundaries.split(
+            channel, headerEnd, parsingChunkSize, parsingForkJoinPool);
+        records = parseChunks(document, boundaries,
+            (start, end) -> tokenizeChunk(channel, start, end, true));
+      } else {
+        records = tokenizeSequentially(document, channel, headerEnd);
+      }
+      return new CsvDocument(headerNames, records.onClose(() -> close(channel)));
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Tokenizes the document's chunks one by one on the consumer's thread.
+   * Every chunk is cut after its last complete record, so the next chunk starts
+   * at the next record. The chunk is extended if its first record is longer than the chunk.
+   *
+   * @param document the spooled document.
+   * @param channel the document's file channel.
+   * @param start the offset of the first record.
+   * @return a stream of the document's records.
+   * @throws IOException if the document cannot be read.
+   */
+  private Stream<CsvFields> tokenizeSequentially(Path document, FileChannel channel, long start)
+      throws IOException {
+    long size = channel.size();
+    Iterator<Stream<CsvFields>> tokenizedChunks = new AbstractIterator<>() {
+      private long position = start;
+
+      @Override
+      protected Stream<CsvFields> computeNext() {
+        if (position >= size) {
+          return endOfData();
+        }
+        long length = Math.min(size - position, parsingChunkSize);
+        while (true) {
+          boolean endOfInput = position + length == size;
+          TokenizedCsvChunk chunk = tokenizeChunk(channel, position, position + length, endOfInput);
+          if (chunk != null && chunk.getLength() > 0) {
+            position += chunk.getLength();
+            return chunk.stream();
+          } else if (chunk == null || length == Integer.MAX_VALUE) {
+            long remainderStart = position;
+            position = size;
+            return parseRemainder(document, remainderStart);
+          }
+          length = Math.min(size - position, Math.min(length * 2, Integer.MAX_VALUE));
+        }
+      }
+    };
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(tokenizedChunks, Spliterator.ORDERED), false)
+        .flatMap(Function.identity());
+  }
+
+  /**
+   * Parses the document's chunks on the ForkJoinPool.
+   * A bounded number of chunks is parsed ahead of the consumer,
+   * and the records are returned in the document's order.
+   * The rest of the document starting from a malformed chunk is parsed with commons-csv.
+   *
+   * @param document the spooled document.
+   * @param boundaries the chunks boundaries.
+   * @param chunkParser the parser of a single chunk.
+   * @return a stream of the document's records, closing it cancels the chunks in progress.
+   */
+  private Stream<CsvFields> parseChunks(Path document, long[] boundaries,
+                                        ChunkParser chunkParser) {
+    int maxChunksInProgress = parsingForkJoinPool.getParallelism() * CHUNKS_PER_THREAD;
+    Deque<ForkJoinTask<List<CsvFields>>> chunksInProgress = new ArrayDeque<>();
+    Iterator<Stream<CsvFields>> parsedChunks = new AbstractIterator<>() {
+      private int nextChunk;
+      private int parsedChunk;
+
+      @Override
+      protected Stream<CsvFields> computeNext() {
+        while (chunksInProgress.size() < maxChunksInProgress
+            && nextChunk < boundaries.length - 1) {
+          long start = boundaries[nextChunk];
+          long end = boundaries[++nextChunk];
+          chunksInProgress.add(parsingForkJoinPool.submit(() -> chunkParser.parse(start, end)));
+        }
+        ForkJoinTask<List<CsvFields>> chunk = chunksInProgress.poll();
+        if (chunk == null) {
+          return endOfData();
+        }
+        List<CsvFields> records = chunk.join();
+        long start = boundaries[parsedChunk++];
+        if (records != null) {
+          return records.stream();
+        }
+        chunksInProgress.forEach(chunkInProgress -> chunkInProgress.cancel(true));
+        chunksInProgress.clear();
+        nextChunk = boundaries.length - 1;
+        return parseRemainder(document, start);
+      }
+    };
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(parsedChunks, Spliterator.ORDERED), false)
+        .flatMap(Function.identity())
+        .onClose(() -> chunksInProgress.forEach(chunk -> chunk.cancel(true)));
+  }
+
+  /**
+   * Parses the records of the document's byte range with commons-csv.
+   * A range cut inside a record is detected by its first record's fields count
+   * or by its unfinished quoted value.
+   *
+   * @param document the spooled document.
+   * @param start the range's start offset.
+   * @param end the range's end offset.
+   * @param fieldsCount the fields count of the document's header.
+   * @return the range's records, or null if the range does not start with a complete record.
+   */
+  private List<CsvFields> parseChunk(Path document, long start, long end, int fieldsCount) {
+    try (CSVParser csvParser = CSVParser.parse(
+        openRange(document, start, end), CSVFormat.DEFAULT)) {
+      List<CsvFields> records = csvParser.stream()
+          .map(CsvFields::of)
+          .collect(Collectors.toList());
+      return records.isEmpty() || records.get(0).size() == fieldsCount ? records : null;
+    } catch (IOException | UncheckedIOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Parses the records of the document's rest with commons-csv.
+   *
+   * @param document the spooled document.
+   * @param start the offset of the first record to parse.
+   * @return a stream of the records.
+   */
+  private Stream<CsvFields> parseRemainder(Path document, long start) {
+    try {
+      return records(CSVParser.parse(
+          openRange(document, start, Files.size(document)), CSVFormat.DEFAULT));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Tokenizes the records of the memory-mapped document's byte range.
+   *
+   * @param channel the document's file channel.
+   * @param start the range's start offset.
+   * @param end the range's end offset.
+   * @param endOfInput whether the range ends the document.
+   * @return the tokenized chunk, or null if the range is malformed or too long to be mapped.
+   */
+  private TokenizedCsvChunk tokenizeChunk(FileChannel channel, long start, long end,
+                                          boolean endOfInput) {
+    if (end - start > Integer.MAX_VALUE) {
+      return null;
+    }
+    try {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+      return CsvChunkTokenizer.tokenize(buffer, Charset.defaultCharset(), endOfInput);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Parses the header names of the document's header range.
+   *
+   * @param document the spooled document.
+   * @param headerEnd the offset of the first record after the header.
+   * @return the header names.
+   * @throws IOException if the document cannot be read.
+   */
+  private List<String> parseHeaderNames(Path document, long headerEnd) throws IOException {
+    try (CSVParser headerParser = parseHeader(openRange(document, 0, headerEnd))) {
+      return headerParser.getHeaderNames();
+    }
+  }
+
+  /**
+   * Opens parser that reads the document's header.
+   *
+   * @param reader the document's content.
+   * @return CSVParser instance positioned after the document's header.
+   * @throws IOException if the document cannot be read.
+   */
+  private CSVParser parseHeader(Reader reader) throws IOException {
+    try {
+      return new CSVParser(reader, HEADER_FORMAT);
+    } catch (IllegalArgumentException e) {
+      reader.close();
+      throw new ValidationException(String.format("Incorrect header: %s", e));
+    }
+  }
+
+  /**
+   * Returns the parser's records that closes the parser once they are consumed.
+   *
+   * @param csvParser the parser.
+   * @return a stream of the records.
+   */
+  private Stream<CsvFields> records(CSVParser csvParser) {
+    return csvParser.stream()
+        .map(CsvFields::of)
+        .onClose(() -> close(csvParser));
+  }
+
+  /**
+   * Opens reader of the document's byte range.
+   *
+   * @param document the spooled document.
+   * @param start the range's start offset.
+   * @param end the range's end offset.
+   * @return the range's reader.
+   * @throws IOException if the document cannot be read.
+   */
+  private Reader openRange(Path document, long start, long end) throws IOException {
+    InputStream inputStream = Files.newInputStream(document);
+    try {
+      inputStream.skipNBytes(start);
+    } catch (IOException e) {
+      inputStream.close();
+      throw e;
+    }
+    return new InputStreamReader(ByteStreams.limit(inputStream, end - start));
+  }
+
+  /**
+   * Closes the resource once the records are consumed.
+   *
+   * @param resource the parser or the file channel.
+   */
+  private void close(Closeable resource) {
+    try {
+      resource.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Parser of the document's chunk.
+   */
+  @FunctionalInterface
+  private interface ChunkParser {
+    /**
+     * Parses the records of the document's byte range.
+     *
+     * @param start the range's start offset.
+     * @param end the range's end offset.
+     * @return the range's records, or null if the range is malformed.
+     */
+    List<CsvFields> parse(long start, long end);
+  }
+}
@@ -1,120 +1,396 @@
 package com.syberry.poc.data.service.impl;
 
+import static com.syberry.poc.authorization.util.SecurityUtils.getUserDetails;
+
+import com.google.common.base.Throwables;
 import com.syberry.poc.data.converter.DataConverter;
 import com.syberry.poc.data.database.entity.Document;
 import com.syberry.poc.data.database.repository.DocumentRepository;
 import com.syberry.poc.data.dto.UploadReportDto;
+import com.syberry.poc.data.dto.enums.DocumentCompression;
+import com.syberry.poc.data.dto.enums.DocumentStatus;
 import com.syberry.poc.data.dto.enums.DocumentType;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
+import com.syberry.poc.data.dto.enums.InsertMethod;
 import com.syberry.poc.data.dto.enums.Tag;
+import com.syberry.poc.data.model.CsvDocument;
+import com.syberry.poc.data.model.CsvFields;
+import com.syberry.poc.data.model.DocumentTable;
+import com.syberry.poc.data.model.IngestionContext;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.model.UploadJob;
+import com.syberry.poc.data.model.ValueDictionary;
+import com.syberry.poc.data.service.CsvParsingService;
 import com.syberry.poc.data.service.CsvProcessingService;
 import com.syberry.poc.data.service.DataMapperService;
 import com.syberry.poc.data.service.DataProcessingAlgorithmsService;
 import com.syberry.poc.data.service.DocumentConverterService;
 import com.syberry.poc.data.service.DocumentTypeConverter;
+import com.syberry.poc.data.service.RowFingerprintService;
 import com.syberry.poc.data.service.SavingDataService;
 import com.syberry.poc.exception.FileReadingException;
 import com.syberry.poc.exception.ValidationException;
 import com.syberry.poc.user.database.entity.User;
 import com.syberry.poc.user.database.repository.UserRepository;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.util.ArrayList;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 /**
  *  Service for uploaded documents processing.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CsvProcessingServiceImpl implements CsvProcessingService {
+  private static final int DECOMPRESSION_BUFFER_SIZE = 65536;
+  private static final String CSV_EXTENSION = ".csv";
+  private static final String HIDDEN_FILE_PREFIX = ".";
+
   private final DataConverter dataConverter;
-  private final SavingDataService savingDataService;
   private final DataProcessingAlgorithmsService dataProcessingAlgorithmsService;
   private final DataMapperService dataMapperService;
   private final DocumentConverterService documentConverterService;
   private final UserRepository userRepository;
   private final DocumentRepository documentRepository;
+  private final SavingDataService savingDataService;
+  private final CsvParsingService csvParsingService;
+  private final RowFingerprintService rowFingerprintService;
+
+  @Value("${app.ingestion.hash-algorithm}")
+  private HashAlgorithm hashAlgorithm;
+
+  @Value("${app.ingestion.value-dictionary-size}")
+  private int valueDictionarySize;
+
+  @Value("${app.ingestion.insert-method}")
+  private InsertMethod insertMethod;
+
+  @Value("${app.ingestion.append.enabled}")
+  private boolean appendMode;
+
+  @Autowired
+  private Map<DocumentType, DocumentTypeConverter<?>> documentMapConverter;
 
   @Autowired
-  private Map<DocumentType, DocumentTypeConverter> documentMapConverter;
+  private TaskExecutor archiveTaskExecutor;
 
   /**
    *  Process uploaded file then returns uploading report.
+   *  Gzip documents are decompressed while they are parsed, the CSV documents
+   *  of zip archives are processed entry by entry without extracting them.
    *
-   * @param file a file that uploaded via application endpoint.
-   * @return report with uploaded and processed lines counters.
+   * @param spooledFile the spooled document or archive.
+   * @param uploadJob the upload job to report progress to.
+   * @return report with uploaded, processed and skipped because of invalid date lines counters.
    */
-  public UploadReportDto processCsvDocument(MultipartFile file) {
-    String fileName = file.getOriginalFilename().toLowerCase();
-
-    List<CSVRecord> parsedDocument = parseCsvDocument(file);
-    List<Map<String, String>> convertedDocument = documentConverterService
-        .prepareDocumentToProcessing(fileName, parsedDocument);
-    Map<String, List<Tag>> columnsTags = dataMapperService.mapColumns(convertedDocument);
-    List<Map<String, String>> proceededDocument = dataProcessingAlgorithmsService
-        .applyProcessingAlgorithms(convertedDocument, columnsTags);
-
-    User user = getCurrentUser();
-    Document document = dataConverter.convertToDocument(user, parsedDocument.size());
-    documentRepository.save(document);
-    int uploadedDocumentSize = saveDocumentDataByType(fileName, proceededDocument, document);
-
-    return new UploadReportDto(parsedDocument.size(), uploadedDocumentSize);
+  @Override
+  public UploadReportDto processCsvDocument(Path spooledFile, UploadJob uploadJob) {
+    String fileName = uploadJob.getFileName().toLowerCase();
+    try {
+      return switch (DocumentCompression.findByFileName(fileName)) {
+        case ZIP -> processZipArchive(spooledFile, uploadJob);
+        case GZIP -> processDocument(fileName, csvParsingService.parseCsvDocument(
+            new GZIPInputStream(Files.newInputStream(spooledFile), DECOMPRESSION_BUFFER_SIZE)),
+            uploadJob);
+        case NONE -> processDocument(fileName,
+            csvParsingService.parseCsvDocument(spooledFile), uploadJob);
+      };
+    } catch (IOException ioException) {
+      throw new FileReadingException("An error occurred while reading file: ", ioException);
+    } catch (UncheckedIOException uncheckedIoException) {
+      throw new FileReadingException("An error occurred while reading file: ",
+          uncheckedIoException.getCause());
+    }
   }
 
   /**
-   *  Parse document file to in order to prepare it to processing.
+   *  Processes the parsed document then returns its uploading report.
+   *  The document is parsed, processed and saved record by record,
+   *  so it is never held in memory as a whole.
+   *  Repeated cell values are prettified, hashed and mapped to enums once per upload.
+   *  In the append mode the rows ingested before are skipped before they are converted.
+   *  The processed rows are closed whether the document is saved or not,
+   *  so the resources held by the cleaning, like the pushdown's staging connection, are released.
    *
-   * @param file a document file.
-   * @return list of CSVRecord instances with document's rows inside.
+   * @param fileName the document's file name in lower case.
+   * @param parsedDocument the parsed document, it is closed once it is processed.
+   * @param uploadJob the upload job to report progress to.
+   * @return report with uploaded, processed and skipped because of invalid date lines counters.
    */
-  private List<CSVRecord> parseCsvDocument(MultipartFile file) {
-    try (Reader reader = new InputStreamReader(file.getInputStream())) {
-      CSVFormat csvFormat = CSVFormat.Builder.create().setHeader().build();
-      CSVParser csvParser = new CSVParser(reader, csvFormat);
+  private UploadReportDto processDocument(String fileName, CsvDocument parsedDocument,
+                                          UploadJob uploadJob) {
+    try (CsvDocument csvDocument = parsedDocument) {
+      DocumentType documentType = getDocumentType(fileName);
+      DocumentTypeConverter<?> documentTypeConverter = documentMapConverter.get(documentType);
+      Stream<CsvFields> documentData = csvDocument.getRecords()
+          .peek(row -> uploadJob.incrementProcessedRows());
+      DocumentTable convertedDocument = documentConverterService
+          .prepareDocumentToProcessing(fileName, csvDocument.getHeaderNames(), documentData);
+      Map<String, List<Tag>> columnsTags = dataMapperService
+          .mapColumns(convertedDocument.getSchema());
+      ValueDictionary valueDictionary = new ValueDictionary(hashAlgorithm, valueDictionarySize);
+      DocumentTable proceededDocument = dataProcessingAlgorithmsService
+          .applyProcessingAlgorithms(convertedDocument, columnsTags, valueDictionary);
 
-      return new ArrayList<>(csvParser.getRecords());
-    } catch (IOException ioException) {
-      throw new FileReadingException("An error occurred while reading file: ", ioException);
-    } catch (IllegalArgumentException e) {
-      throw new ValidationException(String.format("Incorrect header: %s", e));
+      User user = getCurrentUser();
+      Document document = dataConverter.convertToDocument(user, 0, hashAlgorithm);
+      documentRepository.save(document);
+      uploadJob.addDocumentId(document.getId());
+      IngestionContext context = new IngestionContext(document, valueDictionary);
+      context.setReplacedDocumentId(uploadJob.getReplacedDocumentId());
+      int uploadedDocumentSize;
+      try (Stream<Row> rows = appendMode
+          ? rowFingerprintService.filterNewRows(proceededDocument.getRows(), documentType, context)
+          : proceededDocument.getRows()) {
+        uploadedDocumentSize =
+            saveDocumentData(documentTypeConverter, documentType, rows, context);
+      }
+
+      int parsedDocumentSize = (int) csvDocument.getRecordNumber();
+      int invalidDateRows = context.getInvalidDateRows().get();
+      document.setProcessedRows(parsedDocumentSize);
+      document.setRecordedRows(uploadedDocumentSize);
+      document.setInvalidDateRows(invalidDateRows);
+      document.setStatus(DocumentStatus.COMPLETE);
+      documentRepository.save(document);
+      if (context.getReplacedDocumentId() != null) {
+        markReplacedDocument(context.getReplacedDocumentId());
+      }
+      return new UploadReportDto(parsedDocumentSize, uploadedDocumentSize, invalidDateRows);
     }
   }
 
   /**
-   * Gets current authorized user's entity.
+   *  Marks the document replaced by the corrected one, once its rows are moved or deleted.
+   *  The replaced document's content hash is cleared, so its content can be uploaded again.
    *
-   * @return a User entity.
+   * @param replacedDocumentId the id of the replaced document.
    */
-  private User getCurrentUser() {
-    return userRepository.findByIdIfExists((long) 1);
+  private void markReplacedDocument(Long replacedDocumentId) {
+    documentRepository.findById(replacedDocumentId).ifPresent(replacedDocument -> {
+      replacedDocument.setStatus(DocumentStatus.REPLACED);
+      replacedDocument.setRecordedRows(0);
+      replacedDocument.setContentHash(null);
+      documentRepository.save(replacedDocument);
+    });
+  }
+
+  /**
+   *  Processes the CSV documents of the zip archive.
+   *  The documents are grouped by their type, the groups are saved to different tables,
+   *  so they are processed concurrently, while the documents of a group are processed
+   *  one by one. Every document is decompressed while it is parsed.
+   *
+   * @param spooledFile the spooled archive.
+   * @param uploadJob the upload job to report progress to.
+   * @return the sum of the documents' reports.
+   * @throws IOException if the archive cannot be read.
+   */
+  private UploadReportDto processZipArchive(Path spooledFile, UploadJob uploadJob)
+      throws IOException {
+    try (ZipFile zipFile = new ZipFile(spooledFile.toFile())) {
+      Map<DocumentType, List<ZipEntry>> entriesByType = zipFile.stream()
+          .map(ZipEntry.class::cast)
+          .filter(this::isDocumentEntry)
+          .collect(Collectors.groupingBy(
+              entry -> DocumentType.findByFileName(getEntryFileName(entry)),
+              () -> new EnumMap<>(DocumentType.class), Collectors.toList()));
+      if (entriesByType.isEmpty()) {
+        throw new ValidationException("Archive contains no supported documents");
+      }
+
+      Executor executor = new DelegatingSecurityContextExecutor(archiveTaskExecutor);
+      List<CompletableFuture<UploadReportDto>> reports = entriesByType.values().stream()
+          .map(entries -> CompletableFuture.supplyAsync(
+              () -> processZipEntries(zipFile, entries, uploadJob), executor))
+          .collect(Collectors.toList());
+      CompletableFuture.allOf(reports.toArray(CompletableFuture[]::new))
+          .exceptionally(e -> null)
+          .join();
+      try {
+        return reports.stream()
+            .map(CompletableFuture::join)
+            .reduce(new UploadReportDto(), this::sumReports);
+      } catch (CompletionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw e;
+      }
+    }
+  }
+
+  /**
+   *  Processes the archive's documents one by one.
+   *
+   * @param zipFile the archive.
+   * @param entries the archive's documents of the same type.
+   * @param uploadJob the upload job to report progress to.
+   * @return the sum of the documents' reports.
+   */
+  private UploadReportDto processZipEntries(ZipFile zipFile, List<ZipEntry> entries,
+                                            UploadJob uploadJob) {
+    UploadReportDto report = new UploadReportDto();
+    for (ZipEntry entry : entries) {
+      try {
+        report = sumReports(report, processDocument(getEntryFileName(entry),
+            csvParsingService.parseCsvDocument(zipFile.getInputStream(entry)), uploadJob));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return report;
+  }
+
+  /**
+   *  Checks that the archive's entry is a CSV document of the supported type.
+   *  Other entries, like directories and hidden files, are skipped.
+   *
+   * @param entry the archive's entry.
+   * @return true if the entry is processed.
+   */
+  private boolean isDocumentEntry(ZipEntry entry) {
+    String fileName = getEntryFileName(entry);
+    if (entry.isDirectory() || fileName.startsWith(HIDDEN_FILE_PREFIX)
+        || !fileName.endsWith(CSV_EXTENSION)) {
+      return false;
+    }
+    if (DocumentType.findByFileName(fileName) == null) {
+      log.warn("Archived document {} of unsupported type is skipped", entry.getName());
+      return false;
+    }
+    return true;
   }
 
-  private int saveDocumentDataByType(
-      String fileName, List<Map<String, String>> proceededDocument,
-      Document document) {
-    String convertExceptionMessage = "Document type is not supported";
-    DocumentType documentType = null;
-    for (DocumentType type : DocumentType.values()) {
-      if (fileName.contains(type.getType())) {
-        documentType = type;
-        break;
+  /**
+   *  Returns the archive's entry file name without its directory.
+   *
+   * @param entry the archive's entry.
+   * @return the entry's file name in lower case.
+   */
+  private String getEntryFileName(ZipEntry entry) {
+    String name = entry.getName();
+    return name.substring(name.lastIndexOf('/') + 1).toLowerCase();
+  }
+
+  /**
+   *  Sums the counters of the documents' reports.
+   *
+   * @param report the first report.
+   * @param other the second report.
+   * @return the report with the summed counters.
+   */
+  private UploadReportDto sumReports(UploadReportDto report, UploadReportDto other) {
+    return new UploadReportDto(report.getProcessedLines() + other.getProcessedLines(),
+        report.getRecordedLines() + other.getRecordedLines(),
+        report.getInvalidDateLines() + other.getInvalidDateLines());
+  }
+
+  /**
+   *  Saves processed document's data.
+   *  Every row is converted once and the entities are written chunk by chunk,
+   *  or bulk loaded in one transaction if the LOAD_DATA insert method is set,
+   *  or upserted chunk by chunk by their natural key if the MERGE insert method is set.
+   *  In the append mode only the new rows are left, so they are written chunk by chunk
+   *  whatever the insert method is, and the fingerprints of the chunk's rows are stored
+   *  in the chunk's transaction. If saving fails the document is marked as failed
+   *  and its already committed data can be cleaned up.
+   *
+   * @param documentTypeConverter the converter for the document type.
+   * @param documentType the document's type.
+   * @param proceededDocument a stream of processed document's rows.
+   * @param context the upload's ingestion context.
+   * @param <T> the type of the document's data entities.
+   * @return saved rows count.
+   */
+  private <T> int saveDocumentData(DocumentTypeConverter<T> documentTypeConverter,
+                                   DocumentType documentType,
+                                   Stream<Row> proceededDocument,
+                                   IngestionContext context) {
+    Document document = context.getDocument();
+    try {
+      Stream<T> entities = documentTypeConverter.convert(proceededDocument, context);
+      if (appendMode) {
+        return appendDocumentData(documentTypeConverter, documentType, entities, context);
       }
+      if (insertMethod == InsertMethod.LOAD_DATA) {
+        return documentTypeConverter.load(entities, context);
+      }
+      if (insertMethod == InsertMethod.MERGE) {
+        return documentTypeConverter.merge(entities, context);
+      }
+      return savingDataService.saveInChunks(entities, documentTypeConverter::write);
+    } catch (RuntimeException e) {
+      document.setStatus(DocumentStatus.FAILED);
+      documentRepository.save(document);
+      throw e;
     }
+  }
+
+  /**
+   *  Writes the entities of the document's new rows chunk by chunk.
+   *  A chunk is taken from the stream before its transaction, so the pending fingerprints
+   *  are the ones of the chunk's rows. The fingerprints of the trailing rows
+   *  without entities are stored once the document is written.
+   *
+   * @param documentTypeConverter the converter for the document type.
+   * @param documentType the document's type.
+   * @param entities a stream of the new rows' entities.
+   * @param context the upload's ingestion context.
+   * @param <T> the type of the document's data entities.
+   * @return saved rows count.
+   */
+  private <T> int appendDocumentData(DocumentTypeConverter<T> documentTypeConverter,
+                                     DocumentType documentType, Stream<T> entities,
+                                     IngestionContext context) {
+    int savedRows = savingDataService.saveInChunks(entities, chunk -> {
+      rowFingerprintService.recordFingerprints(documentType, context);
+      return documentTypeConverter.write(chunk);
+    });
+    rowFingerprintService.recordFingerprints(documentType, context);
+    return savedRows;
+  }
 
+  /**
+   * Gets current authorized user's entity.
+   * Upload jobs run with the security context of the user who submitted them.
+   *
+   * @return a User entity.
+   */
+  private User getCurrentUser() {
+    return userRepository.findByIdIfExists(getUserDetails().getId());
+  }
+
+  /**
+   * Returns the document type based on the uploaded file name.
+   *
+   * @param fileName an uploaded file name.
+   * @return the supported document type.
+   */
+  private DocumentType getDocumentType(String fileName) {
+    DocumentType documentType = DocumentType.findByFileName(fileName);
     if (documentType == null) {
-      throw new ValidationException(convertExceptionMessage);
+      throw new ValidationException("Document type is not supported");
     }
 
-    return documentMapConverter.get(documentType).save(proceededDocument, document);
+    return documentType;
   }
 }
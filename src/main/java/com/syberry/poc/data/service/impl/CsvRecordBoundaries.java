@@ -0,0 +1,168 @@
+package com.syberry.poc.data.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Finds the records boundaries of a CSV document, so its byte ranges can be parsed separately.
+ * A line break ends a record unless it is inside a quoted value. As in the commons-csv default
+ * format, a quote opens a quoted value only at the start of a field, a quote inside an unquoted
+ * value is a plain character, and the doubled quotes of a quoted value are escaped quotes.
+ * The scanner's state at a byte depends on the bytes before it, so every chunk of the document
+ * is scanned in parallel from each of the states, then the chunks' final states are chained
+ * from the document's start and every chunk's start is moved forward to the first line break
+ * outside the quotes.
+ * The quotes, commas and line breaks are single bytes in the ASCII compatible charsets
+ * such as UTF-8.
+ */
+final class CsvRecordBoundaries {
+  private static final byte QUOTE = '"';
+  private static final byte COMMA = ',';
+  private static final byte LINE_FEED = '\n';
+  private static final byte CARRIAGE_RETURN = '\r';
+  private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+  // The scanner's states.
+  private static final int FIELD_START = 0;
+  private static final int UNQUOTED = 1;
+  private static final int QUOTED = 2;
+  private static final int QUOTE_IN_QUOTED = 3;
+  private static final int STATES = 4;
+  // The next states by the state and the quote, the separator or another byte.
+  private static final int[][] TRANSITIONS = {
+      {QUOTED, FIELD_START, UNQUOTED},
+      {UNQUOTED, FIELD_START, UNQUOTED},
+      {QUOTE_IN_QUOTED, QUOTED, QUOTED},
+      {QUOTED, FIELD_START, UNQUOTED}};
+  private static final int QUOTE_CLASS = 0;
+  private static final int SEPARATOR_CLASS = 1;
+  private static final int OTHER_CLASS = 2;
+
+  private CsvRecordBoundaries() {
+  }
+
+  /**
+   * Finds the end of the document's header record.
+   *
+   * @param channel the document's file channel.
+   * @return the offset of the first record after the header.
+   * @throws IOException if the document cannot be read.
+   */
+  static long findHeaderEnd(FileChannel channel) throws IOException {
+    return findRecordStart(channel, 0, FIELD_START);
+  }
+
+  /**
+   * Splits the document's records into chunks of about the chunk size.
+   *
+   * @param channel the document's file channel.
+   * @param start the offset of the first record.
+   * @param chunkSize the chunk size in bytes.
+   * @param forkJoinPool the pool to scan the chunks on.
+   * @return the ascending chunks boundaries from the first record's offset
+   *     to the document's size.
+   * @throws IOException if the document cannot be read.
+   */
+  static long[] split(FileChannel channel, long start, int chunkSize, ForkJoinPool forkJoinPool)
+      throws IOException {
+    long size = channel.size();
+    List<ForkJoinTask<int[]>> chunkTransitions = new ArrayList<>();
+    for (long chunkStart = start; chunkStart < size; chunkStart += chunkSize) {
+      long from = chunkStart;
+      long to = Math.min(size, chunkStart + chunkSize);
+      chunkTransitions.add(forkJoinPool.submit(() -> scanTransitions(channel, from, to)));
+    }
+
+    long[] boundaries = new long[chunkTransitions.size() + 1];
+    boundaries[0] = start;
+    int boundariesCount = 1;
+    int state = FIELD_START;
+    for (int chunk = 1; chunk < chunkTransitions.size(); chunk++) {
+      state = chunkTransitions.get(chunk - 1).join()[state];
+      long boundary = findRecordStart(channel, start + (long) chunk * chunkSize, state);
+      if (boundary > boundaries[boundariesCount - 1] && boundary < size) {
+        boundaries[boundariesCount++] = boundary;
+      }
+    }
+    if (boundaries[boundariesCount - 1] < size) {
+      boundaries[boundariesCount++] = size;
+    }
+    return Arrays.copyOf(boundaries, boundariesCount);
+  }
+
+  /**
+   * Scans the document's byte range from each of the scanner's states.
+   *
+   * @param channel the document's file channel.
+   * @param from the range's start offset.
+   * @param to the range's end offset.
+   * @return the states after the range by the states before it.
+   */
+  private static int[] scanTransitions(FileChannel channel, long from, long to) {
+    try {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+      int[] states = new int[STATES];
+      for (int state = 0; state < STATES; state++) {
+        states[state] = state;
+      }
+      for (int i = 0; i < buffer.limit(); i++) {
+        int byteClass = classify(buffer.get(i));
+        for (int state = 0; state < STATES; state++) {
+          states[state] = TRANSITIONS[states[state]][byteClass];
+        }
+      }
+      return states;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Finds the start of the first record after the offset.
+   *
+   * @param channel the document's file channel.
+   * @param offset the offset to start from.
+   * @param state the scanner's state at the offset.
+   * @return the offset after the first line break outside the quotes,
+   *     or the document's size if there is no such line break.
+   * @throws IOException if the document cannot be read.
+   */
+  private static long findRecordStart(FileChannel channel, long offset, int state)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+    long position = offset;
+    while (channel.read(buffer.clear(), position) > 0) {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        byte character = buffer.get();
+        position++;
+        if (character == LINE_FEED && state != QUOTED) {
+          return position;
+        }
+        state = TRANSITIONS[state][classify(character)];
+      }
+    }
+    return position;
+  }
+
+  /**
+   * Returns the class of the byte the scanner's transitions depend on.
+   *
+   * @param character the document's byte.
+   * @return the quote, the separator or the other byte class.
+   */
+  private static int classify(byte character) {
+    if (character == QUOTE) {
+      return QUOTE_CLASS;
+    }
+    return character == COMMA || character == LINE_FEED || character == CARRIAGE_RETURN
+        ? SEPARATOR_CLASS : OTHER_CLASS;
+  }
+}
@@ -2,6 +2,7 @@ package com.syberry.poc.data.service.impl;
 
 import com.syberry.poc.data.dto.enums.Column;
 import com.syberry.poc.data.dto.enums.Tag;
+import com.syberry.poc.data.model.ColumnSchema;
 import com.syberry.poc.data.service.DataMapperService;
 import java.util.Collections;
 import java.util.List;
@@ -20,12 +21,13 @@ public class DataMapperServiceImpl implements DataMapperService {
   /**
    * Returns accordance of columns to processing tags.
    *
-   * @param documentData a list of document's rows.
+   * @param schema the document's columns schema.
    * @return the tags map to document's headers.
    */
   @Override
-  public Map<String, List<Tag>> mapColumns(List<Map<String, String>> documentData) {
-    return documentData.get(0).keySet().stream()
+  public Map<String, List<Tag>> mapColumns(ColumnSchema schema) {
+    return schema.getColumnNames().stream()
+      .distinct()
       .collect(Collectors.toMap(
         Function.identity(),
         columnName -> {
@@ -1,17 +1,34 @@
 package com.syberry.poc.data.service.impl;
 
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.syberry.poc.data.database.repository.BulkLoadRepository;
+import com.syberry.poc.data.database.repository.BulkLoadRepository.RawStagingTable;
+import com.syberry.poc.data.database.repository.BulkLoadRepository.StagedRow;
 import com.syberry.poc.data.dto.enums.Tag;
+import com.syberry.poc.data.model.ColumnSchema;
+import com.syberry.poc.data.model.DocumentTable;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.model.ValueDictionary;
 import com.syberry.poc.data.service.DataProcessingAlgorithmsService;
-import com.syberry.poc.data.util.PatternConstants;
 import com.syberry.poc.exception.DateProcessingException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.Setter;
-import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -21,194 +38,171 @@ import org.springframework.stereotype.Service;
 @Setter
 public class DataProcessingAlgorithmsServiceImpl implements DataProcessingAlgorithmsService {
   private static final int MINIMAL_ROWS_LIMIT = 100;
-  private static final String STRING_NULL_VALUE = "No_Data";
-  private static final String INTEGER_NULL_VALUE = "0";
+  private static final int CHUNKS_PER_THREAD = 2;
+  private static final String STAGING_TABLE_PREFIX = "cleaning_";
 
+  @Value("${app.ingestion.cleaning.parallel}")
+  private boolean parallelCleaning;
+
+  @Value("${app.ingestion.cleaning.chunk-size}")
+  private int cleaningChunkSize;
+
+  @Value("${app.ingestion.cleaning.pushdown}")
+  private boolean cleaningPushdown;
+
+  @Autowired
+  private ForkJoinPool cleaningForkJoinPool;
+
+  @Autowired
+  private BulkLoadRepository bulkLoadRepository;
 
   /**
    * Common method that calls processing methods needed based on the columns tags.
+   * The tags are compiled to the processing plan once per document.
+   * The first rows are read ahead in order to check the document's minimal size,
+   * the rest of the document is processed lazily row by row, or chunk by chunk
+   * in parallel if the parallel cleaning is enabled.
+   * If the cleaning pushdown is enabled, the document is cleaned in the database instead.
    *
-   * @param documentData a list of document's rows.
+   * @param documentData the document's table.
    * @param tags a map of processing tags to document's headers.
-   * @return processed document in the list of rows representation.
+   * @param valueDictionary the upload's dictionary of the cell values.
+   * @return processed document's table with the lazy stream of rows.
    */
   @Override
-  public List<Map<String, String>> applyProcessingAlgorithms(
-      List<Map<String, String>> documentData, Map<String, List<Tag>> tags) {
-    int filledRowsNum = countFilledRows(documentData);
-    List<Map<String, String>> proceededData;
-    if (filledRowsNum >= MINIMAL_ROWS_LIMIT) {
-      proceededData = proceedTableColumns(reformatNullValues(
-          clearTableRows(documentData, tags), tags), tags);
-    } else {
-      throw new DateProcessingException(
-          "Number of loaded rows is less than the minimum allowed. Number of provided rows: "
-              + filledRowsNum + " ,minimum allowable number of rows: " + MINIMAL_ROWS_LIMIT);
+  public DocumentTable applyProcessingAlgorithms(
+      DocumentTable documentData, Map<String, List<Tag>> tags,
+      ValueDictionary valueDictionary) {
+    if (cleaningPushdown) {
+      return cleanInDatabase(documentData, tags, valueDictionary);
     }
-    return proceededData;
-  }
-
-  /**
-   * Checks if all columns with the Obligatory tag are filled.
-   *
-   * @param row  to check.
-   * @param tags a map of processing tags to document's headers.
-   * @return true if all Obligatory columns are filled and false otherwise.
-   */
-  private boolean isObligatoryColumnsFulfilled(
-      Map<String, String> row, Map<String, List<Tag>> tags) {
-    for (Map.Entry<String, List<Tag>> entry : tags.entrySet()) {
-      String columnName = entry.getKey();
-      List<Tag> columnTags = entry.getValue();
-      boolean isObligatory = columnTags
-          .stream()
-          .anyMatch(tag -> tag == Tag.OBLIGATORY);
-      if (isObligatory && (StringUtils.isBlank(row.get(columnName))
-          || row.get(columnName).equals(INTEGER_NULL_VALUE)
-          || row.get(columnName).equals(STRING_NULL_VALUE))) {
-        return false;
-      }
+    Iterator<Row> iterator = documentData.getRows().iterator();
+    List<Row> leadingRows = readLeadingRows(iterator);
+    checkRowsNumber(leadingRows.size());
+    Stream<Row> remainingRows = StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    ColumnProcessingPlan processingPlan = ColumnProcessingPlan.compile(
+        documentData.getSchema(), tags, valueDictionary);
+    Stream<Row> rows = Stream.concat(leadingRows.stream(), remainingRows);
+    if (parallelCleaning) {
+      return documentData.withRows(cleanInParallel(rows, processingPlan));
     }
-    return true;
+    return documentData.withRows(rows.filter(processingPlan::process));
   }
 
   /**
-   * Clears the table based on the column tags.
+   * Stages the document's raw rows in the database and cleans them
+   * with the set-based statements of the compiled cleaning plan.
+   * The cleaned rows are read back lazily by pages of the cleaning chunk size.
+   * The staging table is temporary, it is held by its own connection until the rows are read
+   * or the returned rows are closed, so the caller must close them.
+   * The document's chunks are written with another connection meanwhile,
+   * so a pushdown upload holds two connections of the pool.
    *
-   * @param documentData a list of document's rows.
-   * @param tags         a map of processing tags to document's headers.
-   * @return cleared document in the list of rows representation.
+   * @param documentData the document's table.
+   * @param tags a map of processing tags to document's headers.
+   * @param valueDictionary the upload's dictionary of the cell values.
+   * @return processed document's table with the lazy stream of rows.
    */
-  private List<Map<String, String>> clearTableRows(
-      List<Map<String, String>> documentData, Map<String, List<Tag>> tags) {
-    List<String> columnsToRemove = new ArrayList<>();
-    for (String columnName : documentData.get(0).keySet()) {
-      if (!tags.containsKey(columnName)) {
-        columnsToRemove.add(columnName);
+  private DocumentTable cleanInDatabase(
+      DocumentTable documentData, Map<String, List<Tag>> tags,
+      ValueDictionary valueDictionary) {
+    ColumnSchema schema = documentData.getSchema();
+    SqlCleaningPlan cleaningPlan = SqlCleaningPlan.compile(schema, tags);
+    String stagingTable = STAGING_TABLE_PREFIX + UUID.randomUUID().toString().replace("-", "");
+    RawStagingTable rawStagingTable = bulkLoadRepository.stageRawRows(stagingTable,
+        cleaningPlan.getStagedColumnNames(),
+        documentData.getRows().map(cleaningPlan::toStagedValues));
+    try {
+      checkRowsNumber(rawStagingTable.getStagedRows());
+      for (SqlCleaningPlan.Statement statement : cleaningPlan.getStatements(stagingTable)) {
+        rawStagingTable.executeStatement(statement.sql(), statement.parameters());
       }
+    } catch (RuntimeException e) {
+      rawStagingTable.close();
+      throw e;
     }
-    for (String columnName : columnsToRemove) {
-      deleteColumn(documentData, columnName);
-    }
-    return documentData;
-  }
+    Iterator<List<StagedRow>> pages = new AbstractIterator<>() {
+      private long lastRecordNumber;
 
-  /**
-   * Deletes column from document based on the passed column name.
-   *
-   * @param documentData a list of document's rows.
-   * @param columnName   a column name to delete from the document.
-   */
-  private void deleteColumn(List<Map<String, String>> documentData, String columnName) {
-    for (Map<String, String> row : documentData) {
-      row.remove(columnName);
-    }
-  }
-
-  /**
-   * Applies data processing algorithms based on the columns tags.
-   *
-   * @param documentData a list of document's rows.
-   * @param tags a map of processing tags to document's headers.
-   * @return processed document in the list of rows representation.
-   */
-  private List<Map<String, String>> proceedTableColumns(
-      List<Map<String, String>> documentData, Map<String, List<Tag>> tags) {
-    Iterator<Map<String, String>> iterator = documentData.iterator();
-    while (iterator.hasNext()) {
-      Map<String, String> row = iterator.next();
-      if (!isObligatoryColumnsFulfilled(row, tags)) {
-        iterator.remove();
-      } else {
-        for (Map.Entry<String, String> entry : row.entrySet()) {
-          String columnName = entry.getKey();
-          String columnValue = entry.getValue();
-          if (tags.containsKey(columnName) && tags.get(columnName).contains(Tag.STRING)) {
-            row.put(columnName, prettifyStringData(columnValue));
-          } else if (tags.containsKey(columnName) && tags.get(columnName).contains(Tag.TIME)) {
-            if (containsNumeric(columnValue)) {
-              if (Integer.parseInt(columnValue) > 2400 || Integer.parseInt(columnValue) < 0) {
-                iterator.remove();
-              }
-            } else {
-              iterator.remove();
-            }
-          } else if (tags.containsKey(columnName) && tags.get(columnName).contains(Tag.INT)) {
-            if (!containsNumeric(columnValue)) {
-              iterator.remove();
-            }
-          }
+      @Override
+      protected List<StagedRow> computeNext() {
+        List<StagedRow> page =
+            rawStagingTable.findStagedRows(lastRecordNumber, cleaningChunkSize);
+        if (page.isEmpty()) {
+          rawStagingTable.close();
+          return endOfData();
         }
+        lastRecordNumber = page.get(page.size() - 1).recordNumber();
+        return page;
       }
-    }
-    return documentData;
+    };
+    return documentData.withRows(StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED), false)
+        .flatMap(List::stream)
+        .map(stagedRow -> cleaningPlan.toRow(schema, stagedRow.values(), valueDictionary))
+        .onClose(rawStagingTable::close));
   }
 
   /**
-   * Counts the number of filled rows in the given document.
+   * Checks that the document has the minimal allowed number of rows.
    *
-   * @param documentData a list of document's rows.
-   * @return number of filled rows.
+   * @param filledRowsNum the number of the document's rows.
+   * @throws DateProcessingException if the document has less rows than allowed.
    */
-  private int countFilledRows(List<Map<String, String>> documentData) {
-    int numFilledRows = 0;
-    for (Map<String, String> ignored : documentData) {
-      numFilledRows++;
+  private void checkRowsNumber(int filledRowsNum) {
+    if (filledRowsNum < MINIMAL_ROWS_LIMIT) {
+      throw new DateProcessingException(
+          "Number of loaded rows is less than the minimum allowed. Number of provided rows: "
+              + filledRowsNum + " ,minimum allowable number of rows: " + MINIMAL_ROWS_LIMIT);
     }
-    return numFilledRows;
   }
 
   /**
-   * Sets correct null values based on the column tags.
+   * Splits the document's rows into chunks and cleans them on the ForkJoinPool.
+   * A bounded number of chunks is processed ahead of the consumer,
+   * and the remaining rows are returned in the original order.
    *
-   * @param documentData a list of document's rows.
-   * @param tags a map of processing tags to document's headers.
-   * @return processed document in the list of rows representation.
+   * @param rows a stream of document's rows.
+   * @param processingPlan the document's processing plan.
+   * @return a stream of the processed rows.
    */
-  private List<Map<String, String>> reformatNullValues(
-      List<Map<String, String>> documentData, Map<String, List<Tag>> tags) {
-    for (Map<String, String> row : documentData) {
-      for (Map.Entry<String, String> cell : row.entrySet()) {
-        String columnName = cell.getKey();
-        String cellValue = cell.getValue();
-        List<Tag> columnTags = tags.get(columnName);
-        if (cellValue.equalsIgnoreCase("null") || cellValue.isEmpty()
-            || cellValue.equalsIgnoreCase("n/a")) {
-          if (columnTags.contains(Tag.STRING)) {
-            cell.setValue(STRING_NULL_VALUE);
-          } else if (columnTags.contains(Tag.INT)) {
-            cell.setValue(INTEGER_NULL_VALUE);
-          }
+  private Stream<Row> cleanInParallel(
+      Stream<Row> rows, ColumnProcessingPlan processingPlan) {
+    Iterator<List<Row>> chunks = Iterators.partition(
+        rows.iterator(), cleaningChunkSize);
+    int maxChunksInProgress = cleaningForkJoinPool.getParallelism() * CHUNKS_PER_THREAD;
+    Iterator<List<Row>> cleanedChunks = new AbstractIterator<>() {
+      private final Deque<ForkJoinTask<List<Row>>> chunksInProgress = new ArrayDeque<>();
+
+      @Override
+      protected List<Row> computeNext() {
+        while (chunksInProgress.size() < maxChunksInProgress && chunks.hasNext()) {
+          List<Row> chunk = chunks.next();
+          chunksInProgress.add(cleaningForkJoinPool.submit(() -> chunk.stream()
+              .filter(processingPlan::process)
+              .collect(Collectors.toList())));
         }
+        ForkJoinTask<List<Row>> cleanedChunk = chunksInProgress.poll();
+        return cleanedChunk == null ? endOfData() : cleanedChunk.join();
       }
-    }
-    return documentData;
-  }
-
-  /**
-   * Checks if the value contains only numbers.
-   *
-   * @param value to check.
-   * @return true if the value matches the pattern and false otherwise.
-   */
-  private boolean containsNumeric(String value) {
-    return value.matches(PatternConstants.NUMERIC_PATTERN);
+    };
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(cleanedChunks, Spliterator.ORDERED), false)
+        .flatMap(List::stream);
   }
 
   /**
-   * Converts a string value into a prettified version by capitalizing
-   *    each word and separating them with underscores.
+   * Reads up to the minimal allowed number of rows from the document.
    *
-   * @param value to convert.
-   * @return converted string value.
+   * @param iterator the document's rows iterator.
+   * @return the list of read rows.
    */
-  private String prettifyStringData(String value) {
-    if (!value.isEmpty()) {
-      return Arrays.stream(value.trim().split(PatternConstants.SPACES_PATTERN))
-          .map(word -> word.substring(0, 1).toUpperCase() + word.substring(1).toLowerCase())
-          .collect(Collectors.joining("_"));
-    } else {
-      return value;
+  private List<Row> readLeadingRows(Iterator<Row> iterator) {
+    List<Row> leadingRows = new ArrayList<>(MINIMAL_ROWS_LIMIT);
+    while (leadingRows.size() < MINIMAL_ROWS_LIMIT && iterator.hasNext()) {
+      leadingRows.add(iterator.next());
     }
+    return leadingRows;
   }
 }
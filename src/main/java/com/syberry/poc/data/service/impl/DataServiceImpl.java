@@ -5,6 +5,7 @@ import com.syberry.poc.data.database.repository.CrashDataRepository;
 import com.syberry.poc.data.database.repository.DocumentRepository;
 import com.syberry.poc.data.database.repository.PedestrianBicyclistRepository;
 import com.syberry.poc.data.database.repository.PedestrianBicyclistValuesRepository;
+import com.syberry.poc.data.database.repository.RowFingerprintRepository;
 import com.syberry.poc.data.database.repository.TrafficRepository;
 import com.syberry.poc.data.dto.CrashDataDto;
 import com.syberry.poc.data.dto.CrashDataFilter;
@@ -36,6 +37,7 @@ public class DataServiceImpl implements DataService {
   private final PedestrianBicyclistRepository pedestrianBicyclistRepository;
   private final PedestrianBicyclistValuesRepository pedestrianBicyclistValuesRepository;
   private final CrashDataRepository crashDataRepository;
+  private final RowFingerprintRepository rowFingerprintRepository;
   private final DataConverter dataConverter;
   private final TrafficSpecification trafficSpecification;
   private final CrashDataSpecification crashDataSpecification;
@@ -125,6 +127,8 @@ public class DataServiceImpl implements DataService {
 
   /**
    * Deletes traffic data with provided document id from the repository.
+   * The fingerprints of the document's rows and the content hash of its upload
+   * are cleared too, so the rows are ingested again by the next upload.
    *
    * @param id the id of the document to delete
    */
@@ -133,10 +137,14 @@ public class DataServiceImpl implements DataService {
   public void deleteTrafficByDocumentId(Long id) {
     trafficRepository.existsByDocumentIdOrThrow(id);
     trafficRepository.deleteByDocumentId(id);
+    rowFingerprintRepository.deleteByDocumentId(id);
+    clearContentHash(id);
   }
 
   /**
    * Deletes crash data with provided document id from the repository.
+   * The fingerprints of the document's rows and the content hash of its upload
+   * are cleared too, so the rows are ingested again by the next upload.
    *
    * @param id the id of the document to delete
    */
@@ -145,10 +153,14 @@ public class DataServiceImpl implements DataService {
   public void deleteCrashDataByDocumentId(Long id) {
     crashDataRepository.existsByDocumentIdOrThrow(id);
     crashDataRepository.deleteByDocumentId(id);
+    rowFingerprintRepository.deleteByDocumentId(id);
+    clearContentHash(id);
   }
 
   /**
    * Deletes pedestrian and bicyclist data with provided document id from the repository.
+   * The fingerprints of the document's rows and the content hash of its upload
+   * are cleared too, so the rows are ingested again by the next upload.
    *
    * @param id the id of the document to delete.
    */
@@ -157,6 +169,8 @@ public class DataServiceImpl implements DataService {
   public void deletePedestrianAndBicyclistByDocumentId(Long id) {
     pedestrianBicyclistRepository.existsByDocumentIdOrThrow(id);
     pedestrianBicyclistRepository.deleteByDocumentId(id);
+    rowFingerprintRepository.deleteByDocumentId(id);
+    clearContentHash(id);
   }
 
   /**
@@ -169,4 +183,17 @@ public class DataServiceImpl implements DataService {
   public DocumentDto findUploadedDocumentById(Long id) {
     return dataConverter.convertToDocumentDto(documentRepository.findByIdIfExists(id));
   }
+
+  /**
+   * Clears the content hash of the upload the document belongs to,
+   * so uploading the same file again processes it instead of returning the deleted data.
+   *
+   * @param id the id of the document whose data is deleted.
+   */
+  private void clearContentHash(Long id) {
+    documentRepository.findById(id)
+        .filter(document -> document.getContentHash() != null)
+        .ifPresent(document -> documentRepository.clearContentHash(
+            document.getContentHash(), document.getUser()));
+  }
 }
@@ -0,0 +1,231 @@
+package com.syberry.poc.data.service.impl;
+
+import com.syberry.poc.data.dto.UploadJobDto;
+import com.syberry.poc.data.dto.enums.UploadJobStage;
+import com.syberry.poc.data.model.UploadJob;
+import com.syberry.poc.data.service.DirectoryIngestionService;
+import com.syberry.poc.data.service.UploadJobService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for ingestion of the documents put to the server's watch directory.
+ * The documents are processed in place by the upload jobs of the configured user,
+ * so large exports are ingested without the multipart upload and the spooled copy.
+ * A document is claimed by moving it to the processing directory, then it is moved
+ * to the done or failed directory when its job finishes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.ingestion.watch.enabled", havingValue = "true")
+public class DirectoryIngestionServiceImpl implements DirectoryIngestionService {
+  private static final List<String> DOCUMENT_EXTENSIONS = List.of(".csv", ".csv.gz", ".zip");
+  private static final String PROCESSING_DIRECTORY = "processing";
+  private static final String DONE_DIRECTORY = "done";
+  private static final String FAILED_DIRECTORY = "failed";
+
+  private final UploadJobService uploadJobService;
+  private final UserDetailsService userDetailsService;
+
+  @Value("${app.ingestion.watch.directory}")
+  private String watchDirectory;
+
+  @Value("${app.ingestion.watch.poll-interval-ms}")
+  private long pollInterval;
+
+  @Value("${app.ingestion.watch.user}")
+  private String watchUser;
+
+  /**
+   * Creates the processing, done and failed directories.
+   * The documents left in the processing directory by the previous run may be
+   * partially saved, so they are moved to the failed directory.
+   *
+   * @throws IOException if the directories cannot be created.
+   */
+  @PostConstruct
+  public void createDirectories() throws IOException {
+    Path watchPath = Paths.get(watchDirectory);
+    Files.createDirectories(watchPath.resolve(PROCESSING_DIRECTORY));
+    Files.createDirectories(watchPath.resolve(DONE_DIRECTORY));
+    Files.createDirectories(watchPath.resolve(FAILED_DIRECTORY));
+    for (Path document : listFiles(watchPath.resolve(PROCESSING_DIRECTORY))) {
+      log.warn("Document {} was not processed completely", document);
+      moveDocument(document, watchPath.resolve(FAILED_DIRECTORY));
+    }
+  }
+
+  /**
+   * Queues upload jobs for the CSV documents and archives of the watch directory.
+   * Only documents that have not been modified for the poll interval are picked up,
+   * so the documents that are still being written are left to the next poll.
+   * Documents of unsupported type are moved to the failed directory,
+   * the polling stops when the upload jobs queue is full.
+   */
+  @Override
+  @Scheduled(fixedDelayString = "${app.ingestion.watch.poll-interval-ms}")
+  public void pollWatchDirectory() {
+    Path watchPath = Paths.get(watchDirectory);
+    List<Path> documents;
+    try {
+      documents = listFiles(watchPath).stream()
+          .filter(this::isReadyDocument)
+          .collect(Collectors.toList());
+    } catch (IOException e) {
+      log.error("Watch directory {} cannot be read", watchPath, e);
+      return;
+    }
+    if (documents.isEmpty()) {
+      return;
+    }
+
+    Authentication authentication;
+    try {
+      authentication = authenticateWatchUser();
+    } catch (RuntimeException e) {
+      log.error("Watch directory user {} cannot be authenticated", watchUser, e);
+      return;
+    }
+    for (Path document : documents) {
+      String fileName = document.getFileName().toString();
+      Path claimedDocument;
+      try {
+        claimedDocument = moveDocument(document, watchPath.resolve(PROCESSING_DIRECTORY));
+      } catch (UncheckedIOException e) {
+        log.warn("Document {} cannot be claimed", fileName, e);
+        continue;
+      }
+      try {
+        UploadJobDto uploadJob = uploadJobService.submitDocument(claimedDocument, fileName,
+            authentication, job -> completeDocument(job, claimedDocument));
+        log.info("Document {} is queued as upload job {}", fileName, uploadJob.getId());
+      } catch (TaskRejectedException e) {
+        log.warn("Upload jobs queue is full, document {} is left to the next poll", fileName);
+        releaseDocument(claimedDocument, watchPath);
+        return;
+      } catch (RuntimeException e) {
+        log.error("Document {} cannot be queued", fileName, e);
+        releaseDocument(claimedDocument, watchPath.resolve(FAILED_DIRECTORY));
+      }
+    }
+  }
+
+  /**
+   * Moves the claimed document that is not queued out of the processing directory.
+   * A document that cannot be moved is left in place, so the poll goes on
+   * with the other documents.
+   *
+   * @param document the claimed document.
+   * @param directory the directory the document is moved to.
+   */
+  private void releaseDocument(Path document, Path directory) {
+    try {
+      moveDocument(document, directory);
+    } catch (UncheckedIOException e) {
+      log.error("Document {} cannot be moved to {}", document, directory, e);
+    }
+  }
+
+  /**
+   * Moves the document of the finished job to the done or failed directory.
+   *
+   * @param uploadJob the finished upload job.
+   * @param document the processed document.
+   */
+  private void completeDocument(UploadJob uploadJob, Path document) {
+    String directory = uploadJob.getStage() == UploadJobStage.COMPLETED
+        ? DONE_DIRECTORY : FAILED_DIRECTORY;
+    try {
+      moveDocument(document, Paths.get(watchDirectory).resolve(directory));
+    } catch (UncheckedIOException e) {
+      log.error("Document {} of upload job {} cannot be moved", document, uploadJob.getId(), e);
+    }
+  }
+
+  /**
+   * Checks that the file is a CSV document or an archive of the documents
+   * that is not being written.
+   *
+   * @param file the file of the watch directory.
+   * @return true if the document can be processed.
+   */
+  private boolean isReadyDocument(Path file) {
+    String fileName = file.getFileName().toString().toLowerCase();
+    if (DOCUMENT_EXTENSIONS.stream().noneMatch(fileName::endsWith)) {
+      return false;
+    }
+    try {
+      Instant lastModified = Files.getLastModifiedTime(file).toInstant();
+      return lastModified.plusMillis(pollInterval).isBefore(Instant.now());
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Creates authentication of the user the documents are uploaded by.
+   *
+   * @return the watch user's authentication.
+   */
+  private Authentication authenticateWatchUser() {
+    UserDetails userDetails = userDetailsService.loadUserByUsername(watchUser);
+    return new UsernamePasswordAuthenticationToken(
+        userDetails, null, userDetails.getAuthorities());
+  }
+
+  /**
+   * Lists the regular files of the directory.
+   *
+   * @param directory the directory.
+   * @return the directory's files sorted by name.
+   * @throws IOException if the directory cannot be read.
+   */
+  private List<Path> listFiles(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(Files::isRegularFile)
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Moves the document to the directory keeping its file name,
+   * or prefixing it with the current time if the directory has such file already.
+   *
+   * @param document the document.
+   * @param directory the target directory.
+   * @return the moved document's path.
+   */
+  private Path moveDocument(Path document, Path directory) {
+    Path target = directory.resolve(document.getFileName());
+    if (Files.exists(target)) {
+      target = directory.resolve(System.currentTimeMillis() + "-" + document.getFileName());
+    }
+    try {
+      return Files.move(document, target, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
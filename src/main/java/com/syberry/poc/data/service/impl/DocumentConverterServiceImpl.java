@@ -1,16 +1,21 @@
 package com.syberry.poc.data.service.impl;
 
+import com.syberry.poc.data.dto.enums.Column;
+import com.syberry.poc.data.model.ColumnSchema;
+import com.syberry.poc.data.model.CsvFields;
+import com.syberry.poc.data.model.DocumentTable;
+import com.syberry.poc.data.model.Row;
 import com.syberry.poc.data.service.DocumentConverterService;
 import com.syberry.poc.data.util.ColumnNameConstants;
 import com.syberry.poc.data.util.FileNameConstants;
 import com.syberry.poc.data.util.PatternConstants;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.csv.CSVRecord;
 import org.springframework.stereotype.Service;
 
 /**
@@ -19,23 +24,38 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 public class DocumentConverterServiceImpl implements DocumentConverterService {
+  private static final Set<String> CONVERTED_COLUMNS = Stream.concat(
+      Arrays.stream(Column.values()).map(column -> column.name().toLowerCase()),
+      Stream.of(ColumnNameConstants.YEAR, ColumnNameConstants.MONTH, ColumnNameConstants.DAY,
+          ColumnNameConstants.COLLISION_TYPE))
+      .collect(Collectors.toUnmodifiableSet());
+
   /**
    * Prepare parsed document to processing.
    * Calls converter methods based on the uploaded file name.
+   * The headers are cleared once per document into the table's schema,
+   * the rows store the records' values by the column index.
+   * The returned rows stream is lazy: rows are converted one at a time while it is consumed.
    *
    * @param fileName an uploaded file original name.
-   * @param documentData a list of document's rows.
-   * @return converted document's representation.
+   * @param headerNames the parsed document's header names.
+   * @param documentData a stream of document's rows.
+   * @return converted document's table.
    */
-  public List<Map<String, String>> prepareDocumentToProcessing(
+  @Override
+  public DocumentTable prepareDocumentToProcessing(
       String fileName,
-      List<CSVRecord> documentData) {
-    List<Map<String, String>> convertedDocument;
+      List<String> headerNames,
+      Stream<CsvFields> documentData) {
+    ColumnSchema schema = new ColumnSchema(headerNames.stream()
+        .map(this::clearHeader)
+        .collect(Collectors.toList()));
+    DocumentTable convertedDocument;
 
     if (fileName.contains(FileNameConstants.pedestrianDocument)) {
-      convertedDocument = convertPedestrianDocument(documentData);
+      convertedDocument = convertPedestrianDocument(schema, documentData);
     } else {
-      convertedDocument = convertDefaultDocument(documentData);
+      convertedDocument = convertDefaultDocument(schema, documentData);
     }
 
     return convertedDocument;
@@ -43,77 +63,67 @@ public class DocumentConverterServiceImpl implements DocumentConverterService {
 
   /**
    * Converts pedestrian and bicyclist document.
+   * The converted table has the date, column name and column value columns,
+   * every record is unpivoted lazily to one row per sensor value.
    *
-   * @param documentData a list of document's rows.
-   * @return converted document's representation.
+   * @param schema the document's columns schema.
+   * @param documentData a stream of document's rows.
+   * @return converted document's table.
    */
-  private List<Map<String, String>> convertPedestrianDocument(List<CSVRecord> documentData) {
-    List<Map<String, String>> convertedDocument = new ArrayList<>();
-
-    for (CSVRecord row : documentData) {
-      Map<String, String> rowMap = clearHeaders(row.toMap());
-      Map<String, String> convertedRowData = new HashMap<>();
-
-      String staticDataHeader = "";
-      String staticDataValue = "";
-
-      for (Map.Entry<String, String> rowValue : rowMap.entrySet()) {
-        String columnName = rowValue.getKey();
-        String columnValue = rowValue.getValue();
-
-        if (columnName.toLowerCase().contains("time")) {
-          staticDataHeader = "full_date";
-          staticDataValue = columnValue;
-        } else if (columnName.toLowerCase().contains(ColumnNameConstants.DATE)) {
-          staticDataHeader = ColumnNameConstants.DATE;
-          staticDataValue = columnValue;
-        } else if (!columnValue.isBlank()) {
-          convertedRowData.put(columnName, columnValue);
-        }
-      }
-
-      for (Map.Entry<String, String> rowValue : convertedRowData.entrySet()) {
-        String newColumnName = rowValue.getKey();
-        String newColumnValue = rowValue.getValue();
-
-        Map<String, String> rowValues = new HashMap<>();
-        rowValues.put(staticDataHeader, staticDataValue);
-        rowValues.put(ColumnNameConstants.COLUMN_NAME, newColumnName);
-        rowValues.put(ColumnNameConstants.COLUMN_VALUE, newColumnValue);
-
-        convertedDocument.add(rowValues);
-      }
-    }
-
-    return convertedDocument;
+  private DocumentTable convertPedestrianDocument(
+      ColumnSchema schema, Stream<CsvFields> documentData) {
+    PedestrianUnpivot unpivot = PedestrianUnpivot.compile(schema);
+    return new DocumentTable(unpivot.getConvertedSchema(),
+        documentData.flatMap(unpivot::unpivot));
   }
 
   /**
    * Convert default document.
+   * Only the values of the columns that are processed or converted to the entities
+   * are read from the records, the other columns are left missing.
+   *
+   * @param schema the document's columns schema.
+   * @param documentData a stream of document's rows.
+   * @return converted document's table.
+   */
+  private DocumentTable convertDefaultDocument(
+      ColumnSchema schema, Stream<CsvFields> documentData) {
+    int[] convertedColumns = IntStream.range(0, schema.size())
+        .filter(column -> CONVERTED_COLUMNS.contains(schema.getColumnName(column)))
+        .toArray();
+    return new DocumentTable(schema,
+        documentData.map(row -> toRow(schema, convertedColumns, row)));
+  }
+
+  /**
+   * Stores document's record values as a row of the document's table.
+   * The record's values that have no header are skipped.
    *
-   * @param documentData a list of document's rows.
-   * @return converted document's representation.
+   * @param schema the document's columns schema.
+   * @param columns the indexes of the columns to read.
+   * @param record a document's record.
+   * @return the row with the record's values.
    */
-  private List<Map<String, String>> convertDefaultDocument(List<CSVRecord> documentData) {
-    return documentData.stream()
-      .map(row -> clearHeaders(row.toMap()))
-      .collect(Collectors.toList());
+  private Row toRow(ColumnSchema schema, int[] columns, CsvFields record) {
+    String[] values = new String[schema.size()];
+    for (int column : columns) {
+      if (column < record.size()) {
+        values[column] = record.get(column);
+      }
+    }
+    return new Row(schema, values);
   }
 
   /**
-   * Clears document's row's headers before processing.
+   * Clears a single document's header before processing.
    *
-   * @param convertedDocument a list of document's rows.
-   * @return converted document's representation with cleared headers.
+   * @param header a header name.
+   * @return cleared header name.
    */
-  private Map<String, String> clearHeaders(Map<String, String> convertedDocument) {
-    return convertedDocument.entrySet().stream()
-      .collect(Collectors.toMap(
-        entry -> entry.getKey().trim().toLowerCase()
-            .replaceAll(PatternConstants.SPACES_PATTERN, PatternConstants.REPLACE_WITH_PATTERN)
-            .replaceAll(PatternConstants.HEADER_REPLACEMENT_PATTERN,
-                PatternConstants.REPLACE_CLEAN_PATTERN),
-        Map.Entry::getValue
-      ));
+  private String clearHeader(String header) {
+    return header.trim().toLowerCase()
+        .replaceAll(PatternConstants.SPACES_PATTERN, PatternConstants.REPLACE_WITH_PATTERN)
+        .replaceAll(PatternConstants.HEADER_REPLACEMENT_PATTERN,
+            PatternConstants.REPLACE_CLEAN_PATTERN);
   }
 }
@@ -1,12 +1,19 @@
 package com.syberry.poc.data.service.impl;
 
 import com.syberry.poc.data.converter.DataConverter;
-import com.syberry.poc.data.database.entity.Document;
 import com.syberry.poc.data.database.entity.PedestrianBicyclist;
+import com.syberry.poc.data.database.entity.PedestrianBicyclistValues;
+import com.syberry.poc.data.model.IngestionContext;
+import com.syberry.poc.data.model.Row;
 import com.syberry.poc.data.service.DocumentTypeConverter;
 import com.syberry.poc.data.service.SavingDataService;
+import com.syberry.poc.exception.ValidationException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -15,20 +22,76 @@ import org.springframework.stereotype.Service;
  */
 @Service
 @RequiredArgsConstructor
-public class PedestrianBicyclistConverter implements DocumentTypeConverter {
+public class PedestrianBicyclistConverter
+    implements DocumentTypeConverter<PedestrianBicyclistValues> {
   private final SavingDataService savingDataService;
   private final DataConverter dataConverter;
 
+  /**
+   * Converts processed document's rows to PedestrianBicyclistValues entities.
+   * Values of the same date are linked to one PedestrianBicyclist entity of the document.
+   * Rows with invalid dates are skipped.
+   *
+   * @param proceededDocument a stream of processed document's rows.
+   * @param context the upload's ingestion context.
+   * @return a lazy stream of PedestrianBicyclistValues entities.
+   */
   @Override
-  public int save(List<Map<String, String>> proceededDocument, Document document) {
-    List<PedestrianBicyclist> entities = dataConverter.convertToPedestrianBicyclistList(
-        proceededDocument, document);
-    savingDataService.savePedestrianBicyclist(
-        dataConverter.convertToPedestrianBicyclistList(proceededDocument, document)
-    );
-    savingDataService.savePedestrianBicyclistValues(
-        dataConverter.convertToPedestrianBicyclistValuesList(proceededDocument)
-    );
-    return entities.size();
+  public Stream<PedestrianBicyclistValues> convert(
+      Stream<Row> proceededDocument, IngestionContext context) {
+    Map<String, PedestrianBicyclist> entitiesByDate = new HashMap<>();
+    return proceededDocument
+        .map(documentRow -> dataConverter.convertToPedestrianBicyclistValue(
+            documentRow, context, entitiesByDate))
+        .filter(Objects::nonNull);
+  }
+
+  /**
+   * Saves a chunk of PedestrianBicyclistValues entities.
+   * PedestrianBicyclist entities that are not saved yet are saved first.
+   *
+   * @param entities a list of PedestrianBicyclistValues entities.
+   * @return saved PedestrianBicyclist entities count.
+   */
+  @Override
+  public int write(List<PedestrianBicyclistValues> entities) {
+    List<PedestrianBicyclist> pedestrianBicyclists = entities.stream()
+        .map(PedestrianBicyclistValues::getPedestrianBicyclist)
+        .filter(pedestrianBicyclist -> pedestrianBicyclist.getId() == null)
+        .distinct()
+        .collect(Collectors.toList());
+    savingDataService.savePedestrianBicyclist(pedestrianBicyclists);
+    savingDataService.savePedestrianBicyclistValues(entities);
+    return pedestrianBicyclists.size();
+  }
+
+  /**
+   * Rejects merging the document's PedestrianBicyclistValues entities.
+   * The values have no natural key of their own, so a merged document
+   * would only duplicate the stored rows.
+   *
+   * @param entities a stream of PedestrianBicyclistValues entities.
+   * @param context the upload's ingestion context.
+   * @return never returns.
+   * @throws ValidationException always.
+   */
+  @Override
+  public int merge(Stream<PedestrianBicyclistValues> entities, IngestionContext context) {
+    throw new ValidationException(
+        "Merge insert method is not supported for pedestrian and bicyclist documents");
+  }
+
+  /**
+   * Saves the document's PedestrianBicyclistValues entities chunk by chunk.
+   * The values reference the generated ids of their PedestrianBicyclist entities,
+   * so they are not bulk loaded.
+   *
+   * @param entities a stream of PedestrianBicyclistValues entities.
+   * @param context the upload's ingestion context.
+   * @return saved PedestrianBicyclist entities count.
+   */
+  @Override
+  public int load(Stream<PedestrianBicyclistValues> entities, IngestionContext context) {
+    return savingDataService.saveInChunks(entities, this::write);
   }
 }
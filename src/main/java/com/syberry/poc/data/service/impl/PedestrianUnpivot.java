@@ -0,0 +1,98 @@
+package com.syberry.poc.data.service.impl;
+
+import com.syberry.poc.data.model.ColumnSchema;
+import com.syberry.poc.data.model.CsvFields;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.util.ColumnNameConstants;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Unpivot of the pedestrian and bicyclist document compiled once per document.
+ * The date column and the sensor columns are resolved from the schema beforehand,
+ * so every record is turned into (date, column name, column value) rows
+ * without scanning its headers or building intermediate maps.
+ */
+final class PedestrianUnpivot {
+  private static final String FULL_DATE_HEADER = "full_date";
+  private static final String TIME_HEADER_PART = "time";
+
+  private final ColumnSchema schema;
+  private final ColumnSchema convertedSchema;
+  private final int dateColumn;
+  private final int[] sensorColumns;
+
+  private PedestrianUnpivot(ColumnSchema schema, ColumnSchema convertedSchema,
+                            int dateColumn, int[] sensorColumns) {
+    this.schema = schema;
+    this.convertedSchema = convertedSchema;
+    this.dateColumn = dateColumn;
+    this.sensorColumns = sensorColumns;
+  }
+
+  /**
+   * Compiles the unpivot for the document's columns.
+   * The last column named as a time or a date holds the rows date,
+   * the other columns hold the sensors values.
+   *
+   * @param schema the document's columns schema.
+   * @return compiled unpivot.
+   */
+  static PedestrianUnpivot compile(ColumnSchema schema) {
+    String staticDataHeader = "";
+    int dateColumn = -1;
+    for (int column = 0; column < schema.size(); column++) {
+      String columnName = schema.getColumnName(column);
+      if (columnName.contains(TIME_HEADER_PART)) {
+        staticDataHeader = FULL_DATE_HEADER;
+        dateColumn = column;
+      } else if (columnName.contains(ColumnNameConstants.DATE)) {
+        staticDataHeader = ColumnNameConstants.DATE;
+        dateColumn = column;
+      }
+    }
+    ColumnSchema convertedSchema = new ColumnSchema(List.of(staticDataHeader,
+        ColumnNameConstants.COLUMN_NAME, ColumnNameConstants.COLUMN_VALUE));
+    int[] sensorColumns = IntStream.range(0, schema.size())
+        .filter(schema::isKeyIndex)
+        .filter(column -> !isDateColumn(schema.getColumnName(column)))
+        .toArray();
+    return new PedestrianUnpivot(schema, convertedSchema, dateColumn, sensorColumns);
+  }
+
+  /**
+   * Returns the schema of the unpivoted rows.
+   *
+   * @return the date, column name and column value schema.
+   */
+  ColumnSchema getConvertedSchema() {
+    return convertedSchema;
+  }
+
+  /**
+   * Unpivots the record to the rows with one sensor value each.
+   * Blank sensor values are skipped.
+   *
+   * @param record a document's record.
+   * @return a lazy stream of the unpivoted rows.
+   */
+  Stream<Row> unpivot(CsvFields record) {
+    String date = dateColumn >= 0 && dateColumn < record.size() ? record.get(dateColumn) : "";
+    return IntStream.of(sensorColumns)
+        .filter(column -> column < record.size() && !record.isBlank(column))
+        .mapToObj(column -> new Row(convertedSchema,
+            new String[] {date, schema.getColumnName(column), record.get(column)}));
+  }
+
+  /**
+   * Checks if the column holds the rows date.
+   *
+   * @param columnName the column's name.
+   * @return true if the column is named as a time or a date.
+   */
+  private static boolean isDateColumn(String columnName) {
+    return columnName.contains(TIME_HEADER_PART)
+        || columnName.contains(ColumnNameConstants.DATE);
+  }
+}
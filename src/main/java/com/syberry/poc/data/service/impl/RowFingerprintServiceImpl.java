@@ -0,0 +1,273 @@
+package com.syberry.poc.data.service.impl;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Streams;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.syberry.poc.data.database.repository.RowFingerprintRepository;
+import com.syberry.poc.data.dto.enums.DocumentType;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
+import com.syberry.poc.data.model.ColumnSchema;
+import com.syberry.poc.data.model.IngestionContext;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.service.RowFingerprintService;
+import com.syberry.poc.data.util.HashCalculator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service that skips the rows ingested by the previous uploads of the same document type.
+ * Every row is identified by a 64-bit xxHash fingerprint of its processed values,
+ * the fingerprints are stored per document type in the transaction of the chunk
+ * with the rows' data, so a fingerprint is stored only if its row is committed.
+ * The rows are checked against the stored fingerprints of all the ingest nodes.
+ * A Bloom filter of the stored fingerprints can be kept per document type to skip
+ * the lookups of the new rows, it only sees the fingerprints stored by this node,
+ * so it is enabled for single-node deployments only.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RowFingerprintServiceImpl implements RowFingerprintService {
+  private static final HashAlgorithm FINGERPRINT_ALGORITHM = HashAlgorithm.XX_HASH_64;
+
+  private final RowFingerprintRepository rowFingerprintRepository;
+  private final ConcurrentMap<DocumentType, BloomFilter<Long>> fingerprintFilters =
+      new ConcurrentHashMap<>();
+
+  @Value("${app.ingestion.chunk-size}")
+  private int chunkSize;
+
+  @Value("${app.ingestion.append.bloom-filter.enabled}")
+  private boolean bloomFilterEnabled;
+
+  @Value("${app.ingestion.append.bloom-filter.expected-rows}")
+  private long expectedRows;
+
+  @Value("${app.ingestion.append.bloom-filter.false-positive-probability}")
+  private double falsePositiveProbability;
+
+  /**
+   * Filters the document's rows that have not been ingested before, chunk by chunk.
+   * Every chunk is checked against the stored fingerprints and the fingerprints of the rows
+   * already passed on, so the rows repeated later in the document are skipped too.
+   * The fingerprint of every passed row is left pending in the context,
+   * until it is stored with the chunk of the row's entities. The rows are passed on
+   * one by one, so only the fingerprints of the rows taken by the chunk are pending.
+   *
+   * @param rows a stream of the processed document's rows.
+   * @param documentType the document's type the fingerprints are stored for.
+   * @param context the upload's ingestion context.
+   * @return a lazy stream of the new rows.
+   */
+  @Override
+  public Stream<Row> filterNewRows(Stream<Row> rows, DocumentType documentType,
+                                   IngestionContext context) {
+    return Streams.stream(new NewRowsIterator(
+            Iterators.partition(rows.iterator(), chunkSize), documentType, context))
+        .onClose(rows::close);
+  }
+
+  /**
+   * Stores the pending fingerprints of the rows passed on for the document.
+   * It is called in the transaction that writes the rows' entities,
+   * so the fingerprints are rolled back with the rows.
+   * A fingerprint stored meanwhile by a concurrent upload fails the transaction
+   * on the unique key, so its row is never saved twice.
+   *
+   * @param documentType the document's type the fingerprints are stored for.
+   * @param context the upload's ingestion context.
+   * @return stored fingerprints count.
+   */
+  @Override
+  public int recordFingerprints(DocumentType documentType, IngestionContext context) {
+    List<Long> fingerprints = new ArrayList<>(context.getPendingFingerprints());
+    context.getPendingFingerprints().clear();
+    rowFingerprintRepository.insertFingerprints(
+        documentType, fingerprints, context.getDocument().getId());
+    if (bloomFilterEnabled) {
+      BloomFilter<Long> fingerprintFilter = getFingerprintFilter(documentType);
+      fingerprints.forEach(fingerprintFilter::put);
+    }
+    return fingerprints.size();
+  }
+
+  /**
+   * Selects the chunk's rows with the fingerprints that are neither stored
+   * nor pending, nor repeated earlier in the chunk.
+   * The Bloom filter, if enabled, is thread safe, so the chunks of different documents
+   * are checked concurrently.
+   *
+   * @param fingerprints the fingerprints of the chunk's rows.
+   * @param documentType the document's type.
+   * @param pendingFingerprints the fingerprints of the rows passed on, not stored yet.
+   * @return the indexes of the new rows in the document's order.
+   */
+  private IntStream selectNewRows(long[] fingerprints, DocumentType documentType,
+                                  Set<Long> pendingFingerprints) {
+    BloomFilter<Long> fingerprintFilter =
+        bloomFilterEnabled ? getFingerprintFilter(documentType) : null;
+    List<Long> storedCandidates = new ArrayList<>();
+    for (long fingerprint : fingerprints) {
+      if (fingerprintFilter == null || fingerprintFilter.mightContain(fingerprint)) {
+        storedCandidates.add(fingerprint);
+      }
+    }
+    Set<Long> seenFingerprints =
+        rowFingerprintRepository.findExistingFingerprints(documentType, storedCandidates);
+    seenFingerprints.addAll(pendingFingerprints);
+    Set<Long> chunkFingerprints = new HashSet<>();
+    return IntStream.range(0, fingerprints.length)
+        .filter(i -> !seenFingerprints.contains(fingerprints[i])
+            && chunkFingerprints.add(fingerprints[i]));
+  }
+
+  /**
+   * Returns the Bloom filter of the fingerprints stored for the document type,
+   * it is loaded by the first upload of the type.
+   *
+   * @param documentType the document's type.
+   * @return the Bloom filter.
+   */
+  private BloomFilter<Long> getFingerprintFilter(DocumentType documentType) {
+    return fingerprintFilters.computeIfAbsent(documentType, this::loadFingerprintFilter);
+  }
+
+  /**
+   * Creates the Bloom filter of the fingerprints stored for the document type.
+   * The stored fingerprints are streamed from the database.
+   *
+   * @param documentType the document's type.
+   * @return the Bloom filter with the stored fingerprints.
+   */
+  private BloomFilter<Long> loadFingerprintFilter(DocumentType documentType) {
+    BloomFilter<Long> fingerprintFilter =
+        BloomFilter.create(Funnels.longFunnel(), expectedRows, falsePositiveProbability);
+    rowFingerprintRepository.forEachFingerprint(documentType, fingerprintFilter::put);
+    log.info("Bloom filter of {} row fingerprints is loaded with {} fingerprints",
+        documentType, fingerprintFilter.approximateElementCount());
+    return fingerprintFilter;
+  }
+
+  /**
+   * Computes the fingerprints of the chunk's rows.
+   *
+   * @param chunk the chunk of the document's rows.
+   * @return the fingerprints in the chunk's order.
+   */
+  private static long[] computeFingerprints(List<Row> chunk) {
+    long[] fingerprints = new long[chunk.size()];
+    ColumnSchema schema = null;
+    int[] columns = null;
+    for (int i = 0; i < fingerprints.length; i++) {
+      Row row = chunk.get(i);
+      if (row.getSchema() != schema) {
+        schema = row.getSchema();
+        columns = getFingerprintColumns(schema);
+      }
+      fingerprints[i] = fingerprint(row, columns);
+    }
+    return fingerprints;
+  }
+
+  /**
+   * Returns the indexes of the columns the rows' fingerprints are computed from,
+   * ordered by the column names, so the fingerprint does not depend on the columns order.
+   *
+   * @param schema the document's columns schema.
+   * @return the column indexes.
+   */
+  private static int[] getFingerprintColumns(ColumnSchema schema) {
+    return IntStream.range(0, schema.size())
+        .filter(schema::isKeyIndex)
+        .boxed()
+        .sorted(Comparator.comparing(schema::getColumnName))
+        .mapToInt(Integer::intValue)
+        .toArray();
+  }
+
+  /**
+   * Computes the row's fingerprint of its present values and their column names.
+   * Every string is prefixed with its length, so the adjacent strings cannot be confused.
+   * The fingerprints are compared across uploads, so they are always hashed with xxHash,
+   * whatever hash algorithm is set for the data hash columns.
+   *
+   * @param row the processed row.
+   * @param columns the fingerprint columns of the row's schema.
+   * @return the 64-bit fingerprint.
+   */
+  private static long fingerprint(Row row, int[] columns) {
+    StringBuilder values = new StringBuilder();
+    for (int column : columns) {
+      String value = row.get(column);
+      if (value != null) {
+        String columnName = row.getSchema().getColumnName(column);
+        values.append(columnName.length()).append(':').append(columnName)
+            .append(value.length()).append(':').append(value);
+      }
+    }
+    return HashCalculator.calculateHash(values.toString(), FINGERPRINT_ALGORITHM);
+  }
+
+  /**
+   * Iterator of the document's new rows, that checks the rows chunk by chunk
+   * and passes them on one by one.
+   */
+  private class NewRowsIterator extends AbstractIterator<Row> {
+    private final Iterator<List<Row>> chunks;
+    private final DocumentType documentType;
+    private final Set<Long> pendingFingerprints;
+    private List<Row> chunk;
+    private long[] fingerprints;
+    private PrimitiveIterator.OfInt newRows = IntStream.empty().iterator();
+
+    /**
+     * Creates the iterator of the new rows.
+     *
+     * @param chunks the chunks of the document's rows.
+     * @param documentType the document's type.
+     * @param context the upload's ingestion context.
+     */
+    NewRowsIterator(Iterator<List<Row>> chunks, DocumentType documentType,
+                    IngestionContext context) {
+      this.chunks = chunks;
+      this.documentType = documentType;
+      this.pendingFingerprints = context.getPendingFingerprints();
+    }
+
+    /**
+     * Returns the next new row and leaves its fingerprint pending.
+     * The next chunk is checked once the new rows of the previous one are passed on.
+     *
+     * @return the next new row.
+     */
+    @Override
+    protected Row computeNext() {
+      while (!newRows.hasNext()) {
+        if (!chunks.hasNext()) {
+          return endOfData();
+        }
+        chunk = chunks.next();
+        fingerprints = computeFingerprints(chunk);
+        newRows = selectNewRows(fingerprints, documentType, pendingFingerprints).iterator();
+      }
+      int newRow = newRows.nextInt();
+      pendingFingerprints.add(fingerprints[newRow]);
+      return chunk.get(newRow);
+    }
+  }
+}
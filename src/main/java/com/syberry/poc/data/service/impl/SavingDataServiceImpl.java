@@ -1,17 +1,25 @@
 package com.syberry.poc.data.service.impl;
 
+import com.google.common.collect.Iterators;
 import com.syberry.poc.data.database.entity.CrashData;
+import com.syberry.poc.data.database.entity.Document;
 import com.syberry.poc.data.database.entity.PedestrianBicyclist;
 import com.syberry.poc.data.database.entity.PedestrianBicyclistValues;
 import com.syberry.poc.data.database.entity.Traffic;
-import com.syberry.poc.data.database.repository.CrashDataRepository;
+import com.syberry.poc.data.database.repository.BatchInsertRepository;
+import com.syberry.poc.data.database.repository.BulkLoadRepository;
 import com.syberry.poc.data.database.repository.PedestrianBicyclistRepository;
-import com.syberry.poc.data.database.repository.PedestrianBicyclistValuesRepository;
-import com.syberry.poc.data.database.repository.TrafficRepository;
 import com.syberry.poc.data.service.SavingDataService;
+import com.syberry.poc.exception.ValidationException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service for processed data entities saving.
@@ -20,12 +28,43 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class SavingDataServiceImpl implements SavingDataService {
   private final PedestrianBicyclistRepository pedestrianBicyclist;
-  private final PedestrianBicyclistValuesRepository pedestrianBicyclistValues;
-  private final CrashDataRepository crashData;
-  private final TrafficRepository traffic;
+  private final BatchInsertRepository batchInsertRepository;
+  private final BulkLoadRepository bulkLoadRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final EntityManager entityManager;
+
+  @Value("${app.ingestion.chunk-size}")
+  private int chunkSize;
+
+  /**
+   * Saves document's entities chunk by chunk.
+   * Every chunk is written in its own transaction, and the persistence context
+   * is flushed and cleared afterwards, so saved entities do not pile up in memory.
+   *
+   * @param entities a stream of document's entities.
+   * @param chunkWriter a function that saves a chunk of entities and returns saved rows count.
+   * @param <T> the type of the entities.
+   * @return saved rows count.
+   */
+  @Override
+  public <T> int saveInChunks(Stream<T> entities, ToIntFunction<List<T>> chunkWriter) {
+    int savedEntities = 0;
+    Iterator<List<T>> chunks = Iterators.partition(entities.iterator(), chunkSize);
+    while (chunks.hasNext()) {
+      List<T> chunk = chunks.next();
+      savedEntities += transactionTemplate.execute(status -> {
+        int savedChunkEntities = chunkWriter.applyAsInt(chunk);
+        entityManager.flush();
+        entityManager.clear();
+        return savedChunkEntities;
+      });
+    }
+    return savedEntities;
+  }
 
   /**
    * Saves list of PedestrianBicyclist entities.
+   * The entities are saved through JPA as their generated ids are referenced by the values.
    *
    * @param entities a list of PedestrianBicyclist entities.
    */
@@ -35,32 +74,124 @@ public class SavingDataServiceImpl implements SavingDataService {
   }
 
   /**
-   * Saves list of PedestrianBicyclistValues entities.
+   * Saves list of PedestrianBicyclistValues entities with a JDBC batch.
    *
    * @param entities a list of PedestrianBicyclistValues entities.
    */
   @Override
   public void savePedestrianBicyclistValues(List<PedestrianBicyclistValues> entities) {
-    pedestrianBicyclistValues.saveAll(entities);
+    batchInsertRepository.insertPedestrianBicyclistValues(entities);
   }
 
   /**
-   * Saves list of CrashData entities.
+   * Saves list of CrashData entities with a JDBC batch.
    *
    * @param entities a list of CrashData entities.
    */
   @Override
   public void saveCrashData(List<CrashData> entities) {
-    crashData.saveAll(entities);
+    batchInsertRepository.insertCrashData(entities);
   }
 
   /**
-   * Saves list of Traffic entities.
+   * Saves list of Traffic entities with a JDBC batch.
    *
    * @param entities a list of Traffic entities.
    */
   @Override
   public void saveTraffic(List<Traffic> entities) {
-    traffic.saveAll(entities);
+    batchInsertRepository.insertTraffic(entities);
+  }
+
+  /**
+   * Upserts the document's CrashData entities by their natural key chunk by chunk.
+   * The driver does not report the rows each statement of a rewritten batch changed,
+   * so the rows the document inserted or moved are counted once it is merged.
+   *
+   * @param entities a stream of CrashData entities.
+   * @param document the entities' document.
+   * @param replacedDocumentId the id of the document the document replaces, or null.
+   * @return inserted and moved rows count.
+   */
+  @Override
+  public int mergeCrashData(Stream<CrashData> entities, Document document,
+                            Long replacedDocumentId) {
+    return merge(BatchInsertRepository.CRASH_DATA_TABLE, document, replacedDocumentId,
+        () -> saveInChunks(entities, chunk -> {
+          batchInsertRepository.mergeCrashData(chunk, replacedDocumentId);
+          return chunk.size();
+        }));
+  }
+
+  /**
+   * Upserts the document's Traffic entities by their natural key chunk by chunk.
+   * The rows the document inserted or moved are counted once it is merged.
+   *
+   * @param entities a stream of Traffic entities.
+   * @param document the entities' document.
+   * @param replacedDocumentId the id of the document the document replaces, or null.
+   * @return inserted and moved rows count.
+   */
+  @Override
+  public int mergeTraffic(Stream<Traffic> entities, Document document,
+                          Long replacedDocumentId) {
+    return merge(BatchInsertRepository.TRAFFIC_TABLE, document, replacedDocumentId,
+        () -> saveInChunks(entities, chunk -> {
+          batchInsertRepository.mergeTraffic(chunk, replacedDocumentId);
+          return chunk.size();
+        }));
+  }
+
+  /**
+   * Runs the document's merge and counts the table's rows of the document.
+   * A document that replaces another one is merged in one transaction, the chunks join it,
+   * and the replaced document's rows left unmatched by the merge are deleted at its end,
+   * so the replaced rows are either all superseded or all kept. The replaced document
+   * must have rows in the table, so a document of another type is never replaced.
+   *
+   * @param table the data table.
+   * @param document the merged document.
+   * @param replacedDocumentId the id of the document the document replaces, or null.
+   * @param chunksMerge the merge of the document's chunks.
+   * @return the table's rows count of the document.
+   */
+  private int merge(String table, Document document, Long replacedDocumentId,
+                    Runnable chunksMerge) {
+    if (replacedDocumentId == null) {
+      chunksMerge.run();
+    } else {
+      transactionTemplate.executeWithoutResult(status -> {
+        if (batchInsertRepository.countDocumentRows(table, replacedDocumentId) == 0) {
+          throw new ValidationException("Replaced document has no rows of the document type");
+        }
+        chunksMerge.run();
+        batchInsertRepository.deleteDocumentRows(table, replacedDocumentId);
+      });
+    }
+    return batchInsertRepository.countDocumentRows(table, document.getId());
+  }
+
+  /**
+   * Loads the document's CrashData entities through a staging table in one transaction.
+   *
+   * @param entities a stream of CrashData entities.
+   * @param document the entities' document.
+   * @return loaded entities count.
+   */
+  @Override
+  public int loadCrashData(Stream<CrashData> entities, Document document) {
+    return bulkLoadRepository.loadCrashData(entities, document.getId());
+  }
+
+  /**
+   * Loads the document's Traffic entities through a staging table in one transaction.
+   *
+   * @param entities a stream of Traffic entities.
+   * @param document the entities' document.
+   * @return loaded entities count.
+   */
+  @Override
+  public int loadTraffic(Stream<Traffic> entities, Document document) {
+    return bulkLoadRepository.loadTraffic(entities, document.getId());
   }
 }
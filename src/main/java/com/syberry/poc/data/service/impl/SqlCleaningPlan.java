@@ -0,0 +1,188 @@
+package com.syberry.poc.data.service.impl;
+
+import com.syberry.poc.data.dto.enums.Tag;
+import com.syberry.poc.data.model.ColumnSchema;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.model.ValueDictionary;
+import com.syberry.poc.data.service.impl.ColumnProcessingPlan.ColumnProcessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Cleaning plan compiled once per document to the set-based statements
+ * over the document's raw rows staged in the database.
+ * The statements give the same rows as the ColumnProcessingPlan: one UPDATE sets
+ * the columns null values and one DELETE removes the rows any processor rejects.
+ * The string columns are prettified by the upload's dictionary when the rows are read,
+ * since the words capitalization has no portable SQL function.
+ * The staged values are compared case-sensitively: the staging table uses a binary collation.
+ */
+final class SqlCleaningPlan {
+  private static final String STAGED_COLUMN_PREFIX = "c";
+  private static final String ALL_ROWS_CONDITION = "1 = 1";
+  private static final String NULL_VALUE_CONDITION = "LOWER(%1$s) IN ('', 'null', 'n/a')";
+  private static final String OBLIGATORY_CONDITION =
+      "%1$s IS NULL OR %1$s = ? OR %1$s = ? OR NOT REGEXP_LIKE(%1$s, ?)";
+  private static final String NUMERIC_CONDITION =
+      "%1$s IS NOT NULL AND (%1$s = '' OR REGEXP_LIKE(%1$s, ?))";
+  private static final String TIME_CONDITION = "%1$s IS NOT NULL AND (%1$s = '' "
+      + "OR REGEXP_LIKE(%1$s, ?) OR LENGTH(TRIM(LEADING '0' FROM %1$s)) > %2$d "
+      + "OR LPAD(TRIM(LEADING '0' FROM %1$s), %2$d, '0') > ?)";
+  private static final String NOT_DIGIT_PATTERN = "[^0-9]";
+  // The characters of Character.isWhitespace the blank values consist of.
+  private static final String NOT_WHITESPACE_PATTERN = "[^\\t\\n\\x0B\\f\\r\\x1C-\\x1F "
+      + "\\x{1680}\\x{2000}-\\x{2006}\\x{2008}-\\x{200A}\\x{2028}\\x{2029}\\x{205F}\\x{3000}]";
+  private static final String MAX_TIME_VALUE =
+      String.valueOf(ColumnProcessingPlan.MAX_TIME_VALUE);
+
+  private final int[] stagedColumns;
+  private final List<String> stagedColumnNames;
+  private final boolean[] prettifiedColumns;
+  private final List<String> nullValueAssignments;
+  private final List<Object> nullValueParameters;
+  private final List<String> rejectConditions;
+  private final List<Object> rejectParameters;
+
+  private SqlCleaningPlan(int[] stagedColumns, boolean[] prettifiedColumns) {
+    this.stagedColumns = stagedColumns;
+    this.stagedColumnNames = Arrays.stream(stagedColumns)
+        .mapToObj(column -> STAGED_COLUMN_PREFIX + column)
+        .collect(Collectors.toUnmodifiableList());
+    this.prettifiedColumns = prettifiedColumns;
+    this.nullValueAssignments = new ArrayList<>();
+    this.nullValueParameters = new ArrayList<>();
+    this.rejectConditions = new ArrayList<>();
+    this.rejectParameters = new ArrayList<>();
+  }
+
+  /**
+   * Compiles cleaning plan for the document's columns.
+   * Only the kept columns are staged, the other columns are dropped from the rows.
+   *
+   * @param schema the document's columns schema.
+   * @param tags a map of processing tags to document's headers.
+   * @return compiled cleaning plan.
+   */
+  static SqlCleaningPlan compile(ColumnSchema schema, Map<String, List<Tag>> tags) {
+    int[] stagedColumns = IntStream.range(0, schema.size())
+        .filter(column -> ColumnProcessingPlan.isKeptColumn(schema, tags, column))
+        .toArray();
+    SqlCleaningPlan plan = new SqlCleaningPlan(stagedColumns, new boolean[schema.size()]);
+    for (ColumnProcessor processor : ColumnProcessingPlan.resolveProcessors(schema, tags)) {
+      plan.addProcessor(processor);
+    }
+    return plan;
+  }
+
+  /**
+   * Adds the processor's null value assignment and its rejected rows conditions.
+   *
+   * @param processor the column's processor.
+   */
+  private void addProcessor(ColumnProcessor processor) {
+    if (processor.column < 0) {
+      if (processor.obligatory) {
+        rejectConditions.add(ALL_ROWS_CONDITION);
+      }
+      return;
+    }
+    String column = "`" + STAGED_COLUMN_PREFIX + processor.column + "`";
+    if (processor.nullValue != null) {
+      nullValueAssignments.add(String.format("%1$s = CASE WHEN " + NULL_VALUE_CONDITION
+          + " THEN ? ELSE %1$s END", column));
+      nullValueParameters.add(processor.nullValue);
+    }
+    if (processor.obligatory) {
+      rejectConditions.add(String.format(OBLIGATORY_CONDITION, column));
+      rejectParameters.addAll(List.of(ColumnProcessingPlan.INTEGER_NULL_VALUE,
+          ColumnProcessingPlan.STRING_NULL_VALUE, NOT_WHITESPACE_PATTERN));
+    }
+    switch (processor.rule) {
+      case PRETTIFY -> prettifiedColumns[processor.column] = true;
+      case TIME -> {
+        rejectConditions.add(String.format(TIME_CONDITION, column, MAX_TIME_VALUE.length()));
+        rejectParameters.addAll(List.of(NOT_DIGIT_PATTERN, MAX_TIME_VALUE));
+      }
+      case NUMERIC -> {
+        rejectConditions.add(String.format(NUMERIC_CONDITION, column));
+        rejectParameters.add(NOT_DIGIT_PATTERN);
+      }
+      default -> {
+      }
+    }
+  }
+
+  /**
+   * Returns the staging table's columns of the row's values.
+   *
+   * @return the staged column names.
+   */
+  List<String> getStagedColumnNames() {
+    return stagedColumnNames;
+  }
+
+  /**
+   * Returns the raw values of the row's staged columns.
+   *
+   * @param row a document's row.
+   * @return the staged values.
+   */
+  String[] toStagedValues(Row row) {
+    String[] values = new String[stagedColumns.length];
+    for (int i = 0; i < stagedColumns.length; i++) {
+      values[i] = row.get(stagedColumns[i]);
+    }
+    return values;
+  }
+
+  /**
+   * Creates the processed row from the cleaned staged values.
+   *
+   * @param schema the document's columns schema.
+   * @param stagedValues the cleaned values of the staged columns.
+   * @param valueDictionary the upload's dictionary the string values are prettified with.
+   * @return the processed row.
+   */
+  Row toRow(ColumnSchema schema, String[] stagedValues, ValueDictionary valueDictionary) {
+    String[] values = new String[schema.size()];
+    for (int i = 0; i < stagedColumns.length; i++) {
+      int column = stagedColumns[i];
+      String value = stagedValues[i];
+      values[column] = value != null && prettifiedColumns[column]
+          ? valueDictionary.prettify(value) : value;
+    }
+    return new Row(schema, values);
+  }
+
+  /**
+   * Returns the cleaning statements over the staging table.
+   *
+   * @param stagingTable the staging table with the document's raw rows.
+   * @return the statements to execute in order.
+   */
+  List<Statement> getStatements(String stagingTable) {
+    List<Statement> statements = new ArrayList<>(2);
+    if (!nullValueAssignments.isEmpty()) {
+      statements.add(new Statement(String.format("UPDATE `%s` SET %s", stagingTable,
+          String.join(", ", nullValueAssignments)), nullValueParameters.toArray()));
+    }
+    if (!rejectConditions.isEmpty()) {
+      statements.add(new Statement(String.format("DELETE FROM `%s` WHERE (%s)", stagingTable,
+          String.join(") OR (", rejectConditions)), rejectParameters.toArray()));
+    }
+    return statements;
+  }
+
+  /**
+   * A cleaning statement with its parameters.
+   *
+   * @param sql the statement.
+   * @param parameters the statement's parameters.
+   */
+  record Statement(String sql, Object[] parameters) {
+  }
+}
@@ -0,0 +1,197 @@
+package com.syberry.poc.data.service.impl;
+
+import com.syberry.poc.data.model.CsvFields;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Records of a tokenized CSV document's chunk.
+ * The fields are kept as the byte ranges of the chunk's buffer, a field's String value
+ * is decoded only when it is requested. The records are meant to be read by a single thread.
+ */
+final class TokenizedCsvChunk extends AbstractList<CsvFields> {
+  private static final byte QUOTE = '"';
+  private static final int MINIMAL_CAPACITY = 1024;
+  private static final int BYTES_PER_FIELD_ESTIMATE = 8;
+  private static final int FIELDS_PER_RECORD_ESTIMATE = 8;
+
+  private final ByteBuffer buffer;
+  private final Charset charset;
+  private final BitSet escapedFields = new BitSet();
+  private int[] fieldStarts;
+  private int[] fieldEnds;
+  private int fieldsCount;
+  private int[] recordStarts;
+  private int recordsCount;
+  private int length;
+  private byte[] decodingBuffer = new byte[0];
+
+  /**
+   * Creates the chunk with the fields capacity estimated by the chunk's size.
+   *
+   * @param buffer the chunk's bytes.
+   * @param charset the document's charset.
+   */
+  TokenizedCsvChunk(ByteBuffer buffer, Charset charset) {
+    this.buffer = buffer;
+    this.charset = charset;
+    int fieldsCapacity = Math.max(MINIMAL_CAPACITY, buffer.limit() / BYTES_PER_FIELD_ESTIMATE);
+    fieldStarts = new int[fieldsCapacity];
+    fieldEnds = new int[fieldsCapacity];
+    recordStarts = new int[Math.max(MINIMAL_CAPACITY, fieldsCapacity / FIELDS_PER_RECORD_ESTIMATE)];
+  }
+
+  /**
+   * Adds the field of the current record.
+   *
+   * @param start the field's start offset.
+   * @param end the field's end offset.
+   * @param escaped whether the field contains doubled quotes.
+   */
+  void addField(int start, int end, boolean escaped) {
+    if (fieldsCount == fieldStarts.length) {
+      fieldStarts = Arrays.copyOf(fieldStarts, fieldsCount * 2);
+      fieldEnds = Arrays.copyOf(fieldEnds, fieldsCount * 2);
+    }
+    fieldStarts[fieldsCount] = start;
+    fieldEnds[fieldsCount] = end;
+    if (escaped) {
+      escapedFields.set(fieldsCount);
+    }
+    fieldsCount++;
+  }
+
+  /**
+   * Completes the current record with the fields added since the previous record.
+   *
+   * @param end the record's end offset.
+   */
+  void addRecord(int end) {
+    if (recordsCount + 1 == recordStarts.length) {
+      recordStarts = Arrays.copyOf(recordStarts, recordStarts.length * 2);
+    }
+    recordStarts[++recordsCount] = fieldsCount;
+    length = end;
+  }
+
+  /**
+   * Skips the empty line, so the chunk's length includes it.
+   *
+   * @param end the line's end offset.
+   */
+  void skipLine(int end) {
+    length = end;
+  }
+
+  /**
+   * Drops the fields of the incomplete current record.
+   */
+  void dropIncompleteRecord() {
+    escapedFields.clear(recordStarts[recordsCount], fieldsCount);
+    fieldsCount = recordStarts[recordsCount];
+  }
+
+  /**
+   * Returns the length of the chunk's complete records.
+   *
+   * @return the length in bytes.
+   */
+  int getLength() {
+    return length;
+  }
+
+  @Override
+  public CsvFields get(int record) {
+    return new RecordFields(recordStarts[record], recordStarts[record + 1] - recordStarts[record]);
+  }
+
+  @Override
+  public int size() {
+    return recordsCount;
+  }
+
+  /**
+   * Fields of the chunk's record.
+   */
+  private final class RecordFields implements CsvFields {
+    private final int firstField;
+    private final int size;
+
+    private RecordFields(int firstField, int size) {
+      this.firstField = firstField;
+      this.size = size;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public String get(int index) {
+      int field = field(index);
+      int start = fieldStarts[field];
+      int fieldLength = fieldEnds[field] - start;
+      if (fieldLength == 0) {
+        return "";
+      }
+      if (decodingBuffer.length < fieldLength) {
+        decodingBuffer = new byte[Math.max(fieldLength, decodingBuffer.length * 2)];
+      }
+      buffer.get(start, decodingBuffer, 0, fieldLength);
+      if (escapedFields.get(field)) {
+        fieldLength = unescape(decodingBuffer, fieldLength);
+      }
+      return new String(decodingBuffer, 0, fieldLength, charset);
+    }
+
+    @Override
+    public boolean isBlank(int index) {
+      int field = field(index);
+      for (int i = fieldStarts[field]; i < fieldEnds[field]; i++) {
+        byte character = buffer.get(i);
+        if (character < 0) {
+          return get(index).isBlank();
+        }
+        if (!Character.isWhitespace(character)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Returns the field's index in the chunk.
+     *
+     * @param index the field's index in the record.
+     * @return the field's index in the chunk.
+     */
+    private int field(int index) {
+      if (index < 0 || index >= size) {
+        throw new ArrayIndexOutOfBoundsException(index);
+      }
+      return firstField + index;
+    }
+
+    /**
+     * Replaces the doubled quotes of the field with single ones.
+     *
+     * @param bytes the field's bytes, unescaped in place.
+     * @param fieldLength the field's length.
+     * @return the unescaped field's length.
+     */
+    private int unescape(byte[] bytes, int fieldLength) {
+      int unescapedLength = 0;
+      for (int i = 0; i < fieldLength; i++) {
+        bytes[unescapedLength++] = bytes[i];
+        if (bytes[i] == QUOTE) {
+          i++;
+        }
+      }
+      return unescapedLength;
+    }
+  }
+}
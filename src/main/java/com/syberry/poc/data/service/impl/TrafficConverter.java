@@ -1,12 +1,13 @@
 package com.syberry.poc.data.service.impl;
 
 import com.syberry.poc.data.converter.DataConverter;
-import com.syberry.poc.data.database.entity.Document;
 import com.syberry.poc.data.database.entity.Traffic;
+import com.syberry.poc.data.model.IngestionContext;
+import com.syberry.poc.data.model.Row;
 import com.syberry.poc.data.service.DocumentTypeConverter;
 import com.syberry.poc.data.service.SavingDataService;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -15,14 +16,58 @@ import org.springframework.stereotype.Service;
  */
 @Service
 @RequiredArgsConstructor
-public class TrafficConverter implements DocumentTypeConverter {
+public class TrafficConverter implements DocumentTypeConverter<Traffic> {
   private final SavingDataService savingDataService;
   private final DataConverter dataConverter;
 
+  /**
+   * Converts processed document's rows to Traffic entities.
+   *
+   * @param proceededDocument a stream of processed document's rows.
+   * @param context the upload's ingestion context.
+   * @return a lazy stream of Traffic entities.
+   */
   @Override
-  public int save(List<Map<String, String>> proceededDocument, Document document) {
-    List<Traffic> entities = dataConverter.convertToTrafficList(proceededDocument, document);
-    savingDataService.saveTraffic(dataConverter.convertToTrafficList(proceededDocument, document));
+  public Stream<Traffic> convert(Stream<Row> proceededDocument,
+                                 IngestionContext context) {
+    return proceededDocument.map(documentRow ->
+        dataConverter.convertToTraffic(documentRow, context));
+  }
+
+  /**
+   * Saves a chunk of Traffic entities.
+   *
+   * @param entities a list of Traffic entities.
+   * @return saved entities count.
+   */
+  @Override
+  public int write(List<Traffic> entities) {
+    savingDataService.saveTraffic(entities);
     return entities.size();
   }
+
+  /**
+   * Upserts the document's Traffic entities by their natural key chunk by chunk.
+   *
+   * @param entities a stream of Traffic entities.
+   * @param context the upload's ingestion context.
+   * @return inserted and moved rows count.
+   */
+  @Override
+  public int merge(Stream<Traffic> entities, IngestionContext context) {
+    return savingDataService.mergeTraffic(
+        entities, context.getDocument(), context.getReplacedDocumentId());
+  }
+
+  /**
+   * Loads the document's Traffic entities with the bulk load.
+   *
+   * @param entities a stream of Traffic entities.
+   * @param context the upload's ingestion context.
+   * @return loaded entities count.
+   */
+  @Override
+  public int load(Stream<Traffic> entities, IngestionContext context) {
+    return savingDataService.loadTraffic(entities, context.getDocument());
+  }
 }
@@ -0,0 +1,379 @@
+package com.syberry.poc.data.service.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.MoreFiles;
+import com.syberry.poc.data.converter.DataConverter;
+import com.syberry.poc.data.database.entity.Document;
+import com.syberry.poc.data.database.repository.DocumentRepository;
+import com.syberry.poc.data.dto.UploadJobDto;
+import com.syberry.poc.data.dto.UploadReportDto;
+import com.syberry.poc.data.dto.enums.DocumentCompression;
+import com.syberry.poc.data.dto.enums.DocumentStatus;
+import com.syberry.poc.data.dto.enums.DocumentType;
+import com.syberry.poc.data.dto.enums.InsertMethod;
+import com.syberry.poc.data.dto.enums.UploadJobStage;
+import com.syberry.poc.data.model.UploadJob;
+import com.syberry.poc.data.service.CsvProcessingService;
+import com.syberry.poc.data.service.UploadJobService;
+import com.syberry.poc.exception.EntityNotFoundException;
+import com.syberry.poc.exception.FileReadingException;
+import com.syberry.poc.exception.PermissionException;
+import com.syberry.poc.exception.ValidationException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Service for running document uploads in the background.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadJobServiceImpl implements UploadJobService {
+  private static final HashFunction CONTENT_HASH_FUNCTION = Hashing.sha256();
+  private static final String IDEMPOTENCY_KEY_SEPARATOR = ":";
+
+  private final CsvProcessingService csvProcessingService;
+  private final DataConverter dataConverter;
+  private final TaskExecutor ingestionTaskExecutor;
+  private final Cache<String, UploadJob> uploadJobCache;
+  private final Cache<String, String> idempotencyKeyCache;
+  private final DocumentRepository documentRepository;
+
+  @Value("${app.ingestion.spool-directory}")
+  private String spoolDirectory;
+
+  @Value("${app.ingestion.insert-method}")
+  private InsertMethod insertMethod;
+
+  @Value("${app.ingestion.append.enabled}")
+  private boolean appendMode;
+
+  /**
+   * Spools uploaded file to the local storage and queues its processing.
+   * The file's content hash is computed while it is spooled.
+   * The job runs with a copy of the submitting user's authentication,
+   * detached from the request's security context.
+   * A repeated idempotency key of the user returns the job it was first sent with,
+   * without reading the file again.
+   * A corrected document names the user's document it replaces, once it is merged
+   * the replaced document's rows that the corrected one does not repeat are deleted.
+   *
+   * @param file a file that uploaded via application endpoint.
+   * @param idempotencyKey the client's key of the upload, or null.
+   * @param replacedDocumentId the id of the document the uploaded one replaces, or null.
+   * @return the queued upload job, or the job of the same upload.
+   */
+  @Override
+  public UploadJobDto submitCsvDocument(MultipartFile file, String idempotencyKey,
+                                        Long replacedDocumentId) {
+    String fileName = file.getOriginalFilename();
+    validateFileName(fileName);
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (replacedDocumentId != null) {
+      validateReplacedDocument(fileName, replacedDocumentId, authentication.getName());
+    }
+    UploadJob uploadJob = new UploadJob(
+        UUID.randomUUID().toString(), fileName, authentication.getName());
+    uploadJob.setReplacedDocumentId(replacedDocumentId);
+
+    String idempotencyCacheKey = idempotencyKey == null
+        ? null : authentication.getName() + IDEMPOTENCY_KEY_SEPARATOR + idempotencyKey;
+    if (idempotencyCacheKey != null) {
+      UploadJob idempotentJob = reserveIdempotencyKey(idempotencyCacheKey, uploadJob);
+      if (idempotentJob != null) {
+        return dataConverter.convertToUploadJobDto(idempotentJob);
+      }
+    }
+    Path spooledFile = null;
+    try {
+      spooledFile = spoolDocument(file, uploadJob);
+      Path submittedFile = spooledFile;
+      return submitJob(uploadJob, spooledFile, authentication,
+          job -> deleteSpooledDocument(submittedFile));
+    } catch (RuntimeException e) {
+      deleteSpooledDocument(spooledFile);
+      if (idempotencyCacheKey != null) {
+        idempotencyKeyCache.invalidate(idempotencyCacheKey);
+        uploadJobCache.invalidate(uploadJob.getId());
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Queues processing of the document stored on the server.
+   * The document is processed in place, the completion handler is called
+   * with the completed or failed job once the document is not used anymore.
+   * The document's content hash is computed by reading it before it is queued.
+   *
+   * @param document the document's path.
+   * @param fileName the document's file name the document type is detected by.
+   * @param authentication the authentication of the user the document is uploaded by.
+   * @param completionHandler the handler of the finished job.
+   * @return the queued upload job, or the completed job of the same upload.
+   */
+  @Override
+  public UploadJobDto submitDocument(Path document, String fileName,
+                                     Authentication authentication,
+                                     Consumer<UploadJob> completionHandler) {
+    validateFileName(fileName);
+    UploadJob uploadJob = new UploadJob(
+        UUID.randomUUID().toString(), fileName, authentication.getName());
+    try {
+      uploadJob.setContentHash(MoreFiles.asByteSource(document)
+          .hash(CONTENT_HASH_FUNCTION).toString());
+    } catch (IOException e) {
+      throw new FileReadingException("An error occurred while reading file: ", e);
+    }
+    return submitJob(uploadJob, document, authentication, completionHandler);
+  }
+
+  /**
+   * Queues the upload job unless the user has already uploaded the same content.
+   * If the user's completed documents of an upload have the job's content hash,
+   * the job is completed at once with their report. The uploads of other users
+   * are not matched, so their documents are never exposed.
+   *
+   * @param uploadJob the upload job with the content hash.
+   * @param document the document's path.
+   * @param authentication the authentication of the user the document is uploaded by.
+   * @param completionHandler the handler of the finished job.
+   * @return the queued or completed upload job.
+   */
+  private UploadJobDto submitJob(UploadJob uploadJob, Path document,
+                                 Authentication authentication,
+                                 Consumer<UploadJob> completionHandler) {
+    List<Document> uploadedDocuments = documentRepository.findAllByContentHashAndUserEmail(
+        uploadJob.getContentHash(), authentication.getName());
+    if (!uploadedDocuments.isEmpty()) {
+      log.info("Upload job {} repeats the upload of documents {}", uploadJob.getId(),
+          uploadedDocuments.stream().map(Document::getId).collect(Collectors.toList()));
+      completeRepeatedJob(uploadJob, uploadedDocuments);
+      completionHandler.accept(uploadJob);
+      return dataConverter.convertToUploadJobDto(uploadJob);
+    }
+
+    SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+    securityContext.setAuthentication(authentication);
+    uploadJobCache.put(uploadJob.getId(), uploadJob);
+    try {
+      ingestionTaskExecutor.execute(new DelegatingSecurityContextRunnable(
+          () -> runUploadJob(uploadJob, document, authentication.getName(), completionHandler),
+          securityContext));
+    } catch (TaskRejectedException e) {
+      uploadJobCache.invalidate(uploadJob.getId());
+      throw e;
+    }
+    return dataConverter.convertToUploadJobDto(uploadJob);
+  }
+
+  /**
+   * Returns the upload job with the specified ID.
+   * Only the user the job is submitted by can read it.
+   *
+   * @param id the ID of the upload job.
+   * @return the upload job state.
+   */
+  @Override
+  public UploadJobDto findUploadJobById(String id) {
+    UploadJob uploadJob = uploadJobCache.getIfPresent(id);
+    if (uploadJob == null) {
+      throw new EntityNotFoundException(String.format("Upload job with id: %s is not found", id));
+    }
+    if (!uploadJob.getUsername().equals(
+        SecurityContextHolder.getContext().getAuthentication().getName())) {
+      throw new PermissionException("Upload job is submitted by another user");
+    }
+    return dataConverter.convertToUploadJobDto(uploadJob);
+  }
+
+  /**
+   * Processes the spooled document and records the job's outcome.
+   *
+   * @param uploadJob the upload job.
+   * @param spooledFile the spooled document.
+   * @param userName the name of the user the document is uploaded by.
+   * @param completionHandler the handler of the finished job.
+   */
+  private void runUploadJob(UploadJob uploadJob, Path spooledFile, String userName,
+                            Consumer<UploadJob> completionHandler) {
+    uploadJob.setStage(UploadJobStage.PROCESSING);
+    uploadJobCache.put(uploadJob.getId(), uploadJob);
+    try {
+      UploadReportDto report = csvProcessingService.processCsvDocument(spooledFile, uploadJob);
+      recordContentHash(uploadJob, userName);
+      uploadJob.setReport(report);
+      uploadJob.setStage(UploadJobStage.COMPLETED);
+    } catch (RuntimeException e) {
+      log.error("Upload job {} failed", uploadJob.getId(), e);
+      uploadJob.setError(e.getMessage());
+      uploadJob.setStage(UploadJobStage.FAILED);
+    } finally {
+      uploadJobCache.put(uploadJob.getId(), uploadJob);
+      completionHandler.accept(uploadJob);
+    }
+  }
+
+  /**
+   * Maps the user's idempotency key to the upload job.
+   * The job is cached before the key is mapped, so a concurrent request
+   * with the same key finds it.
+   *
+   * @param idempotencyCacheKey the user's name and idempotency key.
+   * @param uploadJob the new upload job.
+   * @return the job the key is already mapped to, or null if the key is mapped to the new job.
+   */
+  private UploadJob reserveIdempotencyKey(String idempotencyCacheKey, UploadJob uploadJob) {
+    uploadJobCache.put(uploadJob.getId(), uploadJob);
+    String jobId = idempotencyKeyCache.asMap()
+        .putIfAbsent(idempotencyCacheKey, uploadJob.getId());
+    UploadJob idempotentJob = jobId == null ? null : uploadJobCache.getIfPresent(jobId);
+    if (idempotentJob != null) {
+      uploadJobCache.invalidate(uploadJob.getId());
+      return idempotentJob;
+    }
+    if (jobId != null) {
+      idempotencyKeyCache.put(idempotencyCacheKey, uploadJob.getId());
+    }
+    return null;
+  }
+
+  /**
+   * Completes the job of the repeated upload with the report of its documents.
+   *
+   * @param uploadJob the upload job.
+   * @param uploadedDocuments the completed documents of the same content.
+   */
+  private void completeRepeatedJob(UploadJob uploadJob, List<Document> uploadedDocuments) {
+    int processedRows = 0;
+    int recordedRows = 0;
+    int invalidDateRows = 0;
+    for (Document document : uploadedDocuments) {
+      uploadJob.addDocumentId(document.getId());
+      processedRows += document.getProcessedRows();
+      recordedRows += Objects.requireNonNullElse(document.getRecordedRows(), 0);
+      invalidDateRows += Objects.requireNonNullElse(document.getInvalidDateRows(), 0);
+    }
+    uploadJob.getProcessedRows().addAndGet(processedRows);
+    uploadJob.setReport(new UploadReportDto(processedRows, recordedRows, invalidDateRows));
+    uploadJob.setStage(UploadJobStage.COMPLETED);
+    uploadJobCache.put(uploadJob.getId(), uploadJob);
+  }
+
+  /**
+   * Sets the content hash of the completed job's documents.
+   * The hash is kept by the documents of one upload of the user only: if the user
+   * has uploaded the same content concurrently, the later upload's documents are left without it.
+   *
+   * @param uploadJob the completed upload job.
+   * @param userName the name of the user the document is uploaded by.
+   */
+  private synchronized void recordContentHash(UploadJob uploadJob, String userName) {
+    String contentHash = uploadJob.getContentHash();
+    if (contentHash == null || uploadJob.getDocumentIds().isEmpty()
+        || documentRepository.existsByContentHashAndUserEmail(contentHash, userName)) {
+      return;
+    }
+    documentRepository.updateContentHash(contentHash, uploadJob.getDocumentIds());
+  }
+
+  /**
+   * Checks that the document type is supported.
+   *
+   * @param fileName the document's file name.
+   */
+  private void validateFileName(String fileName) {
+    if (!DocumentType.isSupported(fileName)) {
+      throw new ValidationException("Document type is not supported");
+    }
+  }
+
+  /**
+   * Checks that the document can be replaced by the uploaded one.
+   * Only a single document is merged over a completed document of the same user.
+   *
+   * @param fileName the uploaded document's file name.
+   * @param replacedDocumentId the id of the replaced document.
+   * @param userName the name of the user the document is uploaded by.
+   */
+  private void validateReplacedDocument(String fileName, Long replacedDocumentId,
+                                        String userName) {
+    if (insertMethod != InsertMethod.MERGE || appendMode) {
+      throw new ValidationException("Documents are replaced by the merge insert method only");
+    }
+    if (DocumentCompression.findByFileName(fileName.toLowerCase()) == DocumentCompression.ZIP) {
+      throw new ValidationException("Document cannot be replaced by an archive");
+    }
+    Document replacedDocument = documentRepository.findById(replacedDocumentId)
+        .orElseThrow(() -> new EntityNotFoundException(String.format(
+            "Document with id: %s is not found", replacedDocumentId)));
+    if (!replacedDocument.getUser().getEmail().equals(userName)) {
+      throw new PermissionException("Document is uploaded by another user");
+    }
+    if (replacedDocument.getStatus() != DocumentStatus.COMPLETE) {
+      throw new ValidationException("Only a complete document can be replaced");
+    }
+  }
+
+  /**
+   * Copies uploaded file to the spool directory, so the request can be completed
+   * before the document is processed. The content hash is computed from the copied bytes.
+   *
+   * @param file an uploaded file.
+   * @param uploadJob the upload job the content hash is set to.
+   * @return path of the spooled document.
+   */
+  private Path spoolDocument(MultipartFile file, UploadJob uploadJob) {
+    Path spooledFile = null;
+    try {
+      spooledFile = Files.createTempFile(Paths.get(spoolDirectory), "upload-", ".csv");
+      try (HashingInputStream content = new HashingInputStream(
+          CONTENT_HASH_FUNCTION, file.getInputStream())) {
+        Files.copy(content, spooledFile, StandardCopyOption.REPLACE_EXISTING);
+        uploadJob.setContentHash(content.hash().toString());
+      }
+      return spooledFile;
+    } catch (IOException e) {
+      deleteSpooledDocument(spooledFile);
+      throw new FileReadingException("An error occurred while reading file: ", e);
+    }
+  }
+
+  /**
+   * Deletes spooled document.
+   *
+   * @param spooledFile path of the spooled document.
+   */
+  private void deleteSpooledDocument(Path spooledFile) {
+    if (spooledFile == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(spooledFile);
+    } catch (IOException e) {
+      log.warn("Spooled document {} cannot be deleted", spooledFile, e);
+    }
+  }
+}
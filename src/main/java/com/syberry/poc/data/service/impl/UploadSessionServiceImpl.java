@@ -0,0 +1,232 @@
+package com.syberry.poc.data.service.impl;
+
+import com.google.common.cache.Cache;
+import com.syberry.poc.data.converter.DataConverter;
+import com.syberry.poc.data.dto.UploadJobDto;
+import com.syberry.poc.data.dto.UploadSessionDto;
+import com.syberry.poc.data.dto.enums.DocumentType;
+import com.syberry.poc.data.model.UploadSession;
+import com.syberry.poc.data.service.UploadJobService;
+import com.syberry.poc.data.service.UploadSessionService;
+import com.syberry.poc.exception.EntityNotFoundException;
+import com.syberry.poc.exception.FileReadingException;
+import com.syberry.poc.exception.PermissionException;
+import com.syberry.poc.exception.ValidationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for uploading large documents by numbered chunks.
+ * The chunks are streamed from the request body straight to the spooled file,
+ * so neither the multipart limit nor the heap bound the document's size.
+ * A chunk interrupted by a dropped connection is discarded and can be sent again,
+ * the committed document is processed by an upload job.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadSessionServiceImpl implements UploadSessionService {
+  private static final long CLEAN_UP_INTERVAL_MS = 60_000;
+
+  private final UploadJobService uploadJobService;
+  private final DataConverter dataConverter;
+  private final Cache<String, UploadSession> uploadSessionCache;
+
+  @Value("${app.ingestion.spool-directory}")
+  private String spoolDirectory;
+
+  /**
+   * Creates an upload session with an empty spooled file.
+   *
+   * @param fileName the uploaded document's file name the document type is detected by.
+   * @return the created upload session.
+   */
+  @Override
+  public UploadSessionDto createUploadSession(String fileName) {
+    if (!DocumentType.isSupported(fileName)) {
+      throw new ValidationException("Document type is not supported");
+    }
+    Path spooledFile;
+    try {
+      spooledFile = Files.createTempFile(Paths.get(spoolDirectory), "upload-", ".csv");
+    } catch (IOException e) {
+      throw new FileReadingException("An error occurred while creating file: ", e);
+    }
+    UploadSession uploadSession = new UploadSession(UUID.randomUUID().toString(), fileName,
+        getAuthentication().getName(), spooledFile);
+    uploadSessionCache.put(uploadSession.getId(), uploadSession);
+    return dataConverter.convertToUploadSessionDto(uploadSession);
+  }
+
+  /**
+   * Appends the chunk to the session's spooled file.
+   * The chunks are numbered from zero and are accepted in order. A chunk that is
+   * already received is skipped, so the chunk the response was lost for can be sent again.
+   * If the chunk is not read completely, the written part is truncated.
+   *
+   * @param id the ID of the upload session.
+   * @param chunkNumber the number of the chunk.
+   * @param chunk the chunk's content.
+   * @return the upload session with the received chunks.
+   */
+  @Override
+  public UploadSessionDto appendChunk(String id, int chunkNumber, InputStream chunk) {
+    UploadSession uploadSession = getUploadSession(id);
+    synchronized (uploadSession) {
+      if (chunkNumber > uploadSession.getReceivedChunks() || chunkNumber < 0) {
+        throw new ValidationException(String.format("Chunk %d is expected",
+            uploadSession.getReceivedChunks()));
+      }
+      if (chunkNumber == uploadSession.getReceivedChunks()) {
+        uploadSession.setReceivedBytes(writeChunk(uploadSession, chunk));
+        uploadSession.setReceivedChunks(chunkNumber + 1);
+      }
+    }
+    return dataConverter.convertToUploadSessionDto(uploadSession);
+  }
+
+  /**
+   * Returns the upload session with the specified ID.
+   * The received chunks are the number of the chunk to resume the upload from.
+   *
+   * @param id the ID of the upload session.
+   * @return the upload session state.
+   */
+  @Override
+  public UploadSessionDto findUploadSessionById(String id) {
+    return dataConverter.convertToUploadSessionDto(getUploadSession(id));
+  }
+
+  /**
+   * Completes the upload session and queues processing of the uploaded document.
+   * The spooled file is deleted when the upload job finishes. If the job is rejected,
+   * the session is kept, so the commit can be repeated.
+   *
+   * @param id the ID of the upload session.
+   * @param chunks the number of the chunks the document is sent by.
+   * @return the queued upload job.
+   */
+  @Override
+  public UploadJobDto commitUploadSession(String id, int chunks) {
+    UploadSession uploadSession = getUploadSession(id);
+    synchronized (uploadSession) {
+      if (chunks != uploadSession.getReceivedChunks()) {
+        throw new ValidationException(String.format("%d of %d chunks are received",
+            uploadSession.getReceivedChunks(), chunks));
+      }
+      uploadSessionCache.invalidate(id);
+      try {
+        return uploadJobService.submitDocument(uploadSession.getSpooledFile(),
+            uploadSession.getFileName(), getAuthentication(),
+            uploadJob -> deleteSpooledDocument(uploadSession.getSpooledFile()));
+      } catch (TaskRejectedException e) {
+        uploadSessionCache.put(id, uploadSession);
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Cancels the upload session and deletes its spooled file.
+   *
+   * @param id the ID of the upload session.
+   */
+  @Override
+  public void deleteUploadSession(String id) {
+    UploadSession uploadSession = getUploadSession(id);
+    synchronized (uploadSession) {
+      uploadSessionCache.invalidate(id);
+      deleteSpooledDocument(uploadSession.getSpooledFile());
+    }
+  }
+
+  /**
+   * Evicts the expired upload sessions, so their spooled files are deleted
+   * even if no upload is made.
+   */
+  @Scheduled(fixedDelay = CLEAN_UP_INTERVAL_MS)
+  public void cleanUpExpiredSessions() {
+    uploadSessionCache.cleanUp();
+  }
+
+  /**
+   * Returns the upload session of the current user.
+   *
+   * @param id the ID of the upload session.
+   * @return the upload session.
+   */
+  private UploadSession getUploadSession(String id) {
+    UploadSession uploadSession = uploadSessionCache.getIfPresent(id);
+    if (uploadSession == null) {
+      throw new EntityNotFoundException(
+          String.format("Upload session with id: %s is not found", id));
+    }
+    if (!uploadSession.getUsername().equals(getAuthentication().getName())) {
+      throw new PermissionException("Upload session is created by another user");
+    }
+    return uploadSession;
+  }
+
+  /**
+   * Writes the chunk at the end of the received bytes.
+   * The chunk is copied by the small buffer, the part of the interrupted chunk
+   * or of the chunk written before is overwritten and truncated.
+   *
+   * @param uploadSession the upload session.
+   * @param chunk the chunk's content.
+   * @return the size of the spooled file with the chunk.
+   */
+  private long writeChunk(UploadSession uploadSession, InputStream chunk) {
+    try (FileChannel channel = FileChannel.open(uploadSession.getSpooledFile(),
+        StandardOpenOption.WRITE)) {
+      channel.position(uploadSession.getReceivedBytes());
+      try {
+        chunk.transferTo(Channels.newOutputStream(channel));
+      } catch (IOException e) {
+        channel.truncate(uploadSession.getReceivedBytes());
+        throw e;
+      }
+      channel.truncate(channel.position());
+      return channel.position();
+    } catch (IOException e) {
+      throw new FileReadingException("An error occurred while reading chunk: ", e);
+    }
+  }
+
+  /**
+   * Deletes spooled document.
+   *
+   * @param spooledFile path of the spooled document.
+   */
+  private void deleteSpooledDocument(Path spooledFile) {
+    try {
+      Files.deleteIfExists(spooledFile);
+    } catch (IOException e) {
+      log.warn("Spooled document {} cannot be deleted", spooledFile, e);
+    }
+  }
+
+  /**
+   * Returns the authentication of the current user.
+   *
+   * @return the current authentication.
+   */
+  private Authentication getAuthentication() {
+    return SecurityContextHolder.getContext().getAuthentication();
+  }
+}
@@ -0,0 +1,50 @@
+package com.syberry.poc.data.util;
+
+import com.syberry.poc.data.dto.enums.WeekDay;
+import com.syberry.poc.data.model.DateValues;
+import java.text.ParsePosition;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Locale;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Utility class for parsing the pedestrian and bicyclist documents dates,
+ * such as "Thu, Apr 27, 2023".
+ * The parsing is as lenient as it was with SimpleDateFormat: the day of week text and
+ * the text after the year are ignored, and overflowing days roll over to the next month.
+ */
+@UtilityClass
+public class DateValuesParser {
+  private static final DateTimeFormatter DATE_FORMATTER = new DateTimeFormatterBuilder()
+      .parseCaseInsensitive()
+      .parseLenient()
+      .appendPattern("EEE, MMM d, yyyy")
+      .toFormatter(Locale.US);
+
+  /**
+   * Parses the date value.
+   * The week day is taken by the Sunday-first day of week index, as it was with Calendar.
+   *
+   * @param dateValue the date value.
+   * @return the parsed date values.
+   * @throws java.time.DateTimeException if the value is not a valid date.
+   */
+  public static DateValues parse(String dateValue) {
+    ParsePosition position = new ParsePosition(0);
+    TemporalAccessor fields = DATE_FORMATTER.parseUnresolved(dateValue, position);
+    if (fields == null || position.getErrorIndex() >= 0) {
+      throw new DateTimeParseException("Invalid date", dateValue,
+          Math.max(position.getErrorIndex(), 0));
+    }
+    LocalDate date = LocalDate.of((int) fields.getLong(ChronoField.YEAR_OF_ERA), 1, 1)
+        .plusMonths(fields.getLong(ChronoField.MONTH_OF_YEAR) - 1)
+        .plusDays(fields.getLong(ChronoField.DAY_OF_MONTH) - 1);
+    WeekDay weekDay = WeekDay.values()[date.getDayOfWeek().getValue() % 7];
+    return new DateValues(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), weekDay);
+  }
+}
@@ -0,0 +1,133 @@
+package com.syberry.poc.data.util;
+
+import java.util.Arrays;
+
+/**
+ * Lookup table from the document's tokens to the enum constants, built once from the enum values.
+ * Tokens are matched the way they were matched with valueOf: case-insensitively, with runs of
+ * dashes, slashes and whitespaces standing for an underscore. The matching uses neither regular
+ * expressions nor exceptions and allocates nothing: the token is compared with each of the few
+ * constants names in place. Unknown tokens are mapped to null.
+ *
+ * @param <E> the enum type.
+ */
+public final class EnumLookup<E extends Enum<E>> {
+  private final String[] names;
+  private final E[] constants;
+
+  private EnumLookup(String[] names, E[] constants) {
+    this.names = names;
+    this.constants = constants;
+  }
+
+  /**
+   * Builds the lookup table for the enum constants names.
+   *
+   * @param enumType the enum class.
+   * @param <E> the enum type.
+   * @return the lookup table.
+   */
+  public static <E extends Enum<E>> EnumLookup<E> of(Class<E> enumType) {
+    E[] constants = enumType.getEnumConstants();
+    String[] names = new String[constants.length];
+    for (int i = 0; i < constants.length; i++) {
+      names[i] = constants[i].name();
+    }
+    return new EnumLookup<>(names, constants);
+  }
+
+  /**
+   * Returns the lookup table that also maps the alias token to the constant.
+   *
+   * @param token the alias token.
+   * @param constant the enum constant.
+   * @return the lookup table.
+   */
+  public EnumLookup<E> withAlias(String token, E constant) {
+    String[] aliasedNames = Arrays.copyOf(names, names.length + 1);
+    E[] aliasedConstants = Arrays.copyOf(constants, constants.length + 1);
+    aliasedNames[names.length] = normalize(token);
+    aliasedConstants[constants.length] = constant;
+    return new EnumLookup<>(aliasedNames, aliasedConstants);
+  }
+
+  /**
+   * Finds the enum constant matching the token.
+   *
+   * @param token the document's token.
+   * @return the enum constant, or null if the token is null or unknown.
+   */
+  public E find(String token) {
+    if (token == null) {
+      return null;
+    }
+    for (int i = 0; i < names.length; i++) {
+      if (matches(names[i], token)) {
+        return constants[i];
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks whether the token normalizes to the name without building the normalized token.
+   *
+   * @param name the normalized name.
+   * @param token the document's token.
+   * @return true if the token matches the name.
+   */
+  private static boolean matches(String name, String token) {
+    int nameIndex = 0;
+    int tokenIndex = 0;
+    while (tokenIndex < token.length()) {
+      if (nameIndex == name.length()) {
+        return false;
+      }
+      char character = token.charAt(tokenIndex++);
+      if (isSeparator(character)) {
+        while (tokenIndex < token.length() && isSeparator(token.charAt(tokenIndex))) {
+          tokenIndex++;
+        }
+        character = '_';
+      }
+      if (Character.toUpperCase(character) != name.charAt(nameIndex++)) {
+        return false;
+      }
+    }
+    return nameIndex == name.length();
+  }
+
+  /**
+   * Upper-cases the token and replaces runs of dashes, slashes and whitespaces with an underscore.
+   *
+   * @param token the token.
+   * @return the normalized token.
+   */
+  private static String normalize(String token) {
+    StringBuilder normalizedToken = new StringBuilder(token.length());
+    boolean separator = false;
+    for (int i = 0; i < token.length(); i++) {
+      char character = token.charAt(i);
+      if (isSeparator(character)) {
+        if (!separator) {
+          normalizedToken.append('_');
+          separator = true;
+        }
+      } else {
+        normalizedToken.append(Character.toUpperCase(character));
+        separator = false;
+      }
+    }
+    return normalizedToken.toString();
+  }
+
+  /**
+   * Checks whether the character separates the words of the token.
+   *
+   * @param character the token's character.
+   * @return true for dashes, slashes and whitespaces.
+   */
+  private static boolean isSeparator(char character) {
+    return character == '-' || character == '/' || Character.isWhitespace(character);
+  }
+}
@@ -1,5 +1,6 @@
 package com.syberry.poc.data.util;
 
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -18,12 +19,38 @@ public class HashCalculator {
    * @return the calculated hash value as a Long
    */
   public static Long calculateHash(String string) {
+    return calculateHash(string, HashAlgorithm.SHA_256);
+  }
+
+  /**
+   * Calculates the hash value of a given string using the given algorithm.
+   * Documents uploaded before the algorithm was recorded are hashed with SHA-256,
+   * so null algorithm stands for SHA-256.
+   *
+   * @param string the input string to calculate the hash value for
+   * @param algorithm the hash algorithm of the document
+   * @return the calculated hash value as a Long
+   */
+  public static Long calculateHash(String string, HashAlgorithm algorithm) {
     if (string == null) {
       return null;
     }
+    byte[] encodedString = string.getBytes(StandardCharsets.UTF_8);
+    if (algorithm == HashAlgorithm.XX_HASH_64) {
+      return XxHash64.hash(encodedString);
+    }
+    return calculateSha256Hash(encodedString);
+  }
+
+  /**
+   * Calculates the hash value as the first 8 bytes of the SHA-256 digest.
+   *
+   * @param encodedString the input bytes to calculate the hash value for
+   * @return the calculated hash value
+   */
+  private static long calculateSha256Hash(byte[] encodedString) {
     try {
       MessageDigest digest = MessageDigest.getInstance("SHA-256");
-      byte[] encodedString = string.getBytes(StandardCharsets.UTF_8);
       byte[] hashBytes = digest.digest(encodedString);
       long hash = 0;
       for (int i = 0; i < 8; i++) {
@@ -0,0 +1,70 @@
+package com.syberry.poc.data.util;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Utility class for parsing the document's numeric values without exceptions.
+ */
+@UtilityClass
+public class NumberParser {
+  private static final int MAX_EXACT_MANTISSA = 1 << 24;
+  private static final float[] POWERS_OF_TEN = {
+      1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+  /**
+   * Parses the decimal value such as "-86.5123".
+   * Short values are computed with a single float division, which is exact
+   * for mantissas up to 2^24 and powers of ten up to 10^10, the longer values are
+   * parsed by Float.parseFloat once they are checked to be valid.
+   *
+   * @param value the value to parse.
+   * @return the parsed value, or null if the value is blank or not a decimal number.
+   */
+  public static Float parseFloat(String value) {
+    if (value == null) {
+      return null;
+    }
+    int start = 0;
+    int end = value.length();
+    while (start < end && Character.isWhitespace(value.charAt(start))) {
+      start++;
+    }
+    while (end > start && Character.isWhitespace(value.charAt(end - 1))) {
+      end--;
+    }
+    int index = start;
+    boolean negative = false;
+    if (index < end && (value.charAt(index) == '-' || value.charAt(index) == '+')) {
+      negative = value.charAt(index) == '-';
+      index++;
+    }
+    long mantissa = 0;
+    int digits = 0;
+    int fractionDigits = 0;
+    boolean point = false;
+    for (; index < end; index++) {
+      char character = value.charAt(index);
+      if (character >= '0' && character <= '9') {
+        if (digits < 18) {
+          mantissa = mantissa * 10 + (character - '0');
+        }
+        digits++;
+        if (point) {
+          fractionDigits++;
+        }
+      } else if (character == '.' && !point) {
+        point = true;
+      } else {
+        return null;
+      }
+    }
+    if (digits == 0) {
+      return null;
+    }
+    if (mantissa <= MAX_EXACT_MANTISSA && digits < 18 && fractionDigits < POWERS_OF_TEN.length) {
+      float result = mantissa / POWERS_OF_TEN[fractionDigits];
+      return negative ? -result : result;
+    }
+    return Float.parseFloat(value.substring(start, end));
+  }
+}
@@ -0,0 +1,35 @@
+package com.syberry.poc.data.util;
+
+import java.util.regex.Pattern;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Utility class for prettifying string data.
+ */
+@UtilityClass
+public class StringPrettifier {
+  private static final Pattern SPACES = Pattern.compile(PatternConstants.SPACES_PATTERN);
+
+  /**
+   * Converts a string value into a prettified version by capitalizing
+   *    each word and separating them with underscores.
+   *
+   * @param value to convert.
+   * @return converted string value.
+   */
+  public static String prettify(String value) {
+    String trimmedValue = value.trim();
+    if (trimmedValue.isEmpty()) {
+      return trimmedValue;
+    }
+    StringBuilder prettifiedValue = new StringBuilder(trimmedValue.length());
+    for (String word : SPACES.split(trimmedValue)) {
+      if (prettifiedValue.length() > 0) {
+        prettifiedValue.append('_');
+      }
+      prettifiedValue.append(word.substring(0, 1).toUpperCase())
+          .append(word.substring(1).toLowerCase());
+    }
+    return prettifiedValue.toString();
+  }
+}
@@ -0,0 +1,106 @@
+package com.syberry.poc.data.util;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Utility class implementing the 64-bit xxHash algorithm (XXH64) with zero seed.
+ */
+@UtilityClass
+public class XxHash64 {
+  private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+  private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long PRIME_3 = 0x165667B19E3779F9L;
+  private static final long PRIME_4 = 0x85EBCA77C2B2AE63L;
+  private static final long PRIME_5 = 0x27D4EB2F165667C5L;
+  private static final int STRIPE_LENGTH = 32;
+
+  /**
+   * Calculates the hash value of the given bytes.
+   *
+   * @param input the bytes to calculate the hash value for
+   * @return the calculated hash value
+   */
+  public static long hash(byte[] input) {
+    int length = input.length;
+    int offset = 0;
+    long hash;
+
+    if (length >= STRIPE_LENGTH) {
+      long v1 = PRIME_1 + PRIME_2;
+      long v2 = PRIME_2;
+      long v3 = 0;
+      long v4 = -PRIME_1;
+      int limit = length - STRIPE_LENGTH;
+      do {
+        v1 = round(v1, readLong(input, offset));
+        v2 = round(v2, readLong(input, offset + 8));
+        v3 = round(v3, readLong(input, offset + 16));
+        v4 = round(v4, readLong(input, offset + 24));
+        offset += STRIPE_LENGTH;
+      } while (offset <= limit);
+
+      hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+          + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+      hash = mergeRound(hash, v1);
+      hash = mergeRound(hash, v2);
+      hash = mergeRound(hash, v3);
+      hash = mergeRound(hash, v4);
+    } else {
+      hash = PRIME_5;
+    }
+
+    hash += length;
+
+    while (offset + 8 <= length) {
+      hash ^= round(0, readLong(input, offset));
+      hash = Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_4;
+      offset += 8;
+    }
+    if (offset + 4 <= length) {
+      hash ^= (readInt(input, offset) & 0xFFFFFFFFL) * PRIME_1;
+      hash = Long.rotateLeft(hash, 23) * PRIME_2 + PRIME_3;
+      offset += 4;
+    }
+    while (offset < length) {
+      hash ^= (input[offset] & 0xFF) * PRIME_5;
+      hash = Long.rotateLeft(hash, 11) * PRIME_1;
+      offset++;
+    }
+
+    hash ^= hash >>> 33;
+    hash *= PRIME_2;
+    hash ^= hash >>> 29;
+    hash *= PRIME_3;
+    hash ^= hash >>> 32;
+    return hash;
+  }
+
+  private static long round(long accumulator, long input) {
+    accumulator += input * PRIME_2;
+    accumulator = Long.rotateLeft(accumulator, 31);
+    return accumulator * PRIME_1;
+  }
+
+  private static long mergeRound(long accumulator, long value) {
+    accumulator ^= round(0, value);
+    return accumulator * PRIME_1 + PRIME_4;
+  }
+
+  private static long readLong(byte[] input, int offset) {
+    return (input[offset] & 0xFFL)
+        | (input[offset + 1] & 0xFFL) << 8
+        | (input[offset + 2] & 0xFFL) << 16
+        | (input[offset + 3] & 0xFFL) << 24
+        | (input[offset + 4] & 0xFFL) << 32
+        | (input[offset + 5] & 0xFFL) << 40
+        | (input[offset + 6] & 0xFFL) << 48
+        | (input[offset + 7] & 0xFFL) << 56;
+  }
+
+  private static int readInt(byte[] input, int offset) {
+    return (input[offset] & 0xFF)
+        | (input[offset + 1] & 0xFF) << 8
+        | (input[offset + 2] & 0xFF) << 16
+        | (input[offset + 3] & 0xFF) << 24;
+  }
+}
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.validation.ConstraintViolationException;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -71,6 +72,23 @@ public class GlobalExceptionHandler extends Exception {
         HttpStatus.UNPROCESSABLE_ENTITY);
   }
 
+  /**
+   * Handles rejected background tasks.
+   * Returns an HTTP Service Unavailable (503) status code.
+   *
+   * @param ex the exception to handle
+   * @return an HTTP response entity containing the errors
+   */
+  @ExceptionHandler({
+      TaskRejectedException.class
+  })
+  public final ResponseEntity<Map<String, List<String>>> rejectedTaskExceptionHandler(
+      Exception ex) {
+    List<String> errors = Collections.singletonList("Server is busy, please try again later");
+    return new ResponseEntity<>(getErrorsMap(errors), new HttpHeaders(),
+        HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
   /**
    * Handles validation errors when the request body fails validation.
    * Returns an HTTP Bad Request (400) status code.
@@ -0,0 +1,218 @@
+package data.benchmark;
+
+import com.google.common.collect.Lists;
+import com.syberry.poc.data.database.entity.CrashData;
+import com.syberry.poc.data.database.entity.Document;
+import com.syberry.poc.data.database.repository.BatchInsertRepository;
+import com.syberry.poc.data.database.repository.BulkLoadRepository;
+import com.syberry.poc.data.dto.enums.InjuryType;
+import com.syberry.poc.data.dto.enums.Weekend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Compares the row by row inserts Hibernate issues for IDENTITY ids with the JDBC batch path
+ * and the bulk load of a CSV file through a staging table.
+ * Reports rows per second. Runs against in-memory H2 in MySQL mode; the network round trip
+ * to a remote MySQL server is simulated with a fixed delay per executed statement or batch,
+ * as with rewriteBatchedStatements the driver sends a whole batch as one multi-row INSERT.
+ * H2 reads the staging file with CSVREAD instead of LOAD DATA LOCAL INFILE, so the bulk load
+ * only shows the cost of the file and the set-based statements, not MySQL's load speed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BatchInsertBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchInsertBenchmark {
+  static final int ROWS = 10000;
+  private static final int CHUNK_SIZE = 1000;
+  private static final String CRASH_DATA_TABLE = "CREATE TABLE `crash_data` ("
+      + "`id` BIGINT AUTO_INCREMENT PRIMARY KEY, `year` INT NOT NULL, `month` INT NOT NULL, "
+      + "`day` INT NOT NULL, `hour` INT NOT NULL, `weekend` VARCHAR(255), "
+      + "`collision_type` VARCHAR(255) NOT NULL, `collision_type_hash` BIGINT, "
+      + "`primary_factor` VARCHAR(255), `primary_factor_hash` BIGINT, "
+      + "`injury_type` VARCHAR(255) NOT NULL, `reported_location` VARCHAR(255), "
+      + "`reported_location_hash` BIGINT, `latitude` FLOAT, `longitude` FLOAT, "
+      + "`document_id` BIGINT NOT NULL)";
+
+  @Param({"0", "200"})
+  private long roundTripMicros;
+  private Path spoolDirectory;
+  private SingleConnectionDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+  private BatchInsertRepository batchInsertRepository;
+  private BulkLoadRepository bulkLoadRepository;
+  private final List<CrashData> entities = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    DriverManagerDataSource driverDataSource = new DriverManagerDataSource(
+        "jdbc:h2:mem:batch;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+    try {
+      dataSource = new SingleConnectionDataSource(
+          withRoundTrips(driverDataSource.getConnection()), true);
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute(CRASH_DATA_TABLE);
+    batchInsertRepository = new BatchInsertRepository(jdbcTemplate);
+    bulkLoadRepository = new BulkLoadRepository(jdbcTemplate,
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+    try {
+      spoolDirectory = Files.createTempDirectory("bulk-load-");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    ReflectionTestUtils.setField(bulkLoadRepository, "spoolDirectory", spoolDirectory.toString());
+
+    Document document = Document.builder().id(1L).build();
+    for (int i = 0; i < ROWS; i++) {
+      entities.add(CrashData.builder()
+          .year(2023).month(4).day(i % 28 + 1).hour(i % 24)
+          .weekend(Weekend.WEEKDAY)
+          .collisionType("Rear_End").collisionTypeHash((long) i)
+          .primaryFactor("Distracted_Driving").primaryFactorHash((long) i)
+          .injuryType(InjuryType.NO_INJURY_UNKNOWN)
+          .reportedLocation("Main_Street_" + i).reportedLocationHash((long) i)
+          .latitude(37.7749f).longitude(-122.4194f)
+          .document(document)
+          .build());
+    }
+  }
+
+  @TearDown(Level.Iteration)
+  public void truncate() {
+    jdbcTemplate.execute("TRUNCATE TABLE `crash_data`");
+  }
+
+  @TearDown
+  public void tearDown() {
+    jdbcTemplate.execute("DROP TABLE `crash_data`");
+    dataSource.destroy();
+    try {
+      Files.deleteIfExists(spoolDirectory);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * The statements JPA issues for entities with IDENTITY ids: one INSERT per row
+   * followed by reading the generated key, all in one transaction.
+   */
+  @Benchmark
+  public long rowByRowIdentityInsert() throws SQLException {
+    long lastId = 0;
+    Connection connection = dataSource.getConnection();
+    connection.setAutoCommit(false);
+    for (CrashData entity : entities) {
+      try (PreparedStatement statement = connection.prepareStatement(
+          BatchInsertRepository.CRASH_DATA_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+        BatchInsertRepository.setCrashDataValues(statement, entity);
+        statement.executeUpdate();
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+          keys.next();
+          lastId = keys.getLong(1);
+        }
+      }
+    }
+    connection.commit();
+    connection.setAutoCommit(true);
+    return lastId;
+  }
+
+  /**
+   * The JDBC batch path in the chunks of the default ingestion chunk size.
+   */
+  @Benchmark
+  public void jdbcBatchInsert() {
+    for (List<CrashData> chunk : Lists.partition(entities, CHUNK_SIZE)) {
+      batchInsertRepository.insertCrashData(chunk);
+    }
+  }
+
+  @Benchmark
+  public int stagingTableLoad() {
+    return bulkLoadRepository.loadCrashData(entities.stream(), 1L);
+  }
+
+  /**
+   * Wraps the connection so that every statement execution waits for the simulated round trip.
+   */
+  private Connection withRoundTrips(Connection connection) {
+    return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+          Object result = invoke(connection, method, args);
+          if (result instanceof Statement) {
+            Statement statement = (Statement) result;
+            return Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {statement instanceof PreparedStatement
+                    ? PreparedStatement.class : Statement.class},
+                (statementProxy, statementMethod,
+                    statementArgs) -> {
+                  if (statementMethod.getName().startsWith("execute")) {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+                  }
+                  return invoke(statement, statementMethod, statementArgs);
+                });
+          }
+          return result;
+        });
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(BatchInsertBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -0,0 +1,254 @@
+package data.benchmark;
+
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
+import com.syberry.poc.data.dto.enums.Tag;
+import com.syberry.poc.data.model.ColumnSchema;
+import com.syberry.poc.data.model.DocumentTable;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.model.ValueDictionary;
+import com.syberry.poc.data.service.impl.DataMapperServiceImpl;
+import com.syberry.poc.data.service.impl.DataProcessingAlgorithmsServiceImpl;
+import com.syberry.poc.data.util.PatternConstants;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Compares the column processing of a 1M-row synthetic crash document with the tags
+ * looked up for every cell (the previous implementation, copied below) and with the
+ * processing plan compiled once per document, sequentially and in parallel on all cores.
+ * The compiled plan is measured without and with the per-upload dictionary memoizing
+ * the prettified string values.
+ * Every row is copied before processing: the previous implementation gets hash map rows,
+ * the compiled plan gets schema-indexed rows. The copying cost alone is reported by
+ * the rowsCopyOnly and schemaRowsCopyOnly baselines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ColumnProcessingBenchmark {
+  private static final int ROWS = 1_000_000;
+  private static final int DISTINCT_ROWS = 10_000;
+  private static final int VALUE_DICTIONARY_SIZE = 10_000;
+  private static final List<String> HEADERS = List.of("master_record_number", "year", "month",
+      "day", "weekend", "hour", "collision_type", "injury_type", "primary_factor",
+      "reported_location", "latitude", "longitude");
+  private static final ColumnSchema SCHEMA = new ColumnSchema(HEADERS);
+  private static final String[] STREETS = {"main street", "  OAK   avenue ", "n/a", "",
+      "state road 46", "null", "E 3RD ST", "kirkwood ave & dunn st"};
+
+  private final DataProcessingAlgorithmsServiceImpl dataProcessingAlgorithmsService =
+      new DataProcessingAlgorithmsServiceImpl();
+  private final DataProcessingAlgorithmsServiceImpl parallelProcessingAlgorithmsService =
+      new DataProcessingAlgorithmsServiceImpl();
+  private ForkJoinPool cleaningForkJoinPool;
+  private Map<String, List<Tag>> tags;
+  private final List<Map<String, String>> templateRows = new ArrayList<>();
+  private final List<String[]> templateValues = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    tags = new DataMapperServiceImpl().mapColumns(SCHEMA);
+    cleaningForkJoinPool = new ForkJoinPool();
+    parallelProcessingAlgorithmsService.setParallelCleaning(true);
+    parallelProcessingAlgorithmsService.setCleaningChunkSize(10_000);
+    parallelProcessingAlgorithmsService.setCleaningForkJoinPool(cleaningForkJoinPool);
+    Random random = new Random(42);
+    for (int i = 0; i < DISTINCT_ROWS; i++) {
+      Map<String, String> row = new HashMap<>();
+      row.put("master_record_number", String.valueOf(900000000 + i));
+      row.put("year", String.valueOf(2003 + random.nextInt(13)));
+      row.put("month", String.valueOf(1 + random.nextInt(12)));
+      row.put("day", String.valueOf(1 + random.nextInt(7)));
+      row.put("weekend", random.nextBoolean() ? "weekday" : "weekend");
+      row.put("hour", random.nextInt(50) == 0 ? "" : String.valueOf(random.nextInt(24) * 100));
+      row.put("collision_type", random.nextBoolean() ? "2-car" : "1-car");
+      row.put("injury_type", random.nextBoolean() ? "no injury/unknown" : "non-incapacitating");
+      row.put("primary_factor", random.nextInt(20) == 0 ? "null"
+          : "failure to yield right of way");
+      row.put("reported_location", STREETS[random.nextInt(STREETS.length)]);
+      row.put("latitude", "39.1" + random.nextInt(10000));
+      row.put("longitude", "-86.5" + random.nextInt(10000));
+      templateRows.add(row);
+      templateValues.add(HEADERS.stream().map(row::get).toArray(String[]::new));
+    }
+  }
+
+  @Benchmark
+  public void rowsCopyOnly(Blackhole blackhole) {
+    documentRows().forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public void schemaRowsCopyOnly(Blackhole blackhole) {
+    documentTable().getRows().forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public void tagsLookupPerCell(Blackhole blackhole) {
+    documentRows()
+        .map(row -> LegacyProcessing.reformatNullValues(
+            LegacyProcessing.clearTableRow(row, tags), tags))
+        .filter(row -> LegacyProcessing.proceedTableRow(row, tags))
+        .forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public void compiledProcessingPlan(Blackhole blackhole) {
+    dataProcessingAlgorithmsService.applyProcessingAlgorithms(documentTable(), tags,
+            new ValueDictionary(HashAlgorithm.XX_HASH_64, 0))
+        .getRows()
+        .forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public void compiledProcessingPlanWithValueDictionary(Blackhole blackhole) {
+    dataProcessingAlgorithmsService.applyProcessingAlgorithms(documentTable(), tags,
+            new ValueDictionary(HashAlgorithm.XX_HASH_64, VALUE_DICTIONARY_SIZE))
+        .getRows()
+        .forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public void parallelCompiledProcessingPlan(Blackhole blackhole) {
+    parallelProcessingAlgorithmsService.applyProcessingAlgorithms(documentTable(), tags,
+            new ValueDictionary(HashAlgorithm.XX_HASH_64, VALUE_DICTIONARY_SIZE))
+        .getRows()
+        .forEach(blackhole::consume);
+  }
+
+  @TearDown
+  public void tearDown() {
+    cleaningForkJoinPool.shutdown();
+  }
+
+  private Stream<Map<String, String>> documentRows() {
+    return IntStream.range(0, ROWS)
+        .mapToObj(i -> new HashMap<>(templateRows.get(i % DISTINCT_ROWS)));
+  }
+
+  private DocumentTable documentTable() {
+    return new DocumentTable(SCHEMA, IntStream.range(0, ROWS)
+        .mapToObj(i -> new Row(SCHEMA, templateValues.get(i % DISTINCT_ROWS).clone())));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(ColumnProcessingBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+
+  /**
+   * The column processing as it was before the processing plan was introduced.
+   */
+  private static final class LegacyProcessing {
+    private static final String STRING_NULL_VALUE = "No_Data";
+    private static final String INTEGER_NULL_VALUE = "0";
+
+    private static boolean isObligatoryColumnsFulfilled(
+        Map<String, String> row, Map<String, List<Tag>> tags) {
+      for (Map.Entry<String, List<Tag>> entry : tags.entrySet()) {
+        String columnName = entry.getKey();
+        List<Tag> columnTags = entry.getValue();
+        boolean isObligatory = columnTags
+            .stream()
+            .anyMatch(tag -> tag == Tag.OBLIGATORY);
+        if (isObligatory && (StringUtils.isBlank(row.get(columnName))
+            || row.get(columnName).equals(INTEGER_NULL_VALUE)
+            || row.get(columnName).equals(STRING_NULL_VALUE))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static Map<String, String> clearTableRow(
+        Map<String, String> row, Map<String, List<Tag>> tags) {
+      row.keySet().removeIf(columnName -> !tags.containsKey(columnName));
+      return row;
+    }
+
+    private static boolean proceedTableRow(Map<String, String> row, Map<String, List<Tag>> tags) {
+      if (!isObligatoryColumnsFulfilled(row, tags)) {
+        return false;
+      }
+      for (Map.Entry<String, String> entry : row.entrySet()) {
+        String columnName = entry.getKey();
+        String columnValue = entry.getValue();
+        if (tags.containsKey(columnName) && tags.get(columnName).contains(Tag.STRING)) {
+          entry.setValue(prettifyStringData(columnValue));
+        } else if (tags.containsKey(columnName) && tags.get(columnName).contains(Tag.TIME)) {
+          if (!containsNumeric(columnValue)
+              || Integer.parseInt(columnValue) > 2400 || Integer.parseInt(columnValue) < 0) {
+            return false;
+          }
+        } else if (tags.containsKey(columnName) && tags.get(columnName).contains(Tag.INT)) {
+          if (!containsNumeric(columnValue)) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+
+    private static Map<String, String> reformatNullValues(
+        Map<String, String> row, Map<String, List<Tag>> tags) {
+      for (Map.Entry<String, String> cell : row.entrySet()) {
+        String columnName = cell.getKey();
+        String cellValue = cell.getValue();
+        List<Tag> columnTags = tags.get(columnName);
+        if (cellValue.equalsIgnoreCase("null") || cellValue.isEmpty()
+            || cellValue.equalsIgnoreCase("n/a")) {
+          if (columnTags.contains(Tag.STRING)) {
+            cell.setValue(STRING_NULL_VALUE);
+          } else if (columnTags.contains(Tag.INT)) {
+            cell.setValue(INTEGER_NULL_VALUE);
+          }
+        }
+      }
+      return row;
+    }
+
+    private static boolean containsNumeric(String value) {
+      return value.matches(PatternConstants.NUMERIC_PATTERN);
+    }
+
+    private static String prettifyStringData(String value) {
+      if (!value.isEmpty()) {
+        return Arrays.stream(value.trim().split(PatternConstants.SPACES_PATTERN))
+            .map(word -> word.substring(0, 1).toUpperCase() + word.substring(1).toLowerCase())
+            .collect(Collectors.joining("_"));
+      } else {
+        return value;
+      }
+    }
+  }
+}
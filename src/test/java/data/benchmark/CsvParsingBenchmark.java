@@ -0,0 +1,94 @@
+package data.benchmark;
+
+import com.syberry.poc.data.model.CsvDocument;
+import com.syberry.poc.data.service.impl.CsvParsingServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the sequential parsing of a 1M-record crash document
+ * with the parallel parsing of its chunks on all available processors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CsvParsingBenchmark {
+  private static final int RECORDS = 1_000_000;
+  private static final int CHUNK_SIZE = 8 * 1024 * 1024;
+
+  private final ForkJoinPool parsingForkJoinPool = new ForkJoinPool();
+  private final CsvParsingServiceImpl sequentialParsingService = new CsvParsingServiceImpl();
+  private final CsvParsingServiceImpl parallelParsingService = new CsvParsingServiceImpl();
+  private Path document;
+
+  @Setup
+  public void setup() throws IOException {
+    document = Files.createTempFile("crash-data-", ".csv");
+    Random random = new Random(42);
+    try (BufferedWriter writer = Files.newBufferedWriter(document)) {
+      writer.write("Master Record Number,Year,Month,Day,Weekend?,Hour,Collision Type,"
+          + "Injury Type,Primary Factor,Reported_Location,Latitude,Longitude\n");
+      for (int i = 0; i < RECORDS; i++) {
+        writer.write(i + ",2015," + (random.nextInt(12) + 1) + "," + (random.nextInt(7) + 1)
+            + ",Weekday," + random.nextInt(24) * 100 + ",2-Car,No injury/unknown,"
+            + "\"FAILURE TO YIELD, RIGHT OF WAY\",\"E 3RD ST & S DUNN ST\","
+            + "39.1" + random.nextInt(10000) + ",-86.5" + random.nextInt(10000) + "\n");
+      }
+    }
+    sequentialParsingService.setParsingChunkSize(CHUNK_SIZE);
+    parallelParsingService.setParsingChunkSize(CHUNK_SIZE);
+    parallelParsingService.setParsingForkJoinPool(parsingForkJoinPool);
+    parallelParsingService.setParallelParsing(true);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    parsingForkJoinPool.shutdown();
+    Files.delete(document);
+  }
+
+  @Benchmark
+  public long sequentialParsing() throws IOException {
+    return parse(sequentialParsingService);
+  }
+
+  @Benchmark
+  public long parallelParsing() throws IOException {
+    return parse(parallelParsingService);
+  }
+
+  private long parse(CsvParsingServiceImpl csvParsingService) throws IOException {
+    try (CsvDocument csvDocument = csvParsingService.parseCsvDocument(document)) {
+      return csvDocument.getRecords().count();
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(CsvParsingBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -0,0 +1,118 @@
+package data.benchmark;
+
+import com.syberry.poc.data.dto.enums.CsvTokenizer;
+import com.syberry.poc.data.dto.enums.DocumentType;
+import com.syberry.poc.data.model.CsvDocument;
+import com.syberry.poc.data.service.impl.CsvParsingServiceImpl;
+import com.syberry.poc.data.service.impl.DocumentConverterServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares commons-csv with the tokenizer of the memory-mapped document
+ * on 200K-record crash, traffic and pedestrian documents.
+ * The records are converted to the document's table rows, so only the converted columns
+ * are read from the tokenized records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvTokenizerBenchmark {
+  private static final int RECORDS = 200_000;
+
+  @Param({"CRASH", "TRAFFIC", "PEDESTRIAN"})
+  private DocumentType documentType;
+
+  @Param({"COMMONS_CSV", "MAPPED_BUFFER"})
+  private CsvTokenizer tokenizer;
+
+  private final CsvParsingServiceImpl csvParsingService = new CsvParsingServiceImpl();
+  private final DocumentConverterServiceImpl documentConverterService =
+      new DocumentConverterServiceImpl();
+  private Path document;
+
+  @Setup
+  public void setup() throws IOException {
+    document = Files.createTempFile(documentType.getType() + "-", ".csv");
+    Random random = new Random(42);
+    try (BufferedWriter writer = Files.newBufferedWriter(document)) {
+      writer.write(header());
+      for (int i = 0; i < RECORDS; i++) {
+        writer.write(record(i, random));
+      }
+    }
+    csvParsingService.setTokenizer(tokenizer);
+    csvParsingService.setParsingChunkSize(8 * 1024 * 1024);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.delete(document);
+  }
+
+  @Benchmark
+  public long parseToRows() throws IOException {
+    try (CsvDocument csvDocument = csvParsingService.parseCsvDocument(document)) {
+      return documentConverterService.prepareDocumentToProcessing(documentType.getType(),
+              csvDocument.getHeaderNames(), csvDocument.getRecords())
+          .getRows()
+          .count();
+    }
+  }
+
+  private String header() {
+    return switch (documentType) {
+      case CRASH -> "Master Record Number,Year,Month,Day,Weekend?,Hour,Collision Type,"
+          + "Injury Type,Primary Factor,Reported_Location,Latitude,Longitude\n";
+      case TRAFFIC -> "Location ID,County,Community,On,From,To,Approach,At,Directions,Dir,"
+          + "Category,LRS ID,LRS Loc Pt.,Latitude,Longitude,Latest,Latest Date\n";
+      case PEDESTRIAN -> "Date,BGT North of NE 70th Total,Ped South,Ped North,Bike North,"
+          + "Bike South\n";
+    };
+  }
+
+  private String record(int i, Random random) {
+    return switch (documentType) {
+      case CRASH -> i + ",2015," + (random.nextInt(12) + 1) + "," + (random.nextInt(7) + 1)
+          + ",Weekday," + random.nextInt(24) * 100 + ",2-Car,No injury/unknown,"
+          + "\"FAILURE TO YIELD, RIGHT OF WAY\",\"E 3RD ST & S DUNN ST\","
+          + "39.1" + random.nextInt(10000) + ",-86.5" + random.nextInt(10000) + "\n";
+      case TRAFFIC -> "L" + i + ",Monroe,Bloomington,\"KIRKWOOD AVE\",\"WALNUT ST\","
+          + "\"COLLEGE AVE\",East,\"Intersection\",Eastbound,2-way,Urban," + random.nextInt(99999)
+          + ",12.5,39.1" + random.nextInt(10000) + ",-86.5" + random.nextInt(10000) + ","
+          + random.nextInt(20000) + ",2021-06-0" + (random.nextInt(9) + 1) + "\n";
+      case PEDESTRIAN -> "\"Thu, Apr " + (random.nextInt(28) + 1) + ", 2023\","
+          + random.nextInt(500) + "," + random.nextInt(100) + "," + random.nextInt(100) + ",," + random.nextInt(300)
+          + "\n";
+    };
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(CsvTokenizerBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
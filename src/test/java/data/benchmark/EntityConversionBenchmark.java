@@ -0,0 +1,120 @@
+package data.benchmark;
+
+import com.syberry.poc.data.dto.enums.Direction;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
+import com.syberry.poc.data.dto.enums.InjuryType;
+import com.syberry.poc.data.dto.enums.Weekend;
+import com.syberry.poc.data.model.ValueDictionary;
+import com.syberry.poc.data.util.EnumLookup;
+import com.syberry.poc.data.util.NumberParser;
+import com.syberry.poc.data.util.PatternConstants;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the enum and coordinates conversion of the crash and traffic rows
+ * with valueOf after the regex replacements and Float.parseFloat (the previous implementation)
+ * and with the enum lookup tables and the non-throwing numeric parser,
+ * directly and memoized by the upload's value dictionary.
+ * Reports converted rows per microsecond.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(EntityConversionBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityConversionBenchmark {
+  static final int ROWS = 10_000;
+  private static final String[] DIRECTIONS = {"1-way", "2-way"};
+  private static final String[] INJURY_TYPES = {"Fatal", "Incapacitating",
+      "Non-incapacitating", "No_Injury/unknown"};
+  private static final String[] WEEKENDS = {"Weekday", "Weekend"};
+  private static final EnumLookup<InjuryType> INJURY_TYPE_LOOKUP = EnumLookup.of(InjuryType.class);
+  private static final EnumLookup<Weekend> WEEKEND_LOOKUP = EnumLookup.of(Weekend.class);
+  private static final EnumLookup<Direction> DIRECTION_LOOKUP = EnumLookup.of(Direction.class)
+      .withAlias("1-way", Direction.ONE_WAY)
+      .withAlias("2-way", Direction.TWO_WAY);
+
+  private final String[][] rows = new String[ROWS][];
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    for (int i = 0; i < ROWS; i++) {
+      rows[i] = new String[] {
+          DIRECTIONS[random.nextInt(DIRECTIONS.length)],
+          INJURY_TYPES[random.nextInt(INJURY_TYPES.length)],
+          WEEKENDS[random.nextInt(WEEKENDS.length)],
+          "39.1" + random.nextInt(10000),
+          "-86.5" + random.nextInt(10000)};
+    }
+  }
+
+  @Benchmark
+  public void valueOfWithRegex(Blackhole blackhole) {
+    for (String[] row : rows) {
+      blackhole.consume(Direction.valueOf(row[0]
+          .replace("1", "one")
+          .replace("2", "two")
+          .toUpperCase()
+          .replaceAll(PatternConstants.REPLACEMENT_PATTERN,
+              PatternConstants.REPLACE_WITH_PATTERN)));
+      blackhole.consume(InjuryType.valueOf(row[1]
+          .toUpperCase()
+          .replaceAll(PatternConstants.REPLACEMENT_PATTERN,
+              PatternConstants.REPLACE_WITH_PATTERN)));
+      blackhole.consume(Weekend.valueOf(row[2].toUpperCase()));
+      blackhole.consume(!StringUtils.isBlank(row[3]) ? Float.parseFloat(row[3]) : null);
+      blackhole.consume(!StringUtils.isBlank(row[4]) ? Float.parseFloat(row[4]) : null);
+    }
+  }
+
+  @Benchmark
+  public void lookupTables(Blackhole blackhole) {
+    for (String[] row : rows) {
+      blackhole.consume(DIRECTION_LOOKUP.find(row[0]));
+      blackhole.consume(INJURY_TYPE_LOOKUP.find(row[1]));
+      blackhole.consume(WEEKEND_LOOKUP.find(row[2]));
+      blackhole.consume(NumberParser.parseFloat(row[3]));
+      blackhole.consume(NumberParser.parseFloat(row[4]));
+    }
+  }
+
+  @Benchmark
+  public void lookupTablesWithValueDictionary(Blackhole blackhole) {
+    ValueDictionary valueDictionary = new ValueDictionary(HashAlgorithm.XX_HASH_64, 10_000);
+    for (String[] row : rows) {
+      blackhole.consume(valueDictionary.toEnum(Direction.class, row[0], DIRECTION_LOOKUP::find));
+      blackhole.consume(valueDictionary.toEnum(InjuryType.class, row[1],
+          INJURY_TYPE_LOOKUP::find));
+      blackhole.consume(valueDictionary.toEnum(Weekend.class, row[2], WEEKEND_LOOKUP::find));
+      blackhole.consume(NumberParser.parseFloat(row[3]));
+      blackhole.consume(NumberParser.parseFloat(row[4]));
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(EntityConversionBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -0,0 +1,57 @@
+package data.benchmark;
+
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
+import com.syberry.poc.data.util.HashCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the data hash columns algorithms on typical prettified cell values.
+ * Reports hashed values per microsecond.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(HashBenchmark.VALUES_COUNT)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashBenchmark {
+  static final int VALUES_COUNT = 8;
+  private static final String[] VALUES = {"Monroe", "Bloomington", "Failure_To_Yield_Right_Of_Way",
+      "2-car", "E_3rd_St_&_S_Dunn_St", "No_Data", "Kirkwood_Ave", "Northbound_And_Southbound"};
+
+  @Benchmark
+  public void sha256(Blackhole blackhole) {
+    for (String value : VALUES) {
+      blackhole.consume(HashCalculator.calculateHash(value, HashAlgorithm.SHA_256));
+    }
+  }
+
+  @Benchmark
+  public void xxHash64(Blackhole blackhole) {
+    for (String value : VALUES) {
+      blackhole.consume(HashCalculator.calculateHash(value, HashAlgorithm.XX_HASH_64));
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(HashBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
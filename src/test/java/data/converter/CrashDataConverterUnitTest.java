@@ -4,20 +4,29 @@ import com.syberry.poc.data.converter.DataConverter;
 import com.syberry.poc.data.database.entity.CrashData;
 import com.syberry.poc.data.database.entity.Document;
 import com.syberry.poc.data.dto.CrashDataDto;
+import com.syberry.poc.data.dto.enums.DocumentStatus;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
 import com.syberry.poc.data.dto.enums.InjuryType;
 import com.syberry.poc.data.dto.enums.Weekend;
+import com.syberry.poc.data.model.IngestionContext;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.model.ValueDictionary;
+import com.syberry.poc.data.service.SavingDataService;
+import com.syberry.poc.data.service.impl.CrashDataConverter;
 import com.syberry.poc.data.util.ColumnNameConstants;
 import com.syberry.poc.user.database.entity.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -25,12 +34,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 public class CrashDataConverterUnitTest {
     @InjectMocks
     private DataConverter dataConverter;
+    @Mock
+    private SavingDataService savingDataService;
     private final Map<String, String> crashDataRecord = new HashMap<>();
-    private final List<Map<String, String>> crashDataRecords = new ArrayList<>();
+    private final List<Row> crashDataRecords = new ArrayList<>();
     private final List<CrashData> crashDataEntities = new ArrayList<>();
     private final CrashData crashData = new CrashData();
     private final CrashDataDto crashDataDto = new CrashDataDto();
-    private final Document document = new Document(123L, LocalDateTime.now(), new User(), 3 );
+    private final Document document = new Document(123L, LocalDateTime.now(), new User(), 3,
+        DocumentStatus.COMPLETE, HashAlgorithm.SHA_256, null, null, null);
     @BeforeEach
     public void setUp() {
         Long id = 123456789L;
@@ -86,7 +98,7 @@ public class CrashDataConverterUnitTest {
         crashDataRecord.put(ColumnNameConstants.LATITUDE, Float.toString(latitude));
         crashDataRecord.put(ColumnNameConstants.LONGITUDE, Float.toString(longitude));
 
-        crashDataRecords.add(crashDataRecord);
+        crashDataRecords.add(Row.of(crashDataRecord));
         crashDataEntities.add(crashData);
     }
         @Test
@@ -99,7 +111,10 @@ public class CrashDataConverterUnitTest {
 
         @Test
         public void should_SuccessfullyConvertDocumentDataToCrashDataEntities() {
-            assertThat(dataConverter.convertToCrashDataList(crashDataRecords, document))
+            assertThat(new CrashDataConverter(savingDataService, dataConverter)
+                    .convert(crashDataRecords.stream(), new IngestionContext(document,
+                        new ValueDictionary(document.getHashAlgorithm(), crashDataRecords.size())))
+                    .collect(Collectors.toList()))
                     .usingRecursiveComparison()
                     .ignoringFields("id", "primaryFactorHash",
                         "collisionTypeHash", "reportedLocationHash")
@@ -3,6 +3,8 @@ package data.converter;
 import com.syberry.poc.data.converter.DataConverter;
 import com.syberry.poc.data.database.entity.Document;
 import com.syberry.poc.data.dto.DocumentDto;
+import com.syberry.poc.data.dto.enums.DocumentStatus;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
 import com.syberry.poc.user.database.entity.Role;
 import com.syberry.poc.user.database.entity.User;
 import com.syberry.poc.user.dto.enums.RoleName;
@@ -44,11 +46,15 @@ public class DocumentConverterUnitTest {
         document.setDateTime(dateTime);
         document.setUser(user);
         document.setProcessedRows(3);
+        document.setStatus(DocumentStatus.IN_PROGRESS);
+        document.setHashAlgorithm(HashAlgorithm.XX_HASH_64);
 
         documentDto.setId(id);
         documentDto.setDateTime(dateTime);
         documentDto.setUserId(id);
         documentDto.setProcessedRows(3);
+        documentDto.setStatus(DocumentStatus.IN_PROGRESS);
+        documentDto.setHashAlgorithm(HashAlgorithm.XX_HASH_64);
     }
         @Test
         public void should_SuccessfullyConvertDocumentToDocumentDto() {
@@ -59,7 +65,7 @@ public class DocumentConverterUnitTest {
 
         @Test
         public void should_SuccessfullyConvertDataToDocumentEntity() {
-            assertThat(dataConverter.convertToDocument(user, 3))
+            assertThat(dataConverter.convertToDocument(user, 3, HashAlgorithm.XX_HASH_64))
                     .usingRecursiveComparison()
                     .ignoringFields("dateTime", "id")
                     .isEqualTo(document);
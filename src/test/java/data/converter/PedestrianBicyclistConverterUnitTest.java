@@ -5,7 +5,12 @@ import com.syberry.poc.data.database.entity.Document;
 import com.syberry.poc.data.database.entity.PedestrianBicyclist;
 import com.syberry.poc.data.database.entity.PedestrianBicyclistValues;
 import com.syberry.poc.data.dto.PedestrianBicyclistDto;
+import com.syberry.poc.data.dto.enums.DocumentStatus;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
 import com.syberry.poc.data.dto.enums.WeekDay;
+import com.syberry.poc.data.model.IngestionContext;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.model.ValueDictionary;
 import com.syberry.poc.data.util.ColumnNameConstants;
 import com.syberry.poc.user.database.entity.User;
 import org.junit.jupiter.api.BeforeEach;
@@ -37,7 +42,8 @@ public class PedestrianBicyclistConverterUnitTest {
     private final PedestrianBicyclist pedestrianBicyclist = new PedestrianBicyclist();
     private final PedestrianBicyclist pedestrianBicyclistEntity = new PedestrianBicyclist();
     private final PedestrianBicyclistDto pedestrianBicyclistDto = new PedestrianBicyclistDto();
-    private final Document document = new Document(123L, LocalDateTime.now(), new User(), 3 );
+    private final Document document = new Document(123L, LocalDateTime.now(), new User(), 3,
+        DocumentStatus.COMPLETE, HashAlgorithm.SHA_256, null, null, null);
     @BeforeEach
     public void setup() {
         Long id = 123456789L;
@@ -91,4 +97,33 @@ public class PedestrianBicyclistConverterUnitTest {
                 .ignoringFields("listValues","values")
                 .isEqualTo(pedestrianBicyclistDto);
     }
+    @Test
+    public void should_LinkValuesToDocumentEntitiesByDate() {
+        Map<String, PedestrianBicyclist> entitiesByDate = new HashMap<>();
+        Map<String, String> valueRecord = new HashMap<>(pedestrianBicyclistDataRecord);
+        valueRecord.put(ColumnNameConstants.COLUMN_NAME, "sensor");
+        valueRecord.put(ColumnNameConstants.COLUMN_VALUE, "12");
+        Map<String, String> invalidDateRecord = new HashMap<>(valueRecord);
+        invalidDateRecord.put(ColumnNameConstants.DATE, "unknown");
+        List<Row> records = List.of(
+            Row.of(valueRecord), Row.of(invalidDateRecord), Row.of(valueRecord));
+        IngestionContext context = new IngestionContext(document,
+            new ValueDictionary(HashAlgorithm.SHA_256, records.size()));
+
+        List<PedestrianBicyclistValues> valuesEntities = new ArrayList<>();
+        for (Row record : records) {
+            PedestrianBicyclistValues value = dataConverter.convertToPedestrianBicyclistValue(
+                record, context, entitiesByDate);
+            if (value != null) {
+                valuesEntities.add(value);
+            }
+        }
+
+        assertThat(entitiesByDate).hasSize(1);
+        assertThat(context.getInvalidDateRows()).hasValue(1);
+        assertThat(valuesEntities).hasSize(2)
+            .allSatisfy(value -> assertThat(value.getPedestrianBicyclist())
+                .isSameAs(entitiesByDate.get(pedestrianBicyclistDataRecord
+                    .get(ColumnNameConstants.DATE))));
+    }
 }
@@ -5,12 +5,20 @@ import com.syberry.poc.data.database.entity.Document;
 import com.syberry.poc.data.database.entity.Traffic;
 import com.syberry.poc.data.dto.TrafficDto;
 import com.syberry.poc.data.dto.enums.Direction;
+import com.syberry.poc.data.dto.enums.DocumentStatus;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
+import com.syberry.poc.data.model.IngestionContext;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.model.ValueDictionary;
+import com.syberry.poc.data.service.SavingDataService;
+import com.syberry.poc.data.service.impl.TrafficConverter;
 import com.syberry.poc.data.util.ColumnNameConstants;
 import com.syberry.poc.user.database.entity.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
@@ -18,6 +26,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -25,12 +34,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 public class TrafficConverterUnitTest {
     @InjectMocks
     private DataConverter dataConverter;
+    @Mock
+    private SavingDataService savingDataService;
     private final Map<String, String> trafficDataRecord = new HashMap<>();
-    private final List<Map<String, String>> trafficDataRecords = new ArrayList<>();
+    private final List<Row> trafficDataRecords = new ArrayList<>();
     private final List<Traffic> trafficDataEntities = new ArrayList<>();
     private final Traffic traffic = new Traffic();
     private final TrafficDto trafficDto = new TrafficDto();
-    private final Document document = new Document(123L, LocalDateTime.now(), new User(), 3 );
+    private final Document document = new Document(123L, LocalDateTime.now(), new User(), 3,
+        DocumentStatus.COMPLETE, HashAlgorithm.SHA_256, null, null, null);
     @BeforeEach
     public void setup() {
         Long id = 123456789L;
@@ -86,7 +98,7 @@ public class TrafficConverterUnitTest {
         trafficDataRecord.put(ColumnNameConstants.LATITUDE, Float.toString(latitude));
         trafficDataRecord.put(ColumnNameConstants.LONGITUDE, Float.toString(longitude));
 
-        trafficDataRecords.add(trafficDataRecord);
+        trafficDataRecords.add(Row.of(trafficDataRecord));
         trafficDataEntities.add(traffic);
     }
         @Test
@@ -101,7 +113,11 @@ public class TrafficConverterUnitTest {
 
         @Test
         public void should_SuccessfullyConvertDocumentDataToTrafficEntities() {
-            assertThat(dataConverter.convertToTrafficList(trafficDataRecords, document))
+            assertThat(new TrafficConverter(savingDataService, dataConverter)
+                    .convert(trafficDataRecords.stream(), new IngestionContext(document,
+                        new ValueDictionary(document.getHashAlgorithm(),
+                            trafficDataRecords.size())))
+                    .collect(Collectors.toList()))
                     .usingRecursiveComparison()
                 .ignoringFields("id", "countyHash", "communityHash",
                     "fromRoadHash", "directionsHash", "toRoadHash","onRoadHash","fromRoadHash",
@@ -0,0 +1,165 @@
+package data.repository;
+
+import com.syberry.poc.data.database.entity.CrashData;
+import com.syberry.poc.data.database.entity.Document;
+import com.syberry.poc.data.database.entity.Traffic;
+import com.syberry.poc.data.database.repository.BatchInsertRepository;
+import com.syberry.poc.data.dto.enums.Direction;
+import com.syberry.poc.data.dto.enums.InjuryType;
+import com.syberry.poc.data.dto.enums.Weekend;
+import com.syberry.poc.user.database.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchInsertRepositoryTest {
+  private static final String CRASH_DATA_TABLE = "CREATE TABLE `crash_data` ("
+      + "`id` BIGINT AUTO_INCREMENT PRIMARY KEY, `year` INT NOT NULL, `month` INT NOT NULL, "
+      + "`day` INT NOT NULL, `hour` INT NOT NULL, `weekend` VARCHAR(255), "
+      + "`collision_type` VARCHAR(255) NOT NULL, `collision_type_hash` BIGINT, "
+      + "`primary_factor` VARCHAR(255), `primary_factor_hash` BIGINT, "
+      + "`injury_type` VARCHAR(255) NOT NULL, `reported_location` VARCHAR(255), "
+      + "`reported_location_hash` BIGINT, `latitude` REAL, `longitude` REAL, "
+      + "`natural_key` VARBINARY(16) UNIQUE, `document_id` BIGINT NOT NULL)";
+  private static final String TRAFFIC_TABLE = "CREATE TABLE `traffic` ("
+      + "`id` BIGINT AUTO_INCREMENT PRIMARY KEY, `county` VARCHAR(255) NOT NULL, "
+      + "`county_hash` BIGINT, `community` VARCHAR(255) NOT NULL, `community_hash` BIGINT, "
+      + "`on_road` VARCHAR(255) NOT NULL, `on_road_hash` BIGINT, `from_road` VARCHAR(255), "
+      + "`from_road_hash` BIGINT, `to_road` VARCHAR(255), `to_road_hash` BIGINT, "
+      + "`approach` VARCHAR(255), `approach_hash` BIGINT, `at` VARCHAR(255), `at_hash` BIGINT, "
+      + "`direction` VARCHAR(255) NOT NULL, `directions` VARCHAR(255), "
+      + "`directions_hash` BIGINT, `latitude` REAL, `longitude` REAL, "
+      + "`natural_key` VARBINARY(16) UNIQUE, `document_id` BIGINT NOT NULL)";
+  private final User user = User.builder().id(1L).build();
+  private final Document firstDocument = Document.builder().id(1L).user(user).build();
+  private final Document secondDocument = Document.builder().id(2L).user(user).build();
+  private SingleConnectionDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+  private BatchInsertRepository batchInsertRepository;
+
+  @BeforeEach
+  public void setup() {
+    dataSource = new SingleConnectionDataSource(
+        "jdbc:h2:mem:merge;MODE=MySQL;DATABASE_TO_LOWER=TRUE", true);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute(CRASH_DATA_TABLE);
+    jdbcTemplate.execute(TRAFFIC_TABLE);
+    batchInsertRepository = new BatchInsertRepository(jdbcTemplate);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    dataSource.destroy();
+  }
+
+  @Test
+  public void should_SkipStoredRows_When_DocumentIsMerged() {
+    batchInsertRepository.mergeCrashData(List.of(
+        crashData(firstDocument, "Main St", InjuryType.NO_INJURY_UNKNOWN, 7L),
+        crashData(firstDocument, null, InjuryType.NO_INJURY_UNKNOWN, 7L)), null);
+    batchInsertRepository.mergeCrashData(List.of(
+        crashData(secondDocument, "Main St", InjuryType.NO_INJURY_UNKNOWN, 8L),
+        crashData(secondDocument, null, InjuryType.NO_INJURY_UNKNOWN, 7L),
+        crashData(secondDocument, "Oak St", InjuryType.NO_INJURY_UNKNOWN, 7L)), null);
+
+    List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT `reported_location`, "
+        + "`reported_location_hash`, `document_id` FROM `crash_data` ORDER BY `id`");
+    assertThat(rows).hasSize(3);
+    assertThat(rows.get(0)).containsEntry("document_id", 1L)
+        .containsEntry("reported_location_hash", 8L);
+    assertThat(rows.get(1)).containsEntry("document_id", 1L);
+    assertThat(rows.get(2)).containsEntry("reported_location", "Oak St")
+        .containsEntry("document_id", 2L);
+  }
+
+  @Test
+  public void should_MoveMatchedRowsAndDeleteSupersededRows_When_DocumentIsReplaced() {
+    Document otherDocument = Document.builder().id(3L).user(user).build();
+    batchInsertRepository.mergeCrashData(List.of(
+        crashData(otherDocument, "Elm St", InjuryType.NO_INJURY_UNKNOWN, 7L)), null);
+    batchInsertRepository.mergeCrashData(List.of(
+        crashData(firstDocument, "Main St", InjuryType.NO_INJURY_UNKNOWN, 7L),
+        crashData(firstDocument, "Main St", InjuryType.INCAPACITATING, 7L)), null);
+    batchInsertRepository.mergeCrashData(List.of(
+        crashData(secondDocument, "Main St", InjuryType.NO_INJURY_UNKNOWN, 7L),
+        crashData(secondDocument, "Main St", InjuryType.NON_INCAPACITATING, 7L),
+        crashData(secondDocument, "Elm St", InjuryType.NO_INJURY_UNKNOWN, 7L)), 1L);
+    batchInsertRepository.deleteDocumentRows("crash_data", 1L);
+
+    assertThat(jdbcTemplate.queryForList("SELECT `injury_type` FROM `crash_data` "
+        + "WHERE `document_id` = 2 ORDER BY `id`", String.class))
+        .containsExactly("NO_INJURY_UNKNOWN", "NON_INCAPACITATING");
+    assertThat(batchInsertRepository.countDocumentRows("crash_data", 1L)).isZero();
+    assertThat(batchInsertRepository.countDocumentRows("crash_data", 3L)).isEqualTo(1);
+  }
+
+  @Test
+  public void should_KeepDistinctRows_When_TheyDifferOnlyInNonIdentifyingValues() {
+    CrashData movedCrash = crashData(firstDocument, "Main St", InjuryType.NO_INJURY_UNKNOWN, 7L);
+    movedCrash.setLatitude(39.2f);
+    Traffic otherStation = traffic(firstDocument);
+    otherStation.setAt("Walnut St");
+
+    batchInsertRepository.mergeCrashData(List.of(
+        crashData(firstDocument, "Main St", InjuryType.NO_INJURY_UNKNOWN, 7L),
+        crashData(firstDocument, "Main St", InjuryType.INCAPACITATING, 7L),
+        movedCrash), null);
+    batchInsertRepository.mergeTraffic(List.of(traffic(firstDocument), otherStation), null);
+
+    assertThat(batchInsertRepository.countDocumentRows("crash_data", 1L)).isEqualTo(3);
+    assertThat(batchInsertRepository.countDocumentRows("traffic", 1L)).isEqualTo(2);
+  }
+
+  @Test
+  public void should_NotDuplicateTraffic_When_DocumentIsMergedAgain() {
+    batchInsertRepository.mergeTraffic(List.of(traffic(firstDocument)), null);
+    batchInsertRepository.mergeTraffic(List.of(traffic(secondDocument)), null);
+
+    assertThat(jdbcTemplate.queryForList("SELECT `document_id` FROM `traffic`", Long.class))
+        .containsExactly(1L);
+  }
+
+  @Test
+  public void should_NotMatchRowsOfOtherUser_When_DocumentIsMerged() {
+    Document otherUserDocument = Document.builder().id(3L)
+        .user(User.builder().id(2L).build()).build();
+    batchInsertRepository.mergeCrashData(List.of(
+        crashData(firstDocument, "Main St", InjuryType.NO_INJURY_UNKNOWN, 7L)), null);
+    batchInsertRepository.mergeCrashData(List.of(
+        crashData(otherUserDocument, "Main St", InjuryType.NO_INJURY_UNKNOWN, 8L)), null);
+
+    assertThat(batchInsertRepository.countDocumentRows("crash_data", 1L)).isEqualTo(1);
+    assertThat(batchInsertRepository.countDocumentRows("crash_data", 3L)).isEqualTo(1);
+  }
+
+  private CrashData crashData(Document document, String reportedLocation,
+                              InjuryType injuryType, Long reportedLocationHash) {
+    return CrashData.builder()
+        .year(2015).month(1).day(5).hour(1700)
+        .weekend(Weekend.WEEKDAY)
+        .collisionType("2_Car").collisionTypeHash(-42L)
+        .injuryType(injuryType)
+        .reportedLocation(reportedLocation).reportedLocationHash(reportedLocationHash)
+        .latitude(39.15924f).longitude(-86.52556f)
+        .document(document)
+        .build();
+  }
+
+  private Traffic traffic(Document document) {
+    return Traffic.builder()
+        .county("Monroe").countyHash(1L)
+        .community("Bloomington").communityHash(2L)
+        .onRoad("E 10th St").onRoadHash(3L)
+        .direction(Direction.TWO_WAY)
+        .latitude(39.17f).longitude(-86.5f)
+        .document(document)
+        .build();
+  }
+}
@@ -0,0 +1,141 @@
+package data.repository;
+
+import com.syberry.poc.data.database.entity.CrashData;
+import com.syberry.poc.data.database.entity.Document;
+import com.syberry.poc.data.database.entity.Traffic;
+import com.syberry.poc.data.database.repository.BatchInsertRepository;
+import com.syberry.poc.data.database.repository.BulkLoadRepository;
+import com.syberry.poc.data.dto.enums.Direction;
+import com.syberry.poc.data.dto.enums.InjuryType;
+import com.syberry.poc.data.dto.enums.Weekend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BulkLoadRepositoryTest {
+  private static final String CRASH_DATA_TABLE = "CREATE TABLE `crash_data` ("
+      + "`id` BIGINT AUTO_INCREMENT PRIMARY KEY, `year` INT NOT NULL, `month` INT NOT NULL, "
+      + "`day` INT NOT NULL, `hour` INT NOT NULL, `weekend` VARCHAR(255), "
+      + "`collision_type` VARCHAR(255) NOT NULL, `collision_type_hash` BIGINT, "
+      + "`primary_factor` VARCHAR(255), `primary_factor_hash` BIGINT, "
+      + "`injury_type` VARCHAR(255) NOT NULL, `reported_location` VARCHAR(255), "
+      + "`reported_location_hash` BIGINT, `latitude` REAL, `longitude` REAL, "
+      + "`document_id` BIGINT NOT NULL)";
+  private static final String TRAFFIC_TABLE = "CREATE TABLE `traffic` ("
+      + "`id` BIGINT AUTO_INCREMENT PRIMARY KEY, `county` VARCHAR(255) NOT NULL, "
+      + "`county_hash` BIGINT, `community` VARCHAR(255) NOT NULL, `community_hash` BIGINT, "
+      + "`on_road` VARCHAR(255) NOT NULL, `on_road_hash` BIGINT, `from_road` VARCHAR(255), "
+      + "`from_road_hash` BIGINT, `to_road` VARCHAR(255), `to_road_hash` BIGINT, "
+      + "`approach` VARCHAR(255), `approach_hash` BIGINT, `at` VARCHAR(255), `at_hash` BIGINT, "
+      + "`direction` VARCHAR(255) NOT NULL, `directions` VARCHAR(255), "
+      + "`directions_hash` BIGINT, `latitude` REAL, `longitude` REAL, "
+      + "`document_id` BIGINT NOT NULL)";
+  private final Document batchDocument = Document.builder().id(1L).build();
+  private final Document loadedDocument = Document.builder().id(2L).build();
+  private SingleConnectionDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+  private BatchInsertRepository batchInsertRepository;
+  private BulkLoadRepository bulkLoadRepository;
+  @TempDir
+  private Path spoolDirectory;
+
+  @BeforeEach
+  public void setup() {
+    dataSource = new SingleConnectionDataSource(
+        "jdbc:h2:mem:bulk;MODE=MySQL;DATABASE_TO_LOWER=TRUE", true);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute(CRASH_DATA_TABLE);
+    jdbcTemplate.execute(TRAFFIC_TABLE);
+    batchInsertRepository = new BatchInsertRepository(jdbcTemplate);
+    bulkLoadRepository = new BulkLoadRepository(jdbcTemplate,
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+    ReflectionTestUtils.setField(bulkLoadRepository, "spoolDirectory", spoolDirectory.toString());
+  }
+
+  @AfterEach
+  public void tearDown() {
+    dataSource.destroy();
+  }
+
+  @Test
+  public void should_LoadSameCrashDataAsBatchInsert() throws Exception {
+    List<CrashData> batchEntities = List.of(crashData(batchDocument, "Main \"St\", 5"),
+        crashData(batchDocument, "NULL"), crashData(batchDocument, null));
+    List<CrashData> loadedEntities = List.of(crashData(loadedDocument, "Main \"St\", 5"),
+        crashData(loadedDocument, "NULL"), crashData(loadedDocument, null));
+
+    batchInsertRepository.insertCrashData(batchEntities);
+    int loadedRows = bulkLoadRepository.loadCrashData(loadedEntities.stream(), 2L);
+
+    assertThat(loadedRows).isEqualTo(3);
+    assertThat(selectRows("crash_data", 2L)).isEqualTo(selectRows("crash_data", 1L));
+    assertThat(selectRows("crash_data", 2L).get(0))
+        .containsEntry("reported_location", "Main \"St\", 5");
+    assertThat(selectRows("crash_data", 2L).get(2))
+        .containsEntry("reported_location", null);
+    try (var files = Files.list(spoolDirectory)) {
+      assertThat(files).isEmpty();
+    }
+  }
+
+  @Test
+  public void should_LoadSameTrafficAsBatchInsert() {
+    batchInsertRepository.insertTraffic(List.of(traffic(batchDocument)));
+    bulkLoadRepository.loadTraffic(List.of(traffic(loadedDocument)).stream(), 2L);
+
+    assertThat(selectRows("traffic", 2L)).hasSize(1)
+        .isEqualTo(selectRows("traffic", 1L));
+  }
+
+  @Test
+  public void should_SkipLoad_When_DocumentHasNoEntities() {
+    assertThat(bulkLoadRepository.loadCrashData(List.<CrashData>of().stream(), 2L)).isZero();
+  }
+
+  private List<Map<String, Object>> selectRows(String table, long documentId) {
+    List<Map<String, Object>> rows = jdbcTemplate.queryForList(String.format(
+        "SELECT * FROM `%s` WHERE `document_id` = ? ORDER BY `id`", table), documentId);
+    rows.forEach(row -> {
+      row.remove("id");
+      row.remove("document_id");
+    });
+    return rows;
+  }
+
+  private CrashData crashData(Document document, String reportedLocation) {
+    return CrashData.builder()
+        .year(2015).month(1).day(5).hour(1700)
+        .weekend(Weekend.WEEKDAY)
+        .collisionType("2_Car").collisionTypeHash(-42L)
+        .injuryType(InjuryType.NO_INJURY_UNKNOWN)
+        .reportedLocation(reportedLocation).reportedLocationHash(7L)
+        .latitude(39.15924f).longitude(-86.52556f)
+        .document(document)
+        .build();
+  }
+
+  private Traffic traffic(Document document) {
+    return Traffic.builder()
+        .county("Monroe").countyHash(1L)
+        .community("Bloomington").communityHash(2L)
+        .onRoad("E 10th\nSt").onRoadHash(3L)
+        .at("").atHash(0L)
+        .direction(Direction.TWO_WAY)
+        .latitude(39.17f).longitude(-86.5f)
+        .document(document)
+        .build();
+  }
+}
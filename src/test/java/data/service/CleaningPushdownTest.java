@@ -0,0 +1,146 @@
+package data.service;
+
+import com.syberry.poc.data.database.repository.BulkLoadRepository;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
+import com.syberry.poc.data.dto.enums.Tag;
+import com.syberry.poc.data.model.ColumnSchema;
+import com.syberry.poc.data.model.DocumentTable;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.model.ValueDictionary;
+import com.syberry.poc.data.service.impl.DataProcessingAlgorithmsServiceImpl;
+import com.syberry.poc.data.util.ColumnNameConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CleaningPushdownTest {
+  private static final int ROWS = 2000;
+  private static final ColumnSchema SCHEMA = new ColumnSchema(List.of(ColumnNameConstants.COUNTY,
+      ColumnNameConstants.ON, ColumnNameConstants.HOUR, ColumnNameConstants.COLUMN_VALUE,
+      ColumnNameConstants.LATITUDE, "notes", ColumnNameConstants.COUNTY, "ignored"));
+  private static final String[] VALUES = {null, "", " ", "\t", "\u2003", "\u00A0", "null",
+      "NULL", "N/a", "0", "00", "No_Data", "no_data", "No_data", "No_Data ", "2400", "2401",
+      "0002400", "00000000000000000000001", "12", "12a", "-5", " 12", "\u0663", "main street",
+      "  lake   county ", "\u00DCn\u00EFcode stra\u00DFe", "1.5", "quote\"d, comma",
+      "multi\nline"};
+  private final Map<String, List<Tag>> tags = new LinkedHashMap<>();
+  private SingleConnectionDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+  private DataProcessingAlgorithmsServiceImpl inMemoryService;
+  private DataProcessingAlgorithmsServiceImpl pushdownService;
+  @TempDir
+  private Path spoolDirectory;
+
+  @BeforeEach
+  public void setup() {
+    tags.put(ColumnNameConstants.COUNTY, List.of(Tag.STRING));
+    tags.put(ColumnNameConstants.ON, List.of(Tag.STRING, Tag.OBLIGATORY));
+    tags.put(ColumnNameConstants.HOUR, List.of(Tag.INT, Tag.TIME));
+    tags.put(ColumnNameConstants.COLUMN_VALUE, List.of(Tag.OBLIGATORY, Tag.INT));
+    tags.put(ColumnNameConstants.LATITUDE, List.of(Tag.FLOAT));
+    tags.put("notes", List.of());
+    tags.put(ColumnNameConstants.DIRECTIONS, List.of(Tag.STRING));
+
+    dataSource = new SingleConnectionDataSource(
+        "jdbc:h2:mem:cleaning;MODE=MySQL;DATABASE_TO_LOWER=TRUE", true);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    BulkLoadRepository bulkLoadRepository = new BulkLoadRepository(jdbcTemplate,
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+    ReflectionTestUtils.setField(bulkLoadRepository, "spoolDirectory",
+        spoolDirectory.toString());
+
+    inMemoryService = new DataProcessingAlgorithmsServiceImpl();
+    pushdownService = new DataProcessingAlgorithmsServiceImpl();
+    pushdownService.setCleaningPushdown(true);
+    pushdownService.setCleaningChunkSize(300);
+    pushdownService.setBulkLoadRepository(bulkLoadRepository);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    dataSource.destroy();
+  }
+
+  @Test
+  public void should_CleanRowsInDatabaseLikeInMemory() {
+    List<String[]> rows = randomRows(new Random(42));
+
+    List<List<String>> expected = clean(inMemoryService, rows);
+    List<List<String>> cleaned = clean(pushdownService, rows);
+
+    assertThat(expected).isNotEmpty().hasSizeLessThan(ROWS);
+    assertThat(cleaned).isEqualTo(expected);
+    assertThat(stagingTables()).isEmpty();
+  }
+
+  @Test
+  public void should_RejectAllRows_When_ObligatoryColumnIsMissing() {
+    tags.put(ColumnNameConstants.DIR, List.of(Tag.STRING, Tag.OBLIGATORY));
+    List<String[]> rows = randomRows(new Random(7));
+
+    assertThat(clean(inMemoryService, rows)).isEmpty();
+    assertThat(clean(pushdownService, rows)).isEmpty();
+    assertThat(stagingTables()).isEmpty();
+  }
+
+  @Test
+  public void should_StageRowsInTemporaryTable_When_RowsAreRead() {
+    List<String[]> rows = randomRows(new Random(42));
+    Stream<Row> documentRows = rows.stream().map(values -> new Row(SCHEMA, values.clone()));
+    ValueDictionary valueDictionary = new ValueDictionary(HashAlgorithm.SHA_256, 100);
+
+    try (Stream<Row> cleanedRows = pushdownService.applyProcessingAlgorithms(
+        new DocumentTable(SCHEMA, documentRows), tags, valueDictionary).getRows()) {
+      assertThat(cleanedRows.iterator().hasNext()).isTrue();
+      assertThat(jdbcTemplate.queryForList("SELECT table_type FROM information_schema.tables "
+          + "WHERE table_name LIKE 'cleaning_%'", String.class))
+          .containsExactly("LOCAL TEMPORARY");
+    }
+
+    assertThat(stagingTables()).isEmpty();
+  }
+
+  private List<List<String>> clean(DataProcessingAlgorithmsServiceImpl service,
+                                   List<String[]> rows) {
+    Stream<Row> documentRows = rows.stream().map(values -> new Row(SCHEMA, values.clone()));
+    ValueDictionary valueDictionary = new ValueDictionary(HashAlgorithm.SHA_256, 100);
+    try (Stream<Row> cleanedRows = service.applyProcessingAlgorithms(
+        new DocumentTable(SCHEMA, documentRows), tags, valueDictionary).getRows()) {
+      return cleanedRows
+          .map(row -> IntStream.range(0, SCHEMA.size())
+              .mapToObj(row::get)
+              .collect(Collectors.toList()))
+          .collect(Collectors.toList());
+    }
+  }
+
+  private List<String[]> randomRows(Random random) {
+    return IntStream.range(0, ROWS)
+        .mapToObj(i -> IntStream.range(0, SCHEMA.size())
+            .mapToObj(column -> VALUES[random.nextInt(VALUES.length)])
+            .toArray(String[]::new))
+        .collect(Collectors.toList());
+  }
+
+  private List<String> stagingTables() {
+    return jdbcTemplate.queryForList("SELECT table_name FROM information_schema.tables "
+        + "WHERE table_name LIKE 'cleaning_%'", String.class);
+  }
+}
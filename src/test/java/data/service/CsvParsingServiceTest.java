@@ -0,0 +1,139 @@
+package data.service;
+
+import com.syberry.poc.data.dto.enums.CsvTokenizer;
+import com.syberry.poc.data.model.CsvDocument;
+import com.syberry.poc.data.model.CsvFields;
+import com.syberry.poc.data.service.impl.CsvParsingServiceImpl;
+import com.syberry.poc.exception.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CsvParsingServiceTest {
+  private static final String DOCUMENT = "Id,\"Reported\nLocation\",Factor\r\n"
+      + IntStream.range(0, 200)
+      .mapToObj(i -> i + ",\"" + i + " Main St,\n\"\"corner\"\"\",speed\r\n"
+          + (i % 50 == 0 ? "\n" : ""))
+      .collect(Collectors.joining())
+      + "200,Oak Ave,\"last\nline\"";
+  private final CsvParsingServiceImpl csvParsingService = new CsvParsingServiceImpl();
+  private final ForkJoinPool parsingForkJoinPool = new ForkJoinPool(4);
+  @TempDir
+  private Path spoolDirectory;
+
+  @BeforeEach
+  public void setup() {
+    csvParsingService.setTokenizer(CsvTokenizer.COMMONS_CSV);
+    csvParsingService.setParsingForkJoinPool(parsingForkJoinPool);
+    csvParsingService.setParsingChunkSize(64);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    parsingForkJoinPool.shutdown();
+  }
+
+  @ParameterizedTest
+  @CsvSource({"COMMONS_CSV, true", "MAPPED_BUFFER, false", "MAPPED_BUFFER, true"})
+  public void should_ParseRecordsAsCommonsCsvInDocumentOrder(CsvTokenizer tokenizer,
+                                                             boolean parallel)
+      throws IOException {
+    Path document = write(DOCUMENT);
+
+    List<List<String>> expectedRecords = parse(document);
+    csvParsingService.setTokenizer(tokenizer);
+    csvParsingService.setParallelParsing(parallel);
+    List<List<String>> records = parse(document);
+
+    assertThat(records).hasSize(201).isEqualTo(expectedRecords);
+    assertThat(records.get(7)).containsExactly("7", "7 Main St,\n\"corner\"", "speed");
+    assertThat(records.get(200)).containsExactly("200", "Oak Ave", "last\nline");
+  }
+
+  @ParameterizedTest
+  @CsvSource({"false", "true"})
+  public void should_FallBackToCommonsCsv_When_DocumentIsMalformed(boolean parallel)
+      throws IOException {
+    Path document = write(DOCUMENT.replace("100,", "100,O\"Ave\",")
+        .replace("speed\r\n150,", "speed\r150,"));
+
+    List<List<String>> expectedRecords = parse(document);
+    csvParsingService.setTokenizer(CsvTokenizer.MAPPED_BUFFER);
+    csvParsingService.setParallelParsing(parallel);
+
+    assertThat(parse(document)).hasSize(201).isEqualTo(expectedRecords);
+  }
+
+  @ParameterizedTest
+  @CsvSource({"COMMONS_CSV", "MAPPED_BUFFER"})
+  public void should_ParseRecordsInParallel_When_UnquotedFieldHasQuote(CsvTokenizer tokenizer)
+      throws IOException {
+    Path document = write(DOCUMENT.replace("\n100,", "\n100,O\"Ave,"));
+
+    List<List<String>> expectedRecords = parse(document);
+    csvParsingService.setTokenizer(tokenizer);
+    csvParsingService.setParallelParsing(true);
+
+    assertThat(parse(document)).hasSize(201).isEqualTo(expectedRecords);
+    assertThat(expectedRecords.get(100)).startsWith("100", "O\"Ave");
+  }
+
+  @Test
+  public void should_ThrowException_When_HeaderIsIncorrect() throws IOException {
+    Path document = write("Id,,Factor\n" + "1,2,3\n".repeat(100));
+    csvParsingService.setTokenizer(CsvTokenizer.MAPPED_BUFFER);
+    csvParsingService.setParallelParsing(true);
+
+    assertThrows(ValidationException.class, () -> csvParsingService.parseCsvDocument(document));
+  }
+
+  @Test
+  public void should_ParseStreamedDocument() throws IOException {
+    Path document = write(DOCUMENT);
+    List<List<String>> expectedRecords = parse(document);
+
+    try (CsvDocument csvDocument = csvParsingService.parseCsvDocument(
+        new ByteArrayInputStream(DOCUMENT.getBytes()))) {
+      assertThat(csvDocument.getHeaderNames())
+          .containsExactly("Id", "Reported\nLocation", "Factor");
+      assertThat(csvDocument.getRecords().map(this::toList)).isEqualTo(expectedRecords);
+    }
+  }
+
+  private Path write(String content) throws IOException {
+    return Files.writeString(spoolDirectory.resolve("crash_data.csv"), content);
+  }
+
+  private List<List<String>> parse(Path document) throws IOException {
+    try (CsvDocument csvDocument = csvParsingService.parseCsvDocument(document)) {
+      assertThat(csvDocument.getHeaderNames())
+          .containsExactly("Id", "Reported\nLocation", "Factor");
+      List<List<String>> records = csvDocument.getRecords()
+          .map(this::toList)
+          .collect(Collectors.toList());
+      assertThat(csvDocument.getRecordNumber()).isEqualTo(records.size());
+      return records;
+    }
+  }
+
+  private List<String> toList(CsvFields record) {
+    return IntStream.range(0, record.size())
+        .mapToObj(record::get)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,201 @@
+package data.service;
+
+import com.syberry.poc.authorization.security.UserDetailsImpl;
+import com.syberry.poc.data.converter.DataConverter;
+import com.syberry.poc.data.database.entity.Document;
+import com.syberry.poc.data.database.repository.DocumentRepository;
+import com.syberry.poc.data.dto.UploadReportDto;
+import com.syberry.poc.data.dto.enums.CsvTokenizer;
+import com.syberry.poc.data.dto.enums.DocumentType;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
+import com.syberry.poc.data.model.ColumnSchema;
+import com.syberry.poc.data.model.CsvFields;
+import com.syberry.poc.data.model.DocumentTable;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.model.UploadJob;
+import com.syberry.poc.data.service.DataMapperService;
+import com.syberry.poc.data.service.DataProcessingAlgorithmsService;
+import com.syberry.poc.data.service.DocumentConverterService;
+import com.syberry.poc.data.service.DocumentTypeConverter;
+import com.syberry.poc.data.service.RowFingerprintService;
+import com.syberry.poc.data.service.SavingDataService;
+import com.syberry.poc.data.service.impl.CsvParsingServiceImpl;
+import com.syberry.poc.data.service.impl.CsvProcessingServiceImpl;
+import com.syberry.poc.user.database.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CsvProcessingServiceTest {
+  @Mock
+  private DataProcessingAlgorithmsService dataProcessingAlgorithmsService;
+  @Mock
+  private DataMapperService dataMapperService;
+  @Mock
+  private DocumentConverterService documentConverterService;
+  @Mock
+  private UserRepository userRepository;
+  @Mock
+  private DocumentRepository documentRepository;
+  @Mock
+  private SavingDataService savingDataService;
+  @Mock
+  private DocumentTypeConverter<Object> documentTypeConverter;
+  @Mock
+  private RowFingerprintService rowFingerprintService;
+  private CsvProcessingServiceImpl csvProcessingService;
+  private final Set<String> processedDocuments = ConcurrentHashMap.newKeySet();
+  @TempDir
+  private Path spoolDirectory;
+
+  @BeforeEach
+  public void setup() {
+    CsvParsingServiceImpl csvParsingService = new CsvParsingServiceImpl();
+    csvParsingService.setTokenizer(CsvTokenizer.MAPPED_BUFFER);
+    csvParsingService.setParsingChunkSize(1024);
+    csvProcessingService = new CsvProcessingServiceImpl(new DataConverter(),
+        dataProcessingAlgorithmsService, dataMapperService, documentConverterService,
+        userRepository, documentRepository, savingDataService, csvParsingService,
+        rowFingerprintService);
+    ReflectionTestUtils.setField(csvProcessingService, "hashAlgorithm", HashAlgorithm.SHA_256);
+    ReflectionTestUtils.setField(csvProcessingService, "valueDictionarySize", 100);
+    ReflectionTestUtils.setField(csvProcessingService, "documentMapConverter", Map.of(
+        DocumentType.CRASH, documentTypeConverter, DocumentType.TRAFFIC, documentTypeConverter));
+    ReflectionTestUtils.setField(csvProcessingService, "archiveTaskExecutor",
+        new SimpleAsyncTaskExecutor());
+    UserDetailsImpl userDetails = UserDetailsImpl.builder()
+        .id(1L)
+        .username("admin@mail.com")
+        .grantedAuthority(new SimpleGrantedAuthority("ROLE_ADMIN"))
+        .build();
+    SecurityContextHolder.setContext(new SecurityContextImpl(
+        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities())));
+  }
+
+  @AfterEach
+  public void clearAuthentication() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void should_ProcessGzipDocument() throws IOException {
+    stubProcessing();
+    Path spooledFile = spoolDirectory.resolve("upload.csv");
+    try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(spooledFile))) {
+      output.write("Year,Month\n2015,1\n2016,2\n".getBytes(StandardCharsets.UTF_8));
+    }
+    UploadJob uploadJob = new UploadJob("1", "Crash_Data.csv.gz", "admin@mail.com");
+
+    UploadReportDto report = csvProcessingService.processCsvDocument(spooledFile, uploadJob);
+
+    assertThat(report.getProcessedLines()).isEqualTo(2);
+    assertThat(processedDocuments).containsExactly("crash_data.csv.gz:[Year, Month]");
+    assertThat(uploadJob.getDocumentIds()).hasSize(1);
+  }
+
+  @Test
+  public void should_ProcessArchivedDocumentsByType() throws IOException {
+    stubProcessing();
+    Path spooledFile = spoolDirectory.resolve("upload.csv");
+    try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(spooledFile))) {
+      writeEntry(output, "2015/crash_data.csv", "Year,Month\n2015,1\n");
+      writeEntry(output, "2016/crash_data.csv", "Year,Month\n2016,1\n2016,2\n");
+      writeEntry(output, "traffic.csv", "Year,Direction\n2015,N\n2015,S\n2015,E\n");
+      writeEntry(output, "__MACOSX/._traffic.csv", "\0\0");
+      writeEntry(output, "weather.csv", "Year,Rain\n2015,1\n");
+      writeEntry(output, "readme.txt", "Exports");
+    }
+    UploadJob uploadJob = new UploadJob("1", "exports.zip", "admin@mail.com");
+
+    UploadReportDto report = csvProcessingService.processCsvDocument(spooledFile, uploadJob);
+
+    assertThat(report.getProcessedLines()).isEqualTo(6);
+    assertThat(processedDocuments).containsExactlyInAnyOrder("crash_data.csv:[Year, Month]",
+        "traffic.csv:[Year, Direction]");
+    assertThat(uploadJob.getDocumentIds()).hasSize(3).doesNotHaveDuplicates();
+    assertThat(uploadJob.getProcessedRows()).hasValue(6);
+  }
+
+  @Test
+  public void should_CloseProcessedRows_When_SavingFailsMidStream() throws IOException {
+    stubProcessing();
+    AtomicBoolean rowsClosed = new AtomicBoolean();
+    ColumnSchema schema = new ColumnSchema(List.of("Year"));
+    when(dataProcessingAlgorithmsService.applyProcessingAlgorithms(any(), any(), any()))
+        .thenReturn(new DocumentTable(schema, Stream.of("2015", "2016", "2017")
+            .map(year -> new Row(schema, new String[] {year}))
+            .onClose(() -> rowsClosed.set(true))));
+    when(documentTypeConverter.convert(any(), any()))
+        .thenAnswer(invocation -> invocation.<Stream<Row>>getArgument(0).map(row -> row));
+    when(savingDataService.saveInChunks(any(), any())).thenAnswer(invocation -> {
+      invocation.<Stream<Object>>getArgument(0).iterator().next();
+      throw new DataAccessResourceFailureException("Connection is lost");
+    });
+    Path spooledFile = spoolDirectory.resolve("upload.csv");
+    Files.writeString(spooledFile, "Year,Month\n2015,1\n2016,1\n2017,1\n");
+
+    assertThatThrownBy(() -> csvProcessingService.processCsvDocument(
+        spooledFile, new UploadJob("1", "crash_data.csv", "admin@mail.com")))
+        .isInstanceOf(DataAccessResourceFailureException.class);
+    assertThat(rowsClosed).isTrue();
+  }
+
+  private void stubProcessing() {
+    AtomicLong documentIds = new AtomicLong();
+    when(documentConverterService.prepareDocumentToProcessing(any(), any(), any()))
+        .thenAnswer(invocation -> {
+          processedDocuments.add(invocation.getArgument(0) + ":" + invocation.getArgument(1));
+          invocation.<Stream<CsvFields>>getArgument(2).forEach(record -> { });
+          return new DocumentTable(new ColumnSchema(List.of()), Stream.empty());
+        });
+    when(dataProcessingAlgorithmsService.applyProcessingAlgorithms(any(), any(), any()))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(documentRepository.save(any(Document.class))).thenAnswer(invocation -> {
+      Document document = invocation.getArgument(0);
+      if (document.getId() == null) {
+        document.setId(documentIds.incrementAndGet());
+      }
+      return document;
+    });
+  }
+
+  private void writeEntry(ZipOutputStream output, String name, String content)
+      throws IOException {
+    output.putNextEntry(new ZipEntry(name));
+    output.write(content.getBytes(StandardCharsets.UTF_8));
+    output.closeEntry();
+  }
+}
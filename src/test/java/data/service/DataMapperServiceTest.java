@@ -1,6 +1,7 @@
 package data.service;
 
 import com.syberry.poc.data.dto.enums.Tag;
+import com.syberry.poc.data.model.ColumnSchema;
 import com.syberry.poc.data.service.impl.DataMapperServiceImpl;
 import com.syberry.poc.data.util.ColumnNameConstants;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,7 +12,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,7 +23,6 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 public class DataMapperServiceTest {
   @InjectMocks
   private DataMapperServiceImpl dataMapperService;
-  private final List<Map<String, String>> documentData = new ArrayList<>();
   private final Map<String, String> documentRow = new HashMap<>();
   private final Map<String, List<Tag>> Tags = new HashMap<>();
 
@@ -53,7 +52,6 @@ public class DataMapperServiceTest {
     documentRow.put(ColumnNameConstants.LATITUDE, Float.toString(latitude));
     documentRow.put(ColumnNameConstants.LONGITUDE, Float.toString(longitude));
 
-    documentData.add(documentRow);
 
     Tags.put(ColumnNameConstants.COUNTY, List.of(Tag.STRING));
     Tags.put(ColumnNameConstants.COMMUNITY, List.of(Tag.STRING));
@@ -70,6 +68,7 @@ public class DataMapperServiceTest {
 
   @Test
   public void should_SuccessfullyMapData() {
-    assertEquals(dataMapperService.mapColumns(documentData), Tags);
+    assertEquals(dataMapperService.mapColumns(
+        new ColumnSchema(List.copyOf(documentRow.keySet()))), Tags);
   }
 }
@@ -0,0 +1,138 @@
+package data.service;
+
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
+import com.syberry.poc.data.dto.enums.Tag;
+import com.syberry.poc.data.model.ColumnSchema;
+import com.syberry.poc.data.model.DocumentTable;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.model.ValueDictionary;
+import com.syberry.poc.data.service.impl.DataProcessingAlgorithmsServiceImpl;
+import com.syberry.poc.data.util.ColumnNameConstants;
+import com.syberry.poc.exception.DateProcessingException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+public class DataProcessingAlgorithmsServiceTest {
+  private static final int MINIMAL_ROWS_LIMIT = 100;
+  private static final ColumnSchema SCHEMA = new ColumnSchema(List.of(ColumnNameConstants.COUNTY,
+      ColumnNameConstants.ON, ColumnNameConstants.HOUR, ColumnNameConstants.LATITUDE));
+  @InjectMocks
+  private DataProcessingAlgorithmsServiceImpl dataProcessingAlgorithmsService;
+  private final Map<String, List<Tag>> tags = new HashMap<>();
+  private final ValueDictionary valueDictionary = new ValueDictionary(HashAlgorithm.SHA_256, 100);
+
+  @BeforeEach
+  public void setup() {
+    tags.put(ColumnNameConstants.COUNTY, List.of(Tag.STRING));
+    tags.put(ColumnNameConstants.ON, List.of(Tag.STRING, Tag.OBLIGATORY));
+    tags.put(ColumnNameConstants.HOUR, List.of(Tag.INT, Tag.TIME));
+    tags.put(ColumnNameConstants.LATITUDE, List.of(Tag.FLOAT));
+  }
+
+  @Test
+  public void should_ThrowException_When_DocumentHasLessRowsThanAllowed() {
+    Stream<Row> documentData = IntStream.range(0, MINIMAL_ROWS_LIMIT - 1)
+        .mapToObj(i -> row("county", "main street", "12", "1.5"));
+    assertThrows(DateProcessingException.class,
+        () -> dataProcessingAlgorithmsService.applyProcessingAlgorithms(
+            table(documentData), tags, valueDictionary));
+  }
+
+  @Test
+  public void should_SuccessfullyCleanAndPrettifyRows() {
+    Stream<Row> documentData = Stream.concat(
+        IntStream.range(0, MINIMAL_ROWS_LIMIT)
+            .mapToObj(i -> row("  lake   county ", "main street", "1200", "1.5")),
+        Stream.of(
+            row("null", "main street", "2500", "1.5"),
+            row("county", "n/a", "1200", "1.5"),
+            row("county", "main street", "noon", "1.5"),
+            row("", "main street", "0", "")));
+
+    List<Row> proceededData = dataProcessingAlgorithmsService
+        .applyProcessingAlgorithms(table(documentData), tags, valueDictionary)
+        .getRows()
+        .collect(Collectors.toList());
+
+    assertThat(proceededData).hasSize(MINIMAL_ROWS_LIMIT + 1);
+    assertThat(proceededData.get(0).toMap())
+        .containsEntry(ColumnNameConstants.COUNTY, "Lake_County")
+        .containsEntry(ColumnNameConstants.ON, "Main_Street")
+        .containsEntry(ColumnNameConstants.HOUR, "1200");
+    assertThat(proceededData.get(MINIMAL_ROWS_LIMIT).toMap())
+        .containsEntry(ColumnNameConstants.COUNTY, "No_data")
+        .containsEntry(ColumnNameConstants.HOUR, "0");
+  }
+
+  @Test
+  public void should_DropRows_When_TimeValueIsOutOfIntegerRange() {
+    Stream<Row> documentData = Stream.concat(
+        IntStream.range(0, MINIMAL_ROWS_LIMIT)
+            .mapToObj(i -> row("county", "main street", "1200", "1.5")),
+        Stream.of(row("county", "main street", "99999999999", "1.5")));
+
+    assertThat(dataProcessingAlgorithmsService
+        .applyProcessingAlgorithms(table(documentData), tags, valueDictionary)
+        .getRows())
+        .hasSize(MINIMAL_ROWS_LIMIT);
+  }
+
+  @Test
+  public void should_KeepRowsOrder_When_CleaningInParallel() {
+    ForkJoinPool cleaningForkJoinPool = new ForkJoinPool(4);
+    dataProcessingAlgorithmsService.setParallelCleaning(true);
+    dataProcessingAlgorithmsService.setCleaningChunkSize(7);
+    dataProcessingAlgorithmsService.setCleaningForkJoinPool(cleaningForkJoinPool);
+    Stream<Row> documentData = IntStream.range(0, MINIMAL_ROWS_LIMIT * 10)
+        .mapToObj(i -> row("county " + i, i % 3 == 0 ? "n/a" : "main street", "12", "1.5"));
+
+    List<String> counties = dataProcessingAlgorithmsService
+        .applyProcessingAlgorithms(table(documentData), tags, valueDictionary)
+        .getRows()
+        .map(row -> row.get(ColumnNameConstants.COUNTY))
+        .collect(Collectors.toList());
+    cleaningForkJoinPool.shutdown();
+
+    assertThat(counties).containsExactlyElementsOf(IntStream.range(0, MINIMAL_ROWS_LIMIT * 10)
+        .filter(i -> i % 3 != 0)
+        .mapToObj(i -> "County_" + i)
+        .collect(Collectors.toList()));
+  }
+
+  @Test
+  public void should_ReadOnlyLeadingRows_When_ProcessedDocumentIsNotConsumed() {
+    AtomicInteger readRows = new AtomicInteger();
+    Stream<Row> documentData = IntStream.range(0, MINIMAL_ROWS_LIMIT * 10)
+        .mapToObj(i -> row("county", "main street", "12", "1.5"))
+        .peek(row -> readRows.incrementAndGet());
+
+    dataProcessingAlgorithmsService.applyProcessingAlgorithms(
+        table(documentData), tags, valueDictionary);
+
+    assertThat(readRows.get()).isEqualTo(MINIMAL_ROWS_LIMIT);
+  }
+
+  private DocumentTable table(Stream<Row> rows) {
+    return new DocumentTable(SCHEMA, rows);
+  }
+
+  private Row row(String county, String on, String hour, String latitude) {
+    return new Row(SCHEMA, new String[] {county, on, hour, latitude});
+  }
+}
@@ -9,6 +9,7 @@ import com.syberry.poc.data.database.repository.CrashDataRepository;
 import com.syberry.poc.data.database.repository.DocumentRepository;
 import com.syberry.poc.data.database.repository.PedestrianBicyclistRepository;
 import com.syberry.poc.data.database.repository.PedestrianBicyclistValuesRepository;
+import com.syberry.poc.data.database.repository.RowFingerprintRepository;
 import com.syberry.poc.data.database.repository.TrafficRepository;
 import com.syberry.poc.data.dto.CrashDataDto;
 import com.syberry.poc.data.dto.CrashDataFilter;
@@ -17,6 +18,8 @@ import com.syberry.poc.data.dto.PedestrianBicyclistDto;
 import com.syberry.poc.data.dto.PedestrianBicyclistFilter;
 import com.syberry.poc.data.dto.TrafficDto;
 import com.syberry.poc.data.dto.TrafficFilter;
+import com.syberry.poc.data.dto.enums.DocumentStatus;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
 import com.syberry.poc.data.service.impl.DataServiceImpl;
 import com.syberry.poc.data.specification.CrashDataSpecification;
 import com.syberry.poc.data.specification.PedestrianBicyclistSpecification;
@@ -57,6 +60,8 @@ public class DataServiceTest {
     @Mock
     private PedestrianBicyclistValuesRepository pedestrianBicyclistValuesRepository;
     @Mock
+    private RowFingerprintRepository rowFingerprintRepository;
+    @Mock
     private DataConverter dataConverter;
     @Mock
     private TrafficSpecification trafficSpecification;
@@ -64,7 +69,8 @@ public class DataServiceTest {
     private CrashDataSpecification crashDataSpecification;
     @Mock
     private PedestrianBicyclistSpecification bicyclistSpecification;
-    private Document document = new Document(123L, LocalDateTime.now(), new User(), 3 );
+    private Document document = new Document(123L, LocalDateTime.now(), new User(), 3,
+        DocumentStatus.COMPLETE, HashAlgorithm.SHA_256, null, null, null);
     private DocumentDto documentDto = new DocumentDto();
 
     private Long id = 1L;
@@ -0,0 +1,117 @@
+package data.service;
+
+import com.google.common.cache.CacheBuilder;
+import com.syberry.poc.data.converter.DataConverter;
+import com.syberry.poc.data.database.repository.DocumentRepository;
+import com.syberry.poc.data.dto.UploadReportDto;
+import com.syberry.poc.data.model.UploadJob;
+import com.syberry.poc.data.service.CsvProcessingService;
+import com.syberry.poc.data.service.impl.DirectoryIngestionServiceImpl;
+import com.syberry.poc.data.service.impl.UploadJobServiceImpl;
+import com.syberry.poc.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DirectoryIngestionServiceTest {
+  @Mock
+  private CsvProcessingService csvProcessingService;
+  @Mock
+  private DocumentRepository documentRepository;
+  @Mock
+  private UserDetailsService userDetailsService;
+  private DirectoryIngestionServiceImpl directoryIngestionService;
+  @TempDir
+  private Path watchDirectory;
+
+  @BeforeEach
+  public void setup() throws IOException {
+    UploadJobServiceImpl uploadJobService = new UploadJobServiceImpl(csvProcessingService,
+        new DataConverter(), new SyncTaskExecutor(), CacheBuilder.newBuilder().build(),
+        CacheBuilder.newBuilder().build(), documentRepository);
+    directoryIngestionService =
+        new DirectoryIngestionServiceImpl(uploadJobService, userDetailsService);
+    ReflectionTestUtils.setField(directoryIngestionService, "watchDirectory",
+        watchDirectory.toString());
+    ReflectionTestUtils.setField(directoryIngestionService, "pollInterval", 1000L);
+    ReflectionTestUtils.setField(directoryIngestionService, "watchUser", "ingestion@mail.com");
+    directoryIngestionService.createDirectories();
+  }
+
+  @Test
+  public void should_MoveProcessedDocumentsToDoneAndFailedDirectories() throws IOException {
+    when(userDetailsService.loadUserByUsername("ingestion@mail.com"))
+        .thenReturn(mock(UserDetails.class));
+    when(csvProcessingService.processCsvDocument(any(Path.class), any(UploadJob.class)))
+        .thenAnswer(invocation -> {
+          if (invocation.<Path>getArgument(0).endsWith("traffic.csv")) {
+            throw new ValidationException("Incorrect header");
+          }
+          return new UploadReportDto(100, 100, 0);
+        });
+    writeSettled("crash_data.csv");
+    writeSettled("traffic.csv");
+    writeSettled("notes.csv");
+
+    directoryIngestionService.pollWatchDirectory();
+
+    assertThat(watchDirectory.resolve("done/crash_data.csv")).exists();
+    assertThat(watchDirectory.resolve("failed/traffic.csv")).exists();
+    assertThat(watchDirectory.resolve("failed/notes.csv")).exists();
+    assertThat(watchDirectory.resolve("processing")).isEmptyDirectory();
+  }
+
+  @Test
+  public void should_QueueOtherDocuments_When_UnqueuedDocumentCannotBeMoved()
+      throws IOException {
+    when(userDetailsService.loadUserByUsername("ingestion@mail.com"))
+        .thenReturn(mock(UserDetails.class));
+    when(csvProcessingService.processCsvDocument(any(Path.class), any(UploadJob.class)))
+        .thenReturn(new UploadReportDto(100, 100, 0));
+    Files.delete(watchDirectory.resolve("failed"));
+    Files.writeString(watchDirectory.resolve("failed"), "");
+    writeSettled("notes.csv");
+    writeSettled("crash_data.csv");
+
+    directoryIngestionService.pollWatchDirectory();
+
+    assertThat(watchDirectory.resolve("done/crash_data.csv")).exists();
+    assertThat(watchDirectory.resolve("processing/notes.csv")).exists();
+  }
+
+  @Test
+  public void should_LeaveDocument_When_ItIsBeingWritten() throws IOException {
+    Files.writeString(watchDirectory.resolve("crash_data.csv"), "Year,Month\n");
+
+    directoryIngestionService.pollWatchDirectory();
+
+    assertThat(watchDirectory.resolve("crash_data.csv")).exists();
+    assertThat(watchDirectory.resolve("done")).isEmptyDirectory();
+  }
+
+  private void writeSettled(String fileName) throws IOException {
+    Path document = Files.writeString(watchDirectory.resolve(fileName), "Year,Month\n");
+    Files.setLastModifiedTime(document,
+        FileTime.from(Instant.now().minus(1, ChronoUnit.MINUTES)));
+  }
+}
@@ -0,0 +1,74 @@
+package data.service;
+
+import com.syberry.poc.data.model.CsvFields;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.service.impl.DocumentConverterServiceImpl;
+import com.syberry.poc.data.util.ColumnNameConstants;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class DocumentConverterServiceTest {
+  private final DocumentConverterServiceImpl documentConverterService =
+      new DocumentConverterServiceImpl();
+
+  @Test
+  public void should_ConvertRecordsToRowsOfConvertedColumnsWithClearedHeaders() throws IOException {
+    List<Map<String, String>> rows = convert("crash_data.csv",
+        " Collision Type ,Reported  Location,Hour,Notes?\n2-car,main street,1200,note\n"
+            + "1-car,oak avenue\n");
+
+    assertThat(rows).hasSize(2);
+    assertThat(rows.get(0)).containsExactly(
+        Map.entry(ColumnNameConstants.COLLISION_TYPE, "2-car"),
+        Map.entry(ColumnNameConstants.REPORTED_LOCATION, "main street"),
+        Map.entry(ColumnNameConstants.HOUR, "1200"));
+    assertThat(rows.get(1)).hasSize(2).doesNotContainKey(ColumnNameConstants.HOUR);
+  }
+
+  @Test
+  public void should_SplitPedestrianRowsToSensorValues() throws IOException {
+    List<Map<String, String>> rows = convert("pedestrian_bicyclist.csv",
+        "Date,Sensor A,Sensor B\n\"Thu, Apr 27, 2023\",12,\n");
+
+    assertThat(rows).containsExactly(Map.of(
+        ColumnNameConstants.DATE, "Thu, Apr 27, 2023",
+        ColumnNameConstants.COLUMN_NAME, "sensor_a",
+        ColumnNameConstants.COLUMN_VALUE, "12"));
+  }
+
+  @Test
+  public void should_UnpivotSensorValuesWithTimeColumn() throws IOException {
+    List<Map<String, String>> rows = convert("pedestrian_bicyclist.csv",
+        "Sensor A,Time,Sensor B,Sensor C\n3,04/27/2023 10:00,,5\n,04/27/2023 11:00,7\n");
+
+    assertThat(rows).extracting(row -> row.get("full_date"),
+            row -> row.get(ColumnNameConstants.COLUMN_NAME),
+            row -> row.get(ColumnNameConstants.COLUMN_VALUE))
+        .containsExactly(
+            tuple("04/27/2023 10:00", "sensor_a", "3"),
+            tuple("04/27/2023 10:00", "sensor_c", "5"),
+            tuple("04/27/2023 11:00", "sensor_b", "7"));
+  }
+
+  private List<Map<String, String>> convert(String fileName, String content) throws IOException {
+    try (CSVParser csvParser = new CSVParser(new StringReader(content),
+        CSVFormat.Builder.create().setHeader().build())) {
+      return documentConverterService
+          .prepareDocumentToProcessing(fileName, csvParser.getHeaderNames(),
+              csvParser.stream().map(CsvFields::of))
+          .getRows()
+          .map(Row::toMap)
+          .collect(Collectors.toList());
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package data.service;
+
+import com.syberry.poc.data.converter.DataConverter;
+import com.syberry.poc.data.database.entity.Document;
+import com.syberry.poc.data.database.entity.PedestrianBicyclist;
+import com.syberry.poc.data.database.entity.Traffic;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
+import com.syberry.poc.data.model.IngestionContext;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.model.ValueDictionary;
+import com.syberry.poc.data.service.SavingDataService;
+import com.syberry.poc.data.service.impl.PedestrianBicyclistConverter;
+import com.syberry.poc.data.service.impl.TrafficConverter;
+import com.syberry.poc.data.util.ColumnNameConstants;
+import com.syberry.poc.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class DocumentTypeConverterTest {
+  private static final int ROWS = 25;
+  @Spy
+  private DataConverter dataConverter;
+  @Mock
+  private SavingDataService savingDataService;
+  private final IngestionContext context = new IngestionContext(
+      new Document(), new ValueDictionary(HashAlgorithm.SHA_256, ROWS));
+
+  @Test
+  public void should_ConvertEveryTrafficRowOnce() {
+    TrafficConverter trafficConverter = new TrafficConverter(savingDataService, dataConverter);
+
+    List<Traffic> entities = trafficConverter.convert(trafficRows(), context)
+        .collect(Collectors.toList());
+    int savedEntities = trafficConverter.write(entities);
+
+    assertThat(savedEntities).isEqualTo(ROWS);
+    verify(dataConverter, times(ROWS))
+        .convertToTraffic(any(Row.class), any(IngestionContext.class));
+    verify(savingDataService).saveTraffic(entities);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void should_ConvertEveryPedestrianRowOnce() {
+    PedestrianBicyclistConverter pedestrianBicyclistConverter =
+        new PedestrianBicyclistConverter(savingDataService, dataConverter);
+
+    int savedEntities = pedestrianBicyclistConverter.write(
+        pedestrianBicyclistConverter.convert(pedestrianRows(), context)
+            .collect(Collectors.toList()));
+
+    ArgumentCaptor<List<PedestrianBicyclist>> captor = ArgumentCaptor.forClass(List.class);
+    verify(savingDataService).savePedestrianBicyclist(captor.capture());
+    assertThat(savedEntities).isEqualTo(2);
+    assertThat(captor.getValue()).hasSize(2);
+    verify(dataConverter, times(ROWS))
+        .convertToPedestrianBicyclistValue(any(Row.class), any(IngestionContext.class), anyMap());
+  }
+
+  @Test
+  public void should_RejectMerge_When_DocumentIsPedestrian() {
+    PedestrianBicyclistConverter pedestrianBicyclistConverter =
+        new PedestrianBicyclistConverter(savingDataService, dataConverter);
+
+    assertThatThrownBy(() -> pedestrianBicyclistConverter.merge(
+        pedestrianBicyclistConverter.convert(pedestrianRows(), context), context))
+        .isInstanceOf(ValidationException.class);
+    verifyNoInteractions(savingDataService);
+  }
+
+  private Stream<Row> trafficRows() {
+    return IntStream.range(0, ROWS).mapToObj(i -> {
+      Map<String, String> row = new HashMap<>();
+      row.put(ColumnNameConstants.COUNTY, "County_" + i);
+      row.put(ColumnNameConstants.DIR, "1-way");
+      row.put(ColumnNameConstants.LATITUDE, "37.7749");
+      row.put(ColumnNameConstants.LONGITUDE, "-122.4194");
+      return Row.of(row);
+    });
+  }
+
+  private Stream<Row> pedestrianRows() {
+    return IntStream.range(0, ROWS).mapToObj(i -> {
+      Map<String, String> row = new HashMap<>();
+      row.put(ColumnNameConstants.DATE, i % 2 == 0 ? "Thu, Apr 27, 2023" : "Fri, Apr 28, 2023");
+      row.put(ColumnNameConstants.COLUMN_NAME, "sensor_" + i);
+      row.put(ColumnNameConstants.COLUMN_VALUE, String.valueOf(i));
+      return Row.of(row);
+    });
+  }
+}
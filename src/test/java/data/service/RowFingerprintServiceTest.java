@@ -0,0 +1,153 @@
+package data.service;
+
+import com.syberry.poc.data.database.entity.Document;
+import com.syberry.poc.data.database.repository.RowFingerprintRepository;
+import com.syberry.poc.data.dto.enums.DocumentType;
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
+import com.syberry.poc.data.model.ColumnSchema;
+import com.syberry.poc.data.model.IngestionContext;
+import com.syberry.poc.data.model.Row;
+import com.syberry.poc.data.model.ValueDictionary;
+import com.syberry.poc.data.service.impl.RowFingerprintServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RowFingerprintServiceTest {
+  private static final String ROW_FINGERPRINT_TABLE = "CREATE TABLE `row_fingerprint` ("
+      + "`id` BIGINT AUTO_INCREMENT PRIMARY KEY, `document_type` VARCHAR(255) NOT NULL, "
+      + "`fingerprint` BIGINT NOT NULL, `document_id` BIGINT NOT NULL, "
+      + "UNIQUE (`document_type`, `fingerprint`))";
+  private static final ColumnSchema SCHEMA =
+      new ColumnSchema(List.of("county", "on_road", "direction"));
+  private static final ColumnSchema REORDERED_SCHEMA =
+      new ColumnSchema(List.of("direction", "county", "on_road", "notes"));
+  private final Document firstDocument = Document.builder().id(1L).build();
+  private final Document secondDocument = Document.builder().id(2L).build();
+  private SingleConnectionDataSource dataSource;
+  private JdbcTemplate jdbcTemplate;
+  private RowFingerprintServiceImpl rowFingerprintService;
+
+  @BeforeEach
+  public void setup() {
+    dataSource = new SingleConnectionDataSource(
+        "jdbc:h2:mem:fingerprint;MODE=MySQL;DATABASE_TO_LOWER=TRUE", true);
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute(ROW_FINGERPRINT_TABLE);
+    rowFingerprintService = newService(false);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    dataSource.destroy();
+  }
+
+  @Test
+  public void should_SkipIngestedRows_When_CumulativeDocumentIsUploaded() {
+    List<Row> firstDay = IntStream.range(0, 10)
+        .mapToObj(day -> row(SCHEMA, "Monroe", "Road " + day, "East"))
+        .collect(Collectors.toList());
+    assertThat(ingest(rowFingerprintService, firstDay.stream(), firstDocument))
+        .hasSize(10);
+
+    Stream<Row> secondDay = Stream.concat(
+        firstDay.stream().map(row -> row(REORDERED_SCHEMA,
+            row.get("direction"), row.get("county"), row.get("on_road"), null)),
+        Stream.of(row(SCHEMA, "Monroe", "Road 10", "East"),
+            row(SCHEMA, "Monroe", "Road 10", "East"),
+            row(SCHEMA, "Monroe", "Road 1", "West")));
+    List<Row> newRows = ingest(newService(true), secondDay, secondDocument);
+
+    assertThat(newRows).extracting(row -> row.get("on_road") + " " + row.get("direction"))
+        .containsExactly("Road 10 East", "Road 1 West");
+    assertThat(countFingerprints(secondDocument)).isEqualTo(2);
+  }
+
+  @Test
+  public void should_KeepFingerprintsPending_When_RowsAreNotWritten() {
+    List<Row> rows = IntStream.range(0, 10)
+        .mapToObj(day -> row(SCHEMA, "Monroe", "Road " + day, "East"))
+        .collect(Collectors.toList());
+    IngestionContext context = context(firstDocument);
+
+    try (Stream<Row> newRows =
+             rowFingerprintService.filterNewRows(rows.stream(), DocumentType.TRAFFIC, context)) {
+      Iterator<Row> iterator = newRows.iterator();
+      iterator.next();
+      iterator.next();
+      assertThat(context.getPendingFingerprints()).hasSize(2);
+      assertThat(countFingerprints(firstDocument)).isZero();
+    }
+
+    assertThat(ingest(rowFingerprintService, rows.stream(), secondDocument)).hasSize(10);
+  }
+
+  @Test
+  public void should_SkipRowsIngestedByOtherNode_When_BloomFilterIsDisabled() {
+    List<Row> rows = List.of(row(SCHEMA, "Monroe", "E 10th St", "East"),
+        row(SCHEMA, "Monroe", "N Walnut St", null));
+    RowFingerprintServiceImpl otherNode = newService(false);
+    assertThat(ingest(rowFingerprintService, Stream.of(rows.get(0)), firstDocument))
+        .hasSize(1);
+
+    ingest(otherNode, rows.stream(), firstDocument);
+
+    assertThat(ingest(rowFingerprintService, rows.stream(), secondDocument)).isEmpty();
+  }
+
+  @Test
+  public void should_IngestRowsAgain_When_DocumentFingerprintsAreDeleted() {
+    List<Row> rows = List.of(row(SCHEMA, "Monroe", "E 10th St", "East"),
+        row(SCHEMA, "Monroe", "N Walnut St", null));
+    ingest(rowFingerprintService, rows.stream(), firstDocument);
+    assertThat(ingest(rowFingerprintService, rows.stream(), secondDocument)).isEmpty();
+
+    new RowFingerprintRepository(jdbcTemplate).deleteByDocumentId(firstDocument.getId());
+
+    assertThat(ingest(rowFingerprintService, rows.stream(), secondDocument)).hasSize(2);
+  }
+
+  private RowFingerprintServiceImpl newService(boolean bloomFilterEnabled) {
+    RowFingerprintServiceImpl service =
+        new RowFingerprintServiceImpl(new RowFingerprintRepository(jdbcTemplate));
+    ReflectionTestUtils.setField(service, "chunkSize", 4);
+    ReflectionTestUtils.setField(service, "bloomFilterEnabled", bloomFilterEnabled);
+    ReflectionTestUtils.setField(service, "expectedRows", 1000L);
+    ReflectionTestUtils.setField(service, "falsePositiveProbability", 0.01);
+    return service;
+  }
+
+  private List<Row> ingest(RowFingerprintServiceImpl service, Stream<Row> rows,
+                           Document document) {
+    IngestionContext context = context(document);
+    try (Stream<Row> newRows = service.filterNewRows(rows, DocumentType.TRAFFIC, context)) {
+      List<Row> ingestedRows = newRows.collect(Collectors.toList());
+      service.recordFingerprints(DocumentType.TRAFFIC, context);
+      return ingestedRows;
+    }
+  }
+
+  private IngestionContext context(Document document) {
+    return new IngestionContext(document, new ValueDictionary(HashAlgorithm.XX_HASH_64, 100));
+  }
+
+  private int countFingerprints(Document document) {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM `row_fingerprint` "
+        + "WHERE `document_id` = ?", Integer.class, document.getId());
+  }
+
+  private Row row(ColumnSchema schema, String... values) {
+    return new Row(schema, values);
+  }
+}
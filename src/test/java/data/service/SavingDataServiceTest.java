@@ -0,0 +1,69 @@
+package data.service;
+
+import com.syberry.poc.data.database.repository.BatchInsertRepository;
+import com.syberry.poc.data.database.repository.BulkLoadRepository;
+import com.syberry.poc.data.database.repository.PedestrianBicyclistRepository;
+import com.syberry.poc.data.service.impl.SavingDataServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SavingDataServiceTest {
+  private static final int CHUNK_SIZE = 10;
+  @Mock
+  private PedestrianBicyclistRepository pedestrianBicyclistRepository;
+  @Mock
+  private BatchInsertRepository batchInsertRepository;
+  @Mock
+  private BulkLoadRepository bulkLoadRepository;
+  @Mock
+  private TransactionTemplate transactionTemplate;
+  @Mock
+  private EntityManager entityManager;
+  private SavingDataServiceImpl savingDataService;
+
+  @BeforeEach
+  public void setup() {
+    savingDataService = new SavingDataServiceImpl(pedestrianBicyclistRepository,
+        batchInsertRepository, bulkLoadRepository, transactionTemplate, entityManager);
+    ReflectionTestUtils.setField(savingDataService, "chunkSize", CHUNK_SIZE);
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(invocation -> invocation.<TransactionCallback<Integer>>getArgument(0)
+            .doInTransaction(null));
+  }
+
+  @Test
+  public void should_SaveEveryChunkInSeparateTransaction() {
+    List<Integer> chunkSizes = new ArrayList<>();
+
+    int savedEntities = savingDataService.saveInChunks(
+        IntStream.range(0, CHUNK_SIZE * 2 + 5).boxed(),
+        chunk -> {
+          chunkSizes.add(chunk.size());
+          return chunk.size();
+        });
+
+    assertThat(savedEntities).isEqualTo(CHUNK_SIZE * 2 + 5);
+    assertThat(chunkSizes).containsExactly(CHUNK_SIZE, CHUNK_SIZE, 5);
+    verify(transactionTemplate, times(3)).execute(any());
+    verify(entityManager, times(3)).flush();
+    verify(entityManager, times(3)).clear();
+  }
+}
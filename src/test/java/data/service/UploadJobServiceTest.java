@@ -0,0 +1,271 @@
+package data.service;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.syberry.poc.data.converter.DataConverter;
+import com.syberry.poc.data.database.entity.Document;
+import com.syberry.poc.data.database.repository.CrashDataRepository;
+import com.syberry.poc.data.database.repository.DocumentRepository;
+import com.syberry.poc.data.database.repository.PedestrianBicyclistRepository;
+import com.syberry.poc.data.database.repository.PedestrianBicyclistValuesRepository;
+import com.syberry.poc.data.database.repository.RowFingerprintRepository;
+import com.syberry.poc.data.database.repository.TrafficRepository;
+import com.syberry.poc.data.dto.UploadJobDto;
+import com.syberry.poc.data.dto.UploadReportDto;
+import com.syberry.poc.data.dto.enums.DocumentStatus;
+import com.syberry.poc.data.dto.enums.InsertMethod;
+import com.syberry.poc.data.dto.enums.UploadJobStage;
+import com.syberry.poc.data.model.UploadJob;
+import com.syberry.poc.data.service.CsvProcessingService;
+import com.syberry.poc.data.service.impl.DataServiceImpl;
+import com.syberry.poc.data.service.impl.UploadJobServiceImpl;
+import com.syberry.poc.data.specification.CrashDataSpecification;
+import com.syberry.poc.data.specification.PedestrianBicyclistSpecification;
+import com.syberry.poc.data.specification.TrafficSpecification;
+import com.syberry.poc.exception.EntityNotFoundException;
+import com.syberry.poc.exception.PermissionException;
+import com.syberry.poc.exception.ValidationException;
+import com.syberry.poc.user.database.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UploadJobServiceTest {
+  private static final String USER_NAME = "admin@mail.com";
+  @Mock
+  private CsvProcessingService csvProcessingService;
+  @Mock
+  private DocumentRepository documentRepository;
+  private UploadJobServiceImpl uploadJobService;
+  @TempDir
+  private Path spoolDirectory;
+  private final MockMultipartFile file = new MockMultipartFile(
+      "file", "crash_data.csv", "text/csv", "Year,Month\n2015,1\n".getBytes());
+
+  @BeforeEach
+  public void setup() {
+    uploadJobService = new UploadJobServiceImpl(csvProcessingService, new DataConverter(),
+        new SyncTaskExecutor(), CacheBuilder.newBuilder().build(),
+        CacheBuilder.newBuilder().build(), documentRepository);
+    ReflectionTestUtils.setField(uploadJobService, "spoolDirectory", spoolDirectory.toString());
+    SecurityContextHolder.setContext(new SecurityContextImpl(
+        new TestingAuthenticationToken(USER_NAME, null)));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void should_CompleteJob_When_DocumentIsProcessed() throws Exception {
+    when(csvProcessingService.processCsvDocument(any(Path.class), any(UploadJob.class)))
+        .thenReturn(new UploadReportDto(1, 1, 0));
+
+    UploadJobDto submittedJob = uploadJobService.submitCsvDocument(file, null, null);
+    UploadJobDto uploadJob = uploadJobService.findUploadJobById(submittedJob.getId());
+
+    assertThat(uploadJob.getStage()).isEqualTo(UploadJobStage.COMPLETED);
+    assertThat(uploadJob.getReport().getRecordedLines()).isEqualTo(1);
+    try (var spooledFiles = Files.list(spoolDirectory)) {
+      assertThat(spooledFiles).isEmpty();
+    }
+  }
+
+  @Test
+  public void should_FailJob_When_ProcessingThrowsException() {
+    when(csvProcessingService.processCsvDocument(any(Path.class), any(UploadJob.class)))
+        .thenThrow(new ValidationException("Incorrect header"));
+
+    UploadJobDto uploadJob = uploadJobService.submitCsvDocument(file, null, null);
+
+    assertThat(uploadJobService.findUploadJobById(uploadJob.getId()))
+        .satisfies(job -> assertThat(job.getStage()).isEqualTo(UploadJobStage.FAILED))
+        .satisfies(job -> assertThat(job.getError()).isEqualTo("Incorrect header"));
+  }
+
+  @Test
+  public void should_RecordContentHash_When_JobIsCompleted() throws Exception {
+    when(csvProcessingService.processCsvDocument(any(Path.class), any(UploadJob.class)))
+        .thenAnswer(invocation -> {
+          invocation.getArgument(1, UploadJob.class).addDocumentId(7L);
+          return new UploadReportDto(1, 1, 0);
+        });
+
+    uploadJobService.submitCsvDocument(file, null, null);
+
+    verify(documentRepository).updateContentHash(
+        Hashing.sha256().hashBytes(file.getBytes()).toString(), List.of(7L));
+  }
+
+  @Test
+  public void should_ReturnCompletedJob_When_SameDocumentIsUploadedAgain() throws Exception {
+    Document document = Document.builder().id(7L).processedRows(2).recordedRows(1)
+        .invalidDateRows(1).build();
+    when(documentRepository.findAllByContentHashAndUserEmail(
+        Hashing.sha256().hashBytes(file.getBytes()).toString(), USER_NAME))
+        .thenReturn(List.of(document));
+
+    UploadJobDto uploadJob = uploadJobService.submitCsvDocument(file, null, null);
+
+    assertThat(uploadJob.getStage()).isEqualTo(UploadJobStage.COMPLETED);
+    assertThat(uploadJob.getDocumentIds()).containsExactly(7L);
+    assertThat(uploadJob.getReport())
+        .usingRecursiveComparison()
+        .isEqualTo(new UploadReportDto(2, 1, 1));
+    verify(csvProcessingService, never()).processCsvDocument(any(), any());
+    try (var spooledFiles = Files.list(spoolDirectory)) {
+      assertThat(spooledFiles).isEmpty();
+    }
+  }
+
+  @Test
+  public void should_ProcessDocument_When_OtherUserUploadedSameDocument() throws Exception {
+    lenient().when(documentRepository.findAllByContentHashAndUserEmail(
+        Hashing.sha256().hashBytes(file.getBytes()).toString(), "other@mail.com"))
+        .thenReturn(List.of(Document.builder().id(7L).processedRows(1).build()));
+    when(csvProcessingService.processCsvDocument(any(Path.class), any(UploadJob.class)))
+        .thenAnswer(invocation -> {
+          invocation.getArgument(1, UploadJob.class).addDocumentId(8L);
+          return new UploadReportDto(1, 1, 0);
+        });
+
+    UploadJobDto uploadJob = uploadJobService.submitCsvDocument(file, null, null);
+
+    assertThat(uploadJobService.findUploadJobById(uploadJob.getId()).getDocumentIds())
+        .containsExactly(8L);
+    verify(csvProcessingService).processCsvDocument(any(), any());
+  }
+
+  @Test
+  public void should_ProcessDocumentAgain_When_UploadedDataIsDeleted() {
+    User user = User.builder().id(1L).email(USER_NAME).build();
+    Document document = Document.builder().id(7L).user(user).processedRows(1).build();
+    when(csvProcessingService.processCsvDocument(any(Path.class), any(UploadJob.class)))
+        .thenAnswer(invocation -> {
+          invocation.getArgument(1, UploadJob.class).addDocumentId(document.getId());
+          return new UploadReportDto(1, 1, 0);
+        });
+    when(documentRepository.findAllByContentHashAndUserEmail(any(), any()))
+        .thenAnswer(invocation -> invocation.getArgument(0).equals(document.getContentHash())
+            ? List.of(document) : List.of());
+    when(documentRepository.updateContentHash(any(), any())).thenAnswer(invocation -> {
+      document.setContentHash(invocation.getArgument(0));
+      return 1;
+    });
+    when(documentRepository.findById(document.getId())).thenReturn(Optional.of(document));
+    when(documentRepository.clearContentHash(any(), any())).thenAnswer(invocation -> {
+      document.setContentHash(null);
+      return 1;
+    });
+    DataServiceImpl dataService = new DataServiceImpl(documentRepository,
+        mock(TrafficRepository.class), mock(PedestrianBicyclistRepository.class),
+        mock(PedestrianBicyclistValuesRepository.class), mock(CrashDataRepository.class),
+        mock(RowFingerprintRepository.class), new DataConverter(),
+        mock(TrafficSpecification.class), mock(CrashDataSpecification.class),
+        mock(PedestrianBicyclistSpecification.class));
+
+    uploadJobService.submitCsvDocument(file, null, null);
+    uploadJobService.submitCsvDocument(file, null, null);
+    dataService.deleteCrashDataByDocumentId(document.getId());
+    uploadJobService.submitCsvDocument(file, null, null);
+
+    verify(csvProcessingService, times(2)).processCsvDocument(any(), any());
+    verify(documentRepository).clearContentHash(any(), any());
+  }
+
+  @Test
+  public void should_ReturnSameJob_When_IdempotencyKeyIsRepeated() {
+    when(csvProcessingService.processCsvDocument(any(Path.class), any(UploadJob.class)))
+        .thenReturn(new UploadReportDto(1, 1, 0));
+
+    UploadJobDto uploadJob = uploadJobService.submitCsvDocument(file, "retry-1", null);
+    UploadJobDto repeatedJob = uploadJobService.submitCsvDocument(file, "retry-1", null);
+
+    assertThat(repeatedJob.getId()).isEqualTo(uploadJob.getId());
+    verify(csvProcessingService, times(1)).processCsvDocument(any(), any());
+  }
+
+  @Test
+  public void should_ThrowException_When_DocumentTypeIsNotSupported() {
+    MockMultipartFile unsupportedFile = new MockMultipartFile(
+        "file", "unknown.csv", "text/csv", new byte[0]);
+    assertThrows(ValidationException.class,
+        () -> uploadJobService.submitCsvDocument(unsupportedFile, null, null));
+  }
+
+  @Test
+  public void should_RejectReplacement_When_DocumentIsUploadedByOtherUser() {
+    ReflectionTestUtils.setField(uploadJobService, "insertMethod", InsertMethod.MERGE);
+    when(documentRepository.findById(1L)).thenReturn(Optional.of(Document.builder().id(1L)
+        .user(User.builder().email("other@mail.com").build())
+        .status(DocumentStatus.COMPLETE).build()));
+
+    assertThrows(PermissionException.class,
+        () -> uploadJobService.submitCsvDocument(file, null, 1L));
+    verify(csvProcessingService, never()).processCsvDocument(any(), any());
+  }
+
+  @Test
+  public void should_QueueReplacingJob_When_DocumentIsUploadedByUser() {
+    ReflectionTestUtils.setField(uploadJobService, "insertMethod", InsertMethod.MERGE);
+    when(documentRepository.findById(1L)).thenReturn(Optional.of(Document.builder().id(1L)
+        .user(User.builder().email(USER_NAME).build())
+        .status(DocumentStatus.COMPLETE).build()));
+    when(csvProcessingService.processCsvDocument(any(Path.class), any(UploadJob.class)))
+        .thenAnswer(invocation -> {
+          assertThat(invocation.getArgument(1, UploadJob.class).getReplacedDocumentId())
+              .isEqualTo(1L);
+          return new UploadReportDto(1, 1, 0);
+        });
+
+    UploadJobDto uploadJob = uploadJobService.submitCsvDocument(file, null, 1L);
+
+    assertThat(uploadJob.getStage()).isEqualTo(UploadJobStage.COMPLETED);
+  }
+
+  @Test
+  public void should_ThrowException_When_JobIsSubmittedByOtherUser() {
+    when(csvProcessingService.processCsvDocument(any(Path.class), any(UploadJob.class)))
+        .thenReturn(new UploadReportDto(1, 1, 0));
+    UploadJobDto uploadJob = uploadJobService.submitCsvDocument(file, null, null);
+
+    SecurityContextHolder.setContext(new SecurityContextImpl(
+        new TestingAuthenticationToken("other@mail.com", null)));
+
+    assertThrows(PermissionException.class,
+        () -> uploadJobService.findUploadJobById(uploadJob.getId()));
+  }
+
+  @Test
+  public void should_ThrowException_When_JobDoesNotExist() {
+    assertThrows(EntityNotFoundException.class,
+        () -> uploadJobService.findUploadJobById("unknown"));
+  }
+}
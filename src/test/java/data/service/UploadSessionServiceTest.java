@@ -0,0 +1,151 @@
+package data.service;
+
+import com.google.common.cache.CacheBuilder;
+import com.syberry.poc.data.converter.DataConverter;
+import com.syberry.poc.data.database.repository.DocumentRepository;
+import com.syberry.poc.data.dto.UploadJobDto;
+import com.syberry.poc.data.dto.UploadReportDto;
+import com.syberry.poc.data.dto.UploadSessionDto;
+import com.syberry.poc.data.dto.enums.UploadJobStage;
+import com.syberry.poc.data.model.UploadJob;
+import com.syberry.poc.data.service.CsvProcessingService;
+import com.syberry.poc.data.service.impl.UploadJobServiceImpl;
+import com.syberry.poc.data.service.impl.UploadSessionServiceImpl;
+import com.syberry.poc.exception.FileReadingException;
+import com.syberry.poc.exception.PermissionException;
+import com.syberry.poc.exception.ValidationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class UploadSessionServiceTest {
+  @Mock
+  private CsvProcessingService csvProcessingService;
+  @Mock
+  private DocumentRepository documentRepository;
+  private UploadJobServiceImpl uploadJobService;
+  private UploadSessionServiceImpl uploadSessionService;
+  @TempDir
+  private Path spoolDirectory;
+
+  @BeforeEach
+  public void setup() {
+    uploadJobService = new UploadJobServiceImpl(csvProcessingService, new DataConverter(),
+        new SyncTaskExecutor(), CacheBuilder.newBuilder().build(),
+        CacheBuilder.newBuilder().build(), documentRepository);
+    uploadSessionService = new UploadSessionServiceImpl(uploadJobService, new DataConverter(),
+        CacheBuilder.newBuilder().build());
+    ReflectionTestUtils.setField(uploadSessionService, "spoolDirectory",
+        spoolDirectory.toString());
+    authenticate("admin@mail.com");
+  }
+
+  @AfterEach
+  public void clearAuthentication() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void should_ProcessDocument_When_ChunksAreCommitted() throws IOException {
+    List<String> processedDocuments = new ArrayList<>();
+    when(csvProcessingService.processCsvDocument(any(Path.class), any(UploadJob.class)))
+        .thenAnswer(invocation -> {
+          processedDocuments.add(Files.readString(invocation.getArgument(0)));
+          return new UploadReportDto(1, 1, 0);
+        });
+    UploadSessionDto uploadSession = uploadSessionService.createUploadSession("crash_data.csv");
+
+    uploadSessionService.appendChunk(uploadSession.getId(), 0, chunk("Year,Month\n"));
+    uploadSessionService.appendChunk(uploadSession.getId(), 1, chunk("2015,1\n"));
+    UploadSessionDto resentChunk =
+        uploadSessionService.appendChunk(uploadSession.getId(), 1, chunk("2015,1\n"));
+    UploadJobDto submittedJob = uploadSessionService.commitUploadSession(uploadSession.getId(), 2);
+
+    assertThat(resentChunk.getReceivedChunks()).isEqualTo(2);
+    assertThat(resentChunk.getReceivedBytes()).isEqualTo(18);
+    assertThat(processedDocuments).containsExactly("Year,Month\n2015,1\n");
+    assertThat(uploadJobService.findUploadJobById(submittedJob.getId()).getStage())
+        .isEqualTo(UploadJobStage.COMPLETED);
+    try (var spooledFiles = Files.list(spoolDirectory)) {
+      assertThat(spooledFiles).isEmpty();
+    }
+  }
+
+  @Test
+  public void should_DiscardChunk_When_ItIsInterrupted() throws IOException {
+    UploadSessionDto uploadSession = uploadSessionService.createUploadSession("crash_data.csv");
+    uploadSessionService.appendChunk(uploadSession.getId(), 0, chunk("Year,Month\n"));
+    InputStream interruptedChunk = new SequenceInputStream(chunk("2015,"), new InputStream() {
+      @Override
+      public int read() throws IOException {
+        throw new IOException("Connection reset");
+      }
+    });
+
+    assertThrows(FileReadingException.class,
+        () -> uploadSessionService.appendChunk(uploadSession.getId(), 1, interruptedChunk));
+    UploadSessionDto resumedSession = uploadSessionService.findUploadSessionById(
+        uploadSession.getId());
+    uploadSessionService.appendChunk(uploadSession.getId(), 1, chunk("2016,2\n"));
+
+    assertThat(resumedSession.getReceivedChunks()).isEqualTo(1);
+    assertThat(resumedSession.getReceivedBytes()).isEqualTo(11);
+    try (var spooledFiles = Files.list(spoolDirectory)) {
+      assertThat(spooledFiles).singleElement()
+          .satisfies(file -> assertThat(file).hasContent("Year,Month\n2016,2"));
+    }
+  }
+
+  @Test
+  public void should_ThrowException_When_ChunksAreMissing() {
+    UploadSessionDto uploadSession = uploadSessionService.createUploadSession("traffic.csv");
+    uploadSessionService.appendChunk(uploadSession.getId(), 0, chunk("Year,Month\n"));
+
+    assertThrows(ValidationException.class,
+        () -> uploadSessionService.appendChunk(uploadSession.getId(), 2, chunk("2015,1\n")));
+    assertThrows(ValidationException.class,
+        () -> uploadSessionService.commitUploadSession(uploadSession.getId(), 3));
+  }
+
+  @Test
+  public void should_ThrowException_When_SessionIsCreatedByAnotherUser() {
+    UploadSessionDto uploadSession = uploadSessionService.createUploadSession("traffic.csv");
+    authenticate("user@mail.com");
+
+    assertThrows(PermissionException.class,
+        () -> uploadSessionService.appendChunk(uploadSession.getId(), 0, chunk("Year\n")));
+  }
+
+  private InputStream chunk(String content) {
+    return new ByteArrayInputStream(content.getBytes());
+  }
+
+  private void authenticate(String username) {
+    SecurityContextHolder.setContext(
+        new SecurityContextImpl(new TestingAuthenticationToken(username, null)));
+  }
+}
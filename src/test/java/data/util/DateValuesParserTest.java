@@ -0,0 +1,36 @@
+package data.util;
+
+import com.syberry.poc.data.dto.enums.WeekDay;
+import com.syberry.poc.data.model.DateValues;
+import com.syberry.poc.data.util.DateValuesParser;
+import org.junit.jupiter.api.Test;
+
+import java.time.DateTimeException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DateValuesParserTest {
+
+  @Test
+  public void should_ParseDateWithSundayFirstWeekDayIndex() {
+    assertThat(DateValuesParser.parse("Thu, Apr 27, 2023"))
+        .isEqualTo(new DateValues(2023, 4, 27, WeekDay.FRIDAY));
+    assertThat(DateValuesParser.parse("Sun, Apr 30, 2023"))
+        .isEqualTo(new DateValues(2023, 4, 30, WeekDay.MONDAY));
+  }
+
+  @Test
+  public void should_ParseDateLeniently() {
+    assertThat(DateValuesParser.parse("Mon, apr 31, 2023 10:00"))
+        .isEqualTo(new DateValues(2023, 5, 1, WeekDay.TUESDAY));
+    assertThat(DateValuesParser.parse("Fri, Apr 7, 2023"))
+        .isEqualTo(new DateValues(2023, 4, 7, WeekDay.SATURDAY));
+  }
+
+  @Test
+  public void should_ThrowException_When_DateIsInvalid() {
+    assertThrows(DateTimeException.class, () -> DateValuesParser.parse("unknown"));
+    assertThrows(DateTimeException.class, () -> DateValuesParser.parse("Thu, Apr 27"));
+  }
+}
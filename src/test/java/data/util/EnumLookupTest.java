@@ -0,0 +1,30 @@
+package data.util;
+
+import com.syberry.poc.data.dto.enums.Direction;
+import com.syberry.poc.data.dto.enums.InjuryType;
+import com.syberry.poc.data.util.EnumLookup;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EnumLookupTest {
+  private final EnumLookup<InjuryType> injuryTypes = EnumLookup.of(InjuryType.class);
+  private final EnumLookup<Direction> directions = EnumLookup.of(Direction.class)
+      .withAlias("1-way", Direction.ONE_WAY);
+
+  @Test
+  public void should_FindConstantsAsValueOfWithSeparatorsReplaced() {
+    assertThat(injuryTypes.find("No_Injury/unknown")).isEqualTo(InjuryType.NO_INJURY_UNKNOWN);
+    assertThat(injuryTypes.find("non-incapacitating")).isEqualTo(InjuryType.NON_INCAPACITATING);
+    assertThat(injuryTypes.find("Fatal")).isEqualTo(InjuryType.FATAL);
+    assertThat(directions.find("1 - Way")).isEqualTo(Direction.ONE_WAY);
+    assertThat(directions.find("two-way")).isEqualTo(Direction.TWO_WAY);
+  }
+
+  @Test
+  public void should_ReturnNull_When_TokenIsUnknown() {
+    assertThat(injuryTypes.find("minor")).isNull();
+    assertThat(injuryTypes.find(null)).isNull();
+    assertThat(directions.find("2-way")).isNull();
+  }
+}
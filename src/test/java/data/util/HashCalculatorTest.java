@@ -0,0 +1,30 @@
+package data.util;
+
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
+import com.syberry.poc.data.util.HashCalculator;
+import com.syberry.poc.data.util.XxHash64;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HashCalculatorTest {
+
+  @Test
+  public void should_MatchXxHash64ReferenceValues() {
+    assertThat(XxHash64.hash(new byte[0])).isEqualTo(0xEF46DB3751D8E999L);
+    assertThat(XxHash64.hash("abc".getBytes(StandardCharsets.UTF_8)))
+        .isEqualTo(0x44BC2CF5AD770999L);
+    assertThat(XxHash64.hash("Nobody inspects the spammish repetition"
+        .getBytes(StandardCharsets.UTF_8))).isEqualTo(0xFBCEA83C8A378BF1L);
+  }
+
+  @Test
+  public void should_UseSha256_When_DocumentHasNoHashAlgorithm() {
+    assertThat(HashCalculator.calculateHash("Main_Street", null))
+        .isEqualTo(HashCalculator.calculateHash("Main_Street", HashAlgorithm.SHA_256))
+        .isEqualTo(HashCalculator.calculateHash("Main_Street"));
+    assertThat(HashCalculator.calculateHash(null, HashAlgorithm.XX_HASH_64)).isNull();
+  }
+}
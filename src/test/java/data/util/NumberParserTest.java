@@ -0,0 +1,23 @@
+package data.util;
+
+import com.syberry.poc.data.util.NumberParser;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NumberParserTest {
+
+  @ParameterizedTest
+  @ValueSource(strings = {"37.7749", "-122.4194", "39.16584321", "-86.52341123", "0", "-0.0",
+      "+1.5", " 12.25 ", "123456789012345678901.5", "0.00000000000123", "16777217"})
+  public void should_ParseAsFloatParseFloat(String value) {
+    assertThat(NumberParser.parseFloat(value)).isEqualTo(Float.parseFloat(value));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "  ", "-", ".", "1.2.3", "12a", "null", "1,5"})
+  public void should_ReturnNull_When_ValueIsNotDecimal(String value) {
+    assertThat(NumberParser.parseFloat(value)).isNull();
+  }
+}
@@ -0,0 +1,59 @@
+package data.util;
+
+import com.syberry.poc.data.dto.enums.HashAlgorithm;
+import com.syberry.poc.data.dto.enums.Weekend;
+import com.syberry.poc.data.model.ValueDictionary;
+import com.syberry.poc.data.util.HashCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ValueDictionaryTest {
+  private final ValueDictionary valueDictionary =
+      new ValueDictionary(HashAlgorithm.XX_HASH_64, 2);
+
+  @Test
+  public void should_ReturnSameInstance_When_ValuesArePrettifiedEqually() {
+    String prettifiedValue = valueDictionary.prettify("main street");
+
+    assertThat(prettifiedValue).isEqualTo("Main_Street");
+    assertThat(valueDictionary.prettify(new String("main street"))).isSameAs(prettifiedValue);
+    assertThat(valueDictionary.prettify(" MAIN   street ")).isSameAs(prettifiedValue);
+  }
+
+  @Test
+  public void should_CalculateHashWithDocumentAlgorithm() {
+    assertThat(valueDictionary.hash("Main_Street"))
+        .isEqualTo(HashCalculator.calculateHash("Main_Street", HashAlgorithm.XX_HASH_64));
+    assertThat(valueDictionary.hash(null)).isNull();
+  }
+
+  @Test
+  public void should_ConvertEachValueToEnumOnce() {
+    AtomicInteger conversions = new AtomicInteger();
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(valueDictionary.toEnum(Weekend.class, "weekend", value -> {
+        conversions.incrementAndGet();
+        return Weekend.valueOf(value.toUpperCase());
+      })).isEqualTo(Weekend.WEEKEND);
+    }
+
+    assertThat(conversions.get()).isEqualTo(1);
+    assertThrows(IllegalArgumentException.class,
+        () -> valueDictionary.toEnum(Weekend.class, "holiday", Weekend::valueOf));
+  }
+
+  @Test
+  public void should_ComputeValues_When_DictionaryIsFull() {
+    valueDictionary.prettify("first");
+    valueDictionary.prettify("second");
+
+    assertThat(valueDictionary.prettify("third street")).isEqualTo("Third_Street");
+    assertThat(valueDictionary.prettify("third street"))
+        .isNotSameAs(valueDictionary.prettify("third street"));
+  }
+}